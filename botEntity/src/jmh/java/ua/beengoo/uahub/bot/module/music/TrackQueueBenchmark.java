@@ -0,0 +1,147 @@
+package ua.beengoo.uahub.bot.module.music;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrackInfo;
+import com.sedmelluq.discord.lavaplayer.track.BaseAudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.playback.LocalAudioTrackExecutor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ua.beengoo.uahub.bot.module.music.player.AudioTrackMeta;
+import ua.beengoo.uahub.bot.module.music.player.TrackQueue;
+
+/**
+ * Queue operations of a full player queue (1028 entries): the former {@code ArrayList} with linear
+ * scans against {@link TrackQueue}.
+ *
+ * <p>Each pair measures what the player does on the hot path: resolving metadata on track
+ * start/end, de-duplicating an add, appending with eviction of the oldest entry, removing a
+ * skipped track from the middle, moving a track to the front and shuffling the upcoming tracks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TrackQueueBenchmark {
+  private static final int CAP = 1028;
+
+  private List<AudioTrackMeta> list;
+  private TrackQueue queue;
+  private AudioTrackMeta[] fresh;
+  private String lastId;
+  private AudioTrackMeta duplicate;
+  private int next;
+  private final Random random = new Random(42);
+
+  @Setup
+  public void setup() {
+    list = new ArrayList<>();
+    queue = new TrackQueue(CAP);
+    for (int i = 0; i < CAP; i++) {
+      AudioTrackMeta meta = meta("q" + i);
+      list.add(meta);
+      queue.add(meta);
+    }
+    lastId = "q" + (CAP - 1);
+    duplicate = meta(lastId);
+    fresh = new AudioTrackMeta[4096];
+    for (int i = 0; i < fresh.length; i++) fresh[i] = meta("n" + i);
+  }
+
+  @Benchmark
+  public AudioTrackMeta lookupLinearScan() {
+    for (AudioTrackMeta me : list) {
+      if (me.getEntity().getIdentifier().equals(lastId)) return me;
+    }
+    return null;
+  }
+
+  @Benchmark
+  public AudioTrackMeta lookupIndexed() {
+    return queue.find(lastId);
+  }
+
+  @Benchmark
+  public boolean duplicateAddLinearScan() {
+    for (AudioTrackMeta t : list) {
+      if (lastId.equals(t.getEntity().getIdentifier())) return false;
+    }
+    return true;
+  }
+
+  @Benchmark
+  public boolean duplicateAddIndexed() {
+    return queue.add(duplicate);
+  }
+
+  /** Appends evicting the oldest; the fresh entries cycle so the queue stays full and unique. */
+  @Benchmark
+  public int appendEvictArrayList() {
+    list.remove(0);
+    list.add(fresh[next++ & (fresh.length - 1)]);
+    return list.size();
+  }
+
+  @Benchmark
+  public int appendEvictRing() {
+    queue.add(fresh[next++ & (fresh.length - 1)]);
+    return queue.size();
+  }
+
+  /** Removes the entry in the middle and puts it back at the end, keeping the size constant. */
+  @Benchmark
+  public int removeMiddleArrayList() {
+    list.add(list.remove(CAP / 2));
+    return list.size();
+  }
+
+  @Benchmark
+  public int removeMiddleRing() {
+    queue.add(queue.remove(CAP / 2));
+    return queue.size();
+  }
+
+  /** Moves the last entry to the front, the longest move. */
+  @Benchmark
+  public int moveArrayList() {
+    list.add(0, list.remove(CAP - 1));
+    return list.size();
+  }
+
+  @Benchmark
+  public int moveRing() {
+    queue.move(CAP - 1, 0);
+    return queue.size();
+  }
+
+  /** Shuffles everything after the first entry, as when the first track is playing. */
+  @Benchmark
+  public int shuffleArrayList() {
+    Collections.shuffle(list.subList(1, CAP), random);
+    return list.size();
+  }
+
+  @Benchmark
+  public int shuffleRing() {
+    queue.shuffle(1, random);
+    return queue.size();
+  }
+
+  private static AudioTrackMeta meta(String id) {
+    AudioTrackInfo info =
+        new AudioTrackInfo(id, "author", 180_000, id, false, "https://example.com/" + id);
+    return new AudioTrackMeta(
+        new BaseAudioTrack(info) {
+          @Override
+          public void process(LocalAudioTrackExecutor executor) {}
+        },
+        null);
+  }
+}
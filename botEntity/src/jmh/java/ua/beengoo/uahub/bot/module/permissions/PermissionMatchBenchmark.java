@@ -0,0 +1,111 @@
+package ua.beengoo.uahub.bot.module.permissions;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import ua.beengoo.uahub.bot.module.permissions.data.CompiledPermissions;
+
+/**
+ * Node matching of a resolved permission set: the former linear scan over all resolved nodes
+ * against the compiled exact map plus segment trie.
+ *
+ * <p>The resolved sets mirror real group graphs: a default group, music/moderation groups inherited
+ * by staff groups, per-feature overrides and a few user nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PermissionMatchBenchmark {
+
+  /** member: default group only; dj: plus music groups; staff: moderation chain and overrides. */
+  @Param({"member", "dj", "staff"})
+  public String profile;
+
+  private LinkedHashMap<String, Boolean> resolved;
+  private CompiledPermissions compiled;
+
+  private static final String[] TARGETS = {
+    "rank.view", // exact
+    "music.play", // exact or wildcard depending on profile
+    "music.pl.create", // nested wildcard
+    "music.ctrl.volume",
+    "mod.clear", // wildcard for staff, miss otherwise
+    "mod.ban.temp",
+    "settings.music.vote", // deep miss
+    "voice.create",
+  };
+
+  @Setup
+  public void setup() {
+    resolved = new LinkedHashMap<>();
+    // default group
+    put("rank.view", true);
+    put("rank.top", true);
+    put("music.play", true);
+    put("music.queue", true);
+    put("music.pl.view", true);
+    put("voice.create", true);
+    put("settings.view", true);
+    if (!profile.equals("member")) {
+      // dj -> default
+      put("music.*", true);
+      put("music.ctrl.*", true);
+      put("music.pl.*", true);
+      put("music.ctrl.volume", false);
+      put("music.pl.delete", false);
+    }
+    if (profile.equals("staff")) {
+      // admin -> moderator -> helper -> dj
+      put("mod.*", true);
+      put("mod.ban.*", false);
+      put("mod.warn*", true);
+      put("rank.admin.*", true);
+      put("perms.*", true);
+      put("perms.group.*", false);
+      put("settings.*", true);
+      for (int i = 0; i < 40; i++) put("feature" + i + ".use", i % 3 != 0);
+      // user overrides
+      put("mod.ban.temp", true);
+      put("music.ctrl.volume", true);
+    }
+    compiled = CompiledPermissions.of(resolved, Set.of());
+  }
+
+  private void put(String node, boolean allowed) {
+    resolved.remove(node);
+    resolved.put(node, allowed);
+  }
+
+  @Benchmark
+  public void linearScan(Blackhole bh) {
+    for (String target : TARGETS) bh.consume(linear(resolved, target));
+  }
+
+  @Benchmark
+  public void compiledTrie(Blackhole bh) {
+    for (String target : TARGETS) bh.consume(compiled.check(target));
+  }
+
+  /** Matching as done before compilation: exact lookup, then the first wildcard in map order. */
+  private static boolean linear(LinkedHashMap<String, Boolean> resolved, String target) {
+    Boolean exact = resolved.get(target);
+    if (exact != null) return exact;
+    for (Map.Entry<String, Boolean> e : resolved.entrySet()) {
+      String key = e.getKey();
+      if (key.endsWith("*") && target.startsWith(key.substring(0, key.length() - 1))) {
+        return e.getValue();
+      }
+    }
+    return false;
+  }
+}
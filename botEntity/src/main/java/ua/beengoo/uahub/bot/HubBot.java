@@ -68,6 +68,9 @@ public class HubBot {
       props.put("spring.datasource.driver-class-name", "org.postgresql.Driver");
 
       props.put("spring.jpa.hibernate.ddl-auto", "update");
+      // Group buffered rank updates into JDBC batches
+      props.put("spring.jpa.properties.hibernate.jdbc.batch_size", "50");
+      props.put("spring.jpa.properties.hibernate.order_updates", "true");
       // Disable JPA/hibernate SQL printing; rely on logback for levels
       props.put("spring.jpa.show-sql", "false");
       // Optionally reduce hibernate logger noise via Spring property mapping
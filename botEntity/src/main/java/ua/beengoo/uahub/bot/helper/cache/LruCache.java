@@ -0,0 +1,50 @@
+package ua.beengoo.uahub.bot.helper.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/** Small thread-safe cache that evicts the least recently used entry once full. */
+public class LruCache<K, V> {
+  private final int capacity;
+  private final LinkedHashMap<K, V> map;
+
+  public LruCache(int capacity) {
+    if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+    this.capacity = capacity;
+    this.map =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > LruCache.this.capacity;
+          }
+        };
+  }
+
+  /** Returns the cached value or {@code null}, marking the entry as recently used. */
+  public synchronized V get(K key) {
+    return map.get(key);
+  }
+
+  /** Stores a value, evicting the least recently used entry when over capacity. */
+  public synchronized void put(K key, V value) {
+    map.put(key, value);
+  }
+
+  /** Returns the cached value or computes and stores it; {@code null} results are not cached. */
+  public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+    return map.computeIfAbsent(key, loader);
+  }
+
+  public synchronized void remove(K key) {
+    map.remove(key);
+  }
+
+  public synchronized void clear() {
+    map.clear();
+  }
+
+  public synchronized int size() {
+    return map.size();
+  }
+}
@@ -0,0 +1,14 @@
+package ua.beengoo.uahub.bot.helper.interaction;
+
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
+
+/** Component interaction callbacks registered with {@link InteractionRouter}. */
+public interface InteractionHandler {
+  default void onButtonInteraction(ButtonInteractionEvent event) {}
+
+  default void onStringSelectInteraction(StringSelectInteractionEvent event) {}
+
+  /** Called once when the route is dropped after being idle for its TTL. */
+  default void onExpire() {}
+}
@@ -0,0 +1,113 @@
+package ua.beengoo.uahub.bot.helper.interaction;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.GenericComponentInteractionCreateEvent;
+import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single JDA listener dispatching button and select interactions to registered handlers.
+ *
+ * <p>Handlers are bound either to a message id or to a component id prefix, the part of the id
+ * before the first {@code ':'} (the whole id if it has none). Both are hash lookups, so the cost of
+ * a click does not depend on how many handlers exist. Routes with a TTL are dropped once idle for
+ * that long, releasing the handler and everything it references.
+ */
+@Component
+@Slf4j
+public class InteractionRouter extends ListenerAdapter {
+  private final Map<Long, Route> byMessage = new ConcurrentHashMap<>();
+  private final Map<String, Route> byPrefix = new ConcurrentHashMap<>();
+
+  /**
+   * Routes interactions on a message to a handler, replacing any previous one.
+   *
+   * @param idleTtl drop the route after this long without interactions, {@code null} to keep it
+   *     until {@link #unbindMessage(long)}
+   */
+  public void bindMessage(long messageId, InteractionHandler handler, Duration idleTtl) {
+    byMessage.put(messageId, new Route(handler, idleTtl));
+  }
+
+  public void unbindMessage(long messageId) {
+    byMessage.remove(messageId);
+  }
+
+  /** Routes interactions whose component id starts with {@code prefix}, see class docs. */
+  public void bindPrefix(String prefix, InteractionHandler handler) {
+    byPrefix.put(prefix, new Route(handler, null));
+  }
+
+  public void unbindPrefix(String prefix) {
+    byPrefix.remove(prefix);
+  }
+
+  @Override
+  public void onButtonInteraction(@NotNull ButtonInteractionEvent event) {
+    Route route = route(event);
+    if (route != null) route.handler.onButtonInteraction(event);
+  }
+
+  @Override
+  public void onStringSelectInteraction(@NotNull StringSelectInteractionEvent event) {
+    Route route = route(event);
+    if (route != null) route.handler.onStringSelectInteraction(event);
+  }
+
+  /** Drops routes idle for longer than their TTL. */
+  @Scheduled(fixedDelay = 60000)
+  public void evictExpired() {
+    long now = System.currentTimeMillis();
+    Iterator<Route> it = byMessage.values().iterator();
+    while (it.hasNext()) {
+      Route route = it.next();
+      if (!route.isExpired(now)) continue;
+      it.remove();
+      try {
+        route.handler.onExpire();
+      } catch (RuntimeException e) {
+        log.debug("Interaction route expiry failed: {}", e.getMessage());
+      }
+    }
+  }
+
+  /** Number of message routes, for diagnostics. */
+  public int size() {
+    return byMessage.size();
+  }
+
+  private Route route(GenericComponentInteractionCreateEvent event) {
+    Route route = byMessage.get(event.getMessageIdLong());
+    if (route == null) route = byPrefix.get(prefixOf(event.getComponentId()));
+    if (route != null) route.lastUsed = System.currentTimeMillis();
+    return route;
+  }
+
+  static String prefixOf(String componentId) {
+    int colon = componentId.indexOf(':');
+    return colon < 0 ? componentId : componentId.substring(0, colon);
+  }
+
+  private static final class Route {
+    private final InteractionHandler handler;
+    private final long ttlMillis;
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    private Route(InteractionHandler handler, Duration idleTtl) {
+      this.handler = handler;
+      this.ttlMillis = idleTtl != null ? idleTtl.toMillis() : -1;
+    }
+
+    private boolean isExpired(long now) {
+      return ttlMillis >= 0 && now - lastUsed > ttlMillis;
+    }
+  }
+}
@@ -1,19 +1,28 @@
 package ua.beengoo.uahub.bot.helper.paginator;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
-import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.interactions.components.ActionRow;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
+import ua.beengoo.uahub.bot.ContextHolder;
 import ua.beengoo.uahub.bot.Lang;
+import ua.beengoo.uahub.bot.helper.cache.LruCache;
+import ua.beengoo.uahub.bot.helper.interaction.InteractionHandler;
+import ua.beengoo.uahub.bot.helper.interaction.InteractionRouter;
 
 public class ButtonPaginator {
-  private final List<MessageEmbed> pages;
+  /** Rendered pages kept around for back-and-forth navigation. */
+  private static final int RENDERED_PAGES = 5;
+  /** Paginators nobody clicked for this long are dropped together with their pages. */
+  private static final Duration IDLE_TTL = Duration.ofMinutes(15);
+
+  private final PageSource pages;
+  private final LruCache<Integer, MessageEmbed> rendered = new LruCache<>(RENDERED_PAGES);
   private final User user;
   private final boolean ephemeral;
     private final List<Buttons> includedButtons;
@@ -21,27 +30,36 @@ public class ButtonPaginator {
     private int currentPage = 0;
   private Message message;
 
-  public ButtonPaginator(List<MessageEmbed> pages, User user, boolean ephemeral, List<Buttons> includedButtons) {
+  public ButtonPaginator(PageSource pages, User user, boolean ephemeral, List<Buttons> includedButtons) {
       this.pages = pages;
       this.user = user;
       this.ephemeral = ephemeral;
       this.includedButtons = includedButtons;
   }
+  public ButtonPaginator(PageSource pages, User user, boolean ephemeral) {
+      this(pages, user, ephemeral, List.of(Buttons.FIRST, Buttons.PREVIOUS, Buttons.NEXT, Buttons.LAST));
+  }
+  public ButtonPaginator(List<MessageEmbed> pages, User user, boolean ephemeral, List<Buttons> includedButtons) {
+      this(PageSource.of(pages), user, ephemeral, includedButtons);
+  }
   public ButtonPaginator(List<MessageEmbed> pages, User user, boolean ephemeral) {
-      this.pages = pages;
-      this.user = user;
-      this.ephemeral = ephemeral;
-      this.includedButtons = List.of(Buttons.FIRST, Buttons.PREVIOUS, Buttons.NEXT, Buttons.LAST);
+      this(PageSource.of(pages), user, ephemeral);
+  }
+
+  /** Returns a page by its 0-based index, rendering it only if it is not cached. */
+  public MessageEmbed getPage(int page) {
+    return rendered.computeIfAbsent(page, pages::render);
   }
 
-  public void paginate(Message sentMessage, JDA jda) {
+  public void paginate(Message sentMessage) {
     this.message = sentMessage;
     updateMessage();
-    jda.addEventListener(listener);
+    ContextHolder.getBean(InteractionRouter.class)
+        .bindMessage(sentMessage.getIdLong(), handler, IDLE_TTL);
   }
 
   private void updateMessage() {
-    message.editMessageEmbeds(pages.get(currentPage)).setComponents(getButtons()).queue();
+    message.editMessageEmbeds(getPage(currentPage)).setComponents(getButtons()).queue();
   }
 
   private List<ActionRow> getButtons() {
@@ -55,20 +73,19 @@ public class ButtonPaginator {
               case PREVIOUS -> buttons.add(Button.secondary("prev", Lang.get("paginator.prev"))
                   .withDisabled(currentPage == 0));
               case NEXT -> buttons.add(Button.secondary("next", Lang.get("paginator.next"))
-                  .withDisabled(currentPage == pages.size() - 1));
+                  .withDisabled(currentPage == pages.pageCount() - 1));
               case LAST -> buttons.add(Button.secondary("last", Lang.get("paginator.last"))
-                  .withDisabled(currentPage == pages.size() - 1));
+                  .withDisabled(currentPage == pages.pageCount() - 1));
           }
       });
 
     return List.of(ActionRow.of(buttons));
   }
 
-  private final ListenerAdapter listener =
-      new ListenerAdapter() {
+  private final InteractionHandler handler =
+      new InteractionHandler() {
         @Override
         public void onButtonInteraction(ButtonInteractionEvent event) {
-          if (!event.getMessageId().equals(message.getId())) return;
           if (!event.getUser().equals(user)) {
             event.deferEdit().queue(); // ігнор для інших
             return;
@@ -77,11 +94,17 @@ public class ButtonPaginator {
           switch (event.getComponentId()) {
             case "first" -> currentPage = 0;
             case "prev" -> currentPage = Math.max(0, currentPage - 1);
-            case "next" -> currentPage = Math.min(pages.size() - 1, currentPage + 1);
-            case "last" -> currentPage = pages.size() - 1;
+            case "next" -> currentPage = Math.min(pages.pageCount() - 1, currentPage + 1);
+            case "last" -> currentPage = pages.pageCount() - 1;
           }
 
-          event.editMessageEmbeds(pages.get(currentPage)).setComponents(getButtons()).queue();
+          event.editMessageEmbeds(getPage(currentPage)).setComponents(getButtons()).queue();
+        }
+
+        @Override
+        public void onExpire() {
+          // Ephemeral messages can no longer be edited by now, which is fine
+          message.editMessageComponents().queue(null, e -> {});
         }
       };
 }
@@ -0,0 +1,57 @@
+package ua.beengoo.uahub.bot.helper.paginator;
+
+import java.util.List;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+/** Supplies paginator pages on demand, so only pages that are actually viewed get rendered. */
+public interface PageSource {
+  /** Total number of pages, at least 1. */
+  int pageCount();
+
+  /** Renders a page by its 0-based index. */
+  MessageEmbed render(int page);
+
+  /** Source over already built pages. */
+  static PageSource of(List<MessageEmbed> pages) {
+    return new PageSource() {
+      @Override
+      public int pageCount() {
+        return pages.size();
+      }
+
+      @Override
+      public MessageEmbed render(int page) {
+        return pages.get(page);
+      }
+    };
+  }
+
+  /**
+   * Source over a list of items split into fixed-size chunks.
+   *
+   * @param renderer builds the embed of one chunk, given the chunk, its page index and the offset
+   *     of its first item
+   */
+  static <T> PageSource chunked(List<T> items, int pageSize, ChunkRenderer<T> renderer) {
+    int count = Math.max(1, (items.size() + pageSize - 1) / pageSize);
+    return new PageSource() {
+      @Override
+      public int pageCount() {
+        return count;
+      }
+
+      @Override
+      public MessageEmbed render(int page) {
+        int from = page * pageSize;
+        List<T> chunk = items.subList(from, Math.min(from + pageSize, items.size()));
+        return renderer.render(chunk, page, from);
+      }
+    };
+  }
+
+  /** Renders one chunk of {@link #chunked(List, int, ChunkRenderer)}. */
+  @FunctionalInterface
+  interface ChunkRenderer<T> {
+    MessageEmbed render(List<T> chunk, int page, int offset);
+  }
+}
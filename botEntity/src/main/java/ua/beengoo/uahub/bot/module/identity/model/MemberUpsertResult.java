@@ -0,0 +1,10 @@
+package ua.beengoo.uahub.bot.module.identity.model;
+
+/** Row returned by {@link ServerMemberRepo#upsertByDiscordId(long)}. */
+public interface MemberUpsertResult {
+  /** Row id of the member. */
+  Long getId();
+
+  /** Whether the statement created the member. */
+  Boolean getInserted();
+}
@@ -8,7 +8,10 @@ import ua.beengoo.uahub.bot.module.rank.model.RankStats;
 /** JPA entity representing a Discord guild member tracked by the bot. */
 @Entity
 @Data
-@Table(name = "members")
+@Table(
+    name = "members",
+    uniqueConstraints =
+        @UniqueConstraint(name = "ux_members_discord_id", columnNames = "discord_id"))
 public class ServerMember {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
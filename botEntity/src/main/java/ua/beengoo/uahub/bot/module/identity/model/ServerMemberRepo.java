@@ -1,8 +1,13 @@
 package ua.beengoo.uahub.bot.module.identity.model;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface ServerMemberRepo extends JpaRepository<ServerMember, Long> {
@@ -21,4 +26,50 @@ public interface ServerMemberRepo extends JpaRepository<ServerMember, Long> {
    * @return true if a record exists
    */
   boolean existsByDiscordId(long discordId);
+
+  /**
+   * Finds all members whose Discord user id is in the given set.
+   *
+   * @param discordIds Discord user ids
+   * @return matching entities
+   */
+  List<ServerMember> findByDiscordIdIn(Collection<Long> discordIds);
+
+  /**
+   * Creates a member with default rank stats and permissions unless it exists, in one statement.
+   *
+   * <p>Relies on the unique constraint on {@code members.discord_id}. For a new member, ids are
+   * taken from the identity sequences up front so the mutually referencing rows can be inserted
+   * together; foreign keys are checked at the end of the statement. An existing member uses no
+   * sequence values, except when a concurrent insert wins the race.
+   *
+   * @param discordId Discord user id
+   * @return the row id and whether it was created; empty only if a concurrent insert won the race
+   */
+  @Transactional
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          WITH ids AS (
+            SELECT nextval(pg_get_serial_sequence('members', 'id')) AS member_id,
+                   nextval(pg_get_serial_sequence('rank_stats', 'id')) AS stats_id
+            WHERE NOT EXISTS (SELECT 1 FROM members WHERE discord_id = :discordId)
+          ), inserted AS (
+            INSERT INTO members (id, discord_id, rank_stats_id)
+            SELECT member_id, :discordId, stats_id FROM ids
+            ON CONFLICT (discord_id) DO NOTHING
+            RETURNING id, rank_stats_id
+          ), stats AS (
+            INSERT INTO rank_stats
+              (id, members_id, prime_points, voice_points, level, chat_points, multiplier)
+            SELECT rank_stats_id, id, 0, 0, 0, 0, 1 FROM inserted
+          ), perms AS (
+            INSERT INTO member_perms (members_id) SELECT id FROM inserted
+          )
+          SELECT id, true AS inserted FROM inserted
+          UNION ALL
+          SELECT id, false AS inserted FROM members WHERE discord_id = :discordId
+          """)
+  Optional<MemberUpsertResult> upsertByDiscordId(@Param("discordId") long discordId);
 }
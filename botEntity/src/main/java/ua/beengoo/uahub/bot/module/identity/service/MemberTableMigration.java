@@ -0,0 +1,192 @@
+package ua.beengoo.uahub.bot.module.identity.service;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ua.beengoo.uahub.bot.module.identity.model.ServerMemberRepo;
+import ua.beengoo.uahub.bot.module.rank.service.RankingService;
+
+/**
+ * Adds the unique constraint on {@code members.discord_id} that {@link
+ * ServerMemberRepo#upsertByDiscordId} relies on.
+ *
+ * <p>Schema update only logs when it cannot create the constraint, which happens if earlier
+ * check-then-insert races left duplicate rows. This runs before {@link ServerMemberController} is
+ * created and folds every duplicate into the oldest row of its Discord id: rank counters are added
+ * up, playlists and music settings move over (same-named playlists are merged, the kept row's
+ * settings win) and the duplicate's permissions are dropped. Then the constraint is added. If any
+ * of that fails, nothing is changed and startup fails.
+ */
+@Component
+@Slf4j
+public class MemberTableMigration {
+  static final String CONSTRAINT = "ux_members_discord_id";
+
+  /** Rank stats columns that are summed when rows are merged; the multiplier is kept as is. */
+  private static final List<String> RANK_COUNTERS =
+      List.of(
+          "prime_points",
+          "voice_points",
+          "chat_points",
+          "messages_sent",
+          "voice_joins",
+          "voice_ms_alone",
+          "voice_ms_with_others",
+          "voice_ms_muted",
+          "voice_ms_deafened",
+          "voice_ms_active");
+
+  private static final String MERGE_RANK_STATS =
+      "UPDATE rank_stats SET "
+          + RANK_COUNTERS.stream()
+              .map(
+                  c ->
+                      c
+                          + " = coalesce("
+                          + c
+                          + ", 0) + coalesce((SELECT d."
+                          + c
+                          + " FROM rank_stats d WHERE d.members_id = ?), 0)")
+              .collect(Collectors.joining(", "))
+          + " WHERE members_id = ?";
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate transaction;
+
+  /** Takes the repository so the schema update has run before {@link #migrate()}. */
+  public MemberTableMigration(
+      JdbcTemplate jdbc, PlatformTransactionManager transactionManager, ServerMemberRepo repo) {
+    this.jdbc = jdbc;
+    this.transaction = new TransactionTemplate(transactionManager);
+  }
+
+  @PostConstruct
+  public void migrate() {
+    try {
+      if (constraintExists()) return;
+      int merged = transaction.execute(status -> addConstraint());
+      if (merged > 0) {
+        log.warn("Merged {} duplicate member rows before adding {}", merged, CONSTRAINT);
+      }
+      log.info("Added unique constraint {}", CONSTRAINT);
+    } catch (DataAccessException ex) {
+      throw new IllegalStateException(
+          "Unable to add unique constraint " + CONSTRAINT + " on members.discord_id", ex);
+    }
+  }
+
+  private boolean constraintExists() {
+    Integer count =
+        jdbc.queryForObject(
+            "SELECT count(*) FROM information_schema.table_constraints"
+                + " WHERE lower(constraint_name) = ?",
+            Integer.class,
+            CONSTRAINT);
+    return count != null && count > 0;
+  }
+
+  private int addConstraint() {
+    List<Duplicate> duplicates =
+        jdbc.query(
+            """
+            SELECT m.id, k.keep_id FROM members m
+            JOIN (SELECT discord_id, min(id) AS keep_id FROM members GROUP BY discord_id) k
+              ON k.discord_id = m.discord_id
+            WHERE m.id <> k.keep_id
+            ORDER BY m.id
+            """,
+            (rs, i) -> new Duplicate(rs.getLong(1), rs.getLong(2)));
+    for (Duplicate d : duplicates) merge(d);
+    jdbc.execute("ALTER TABLE members ADD CONSTRAINT " + CONSTRAINT + " UNIQUE (discord_id)");
+    return duplicates.size();
+  }
+
+  /** Folds one duplicate member row into the kept row and deletes it. */
+  private void merge(Duplicate d) {
+    mergeRankStats(d);
+    movePlaylists(d);
+
+    // The kept row's settings win; otherwise the duplicate's move over
+    jdbc.update(
+        "DELETE FROM music_member_settings WHERE owner_id = ?"
+            + " AND EXISTS (SELECT 1 FROM music_member_settings k WHERE k.owner_id = ?)",
+        d.id(),
+        d.keepId());
+    jdbc.update(
+        "UPDATE music_member_settings SET owner_id = ? WHERE owner_id = ?", d.keepId(), d.id());
+
+    String perms = "SELECT id FROM member_perms WHERE members_id = ?";
+    jdbc.update("DELETE FROM member_perm_nodes WHERE member_perms_id IN (" + perms + ")", d.id());
+    jdbc.update("DELETE FROM member_perm_groups WHERE member_perms_id IN (" + perms + ")", d.id());
+    jdbc.update("DELETE FROM member_perms WHERE members_id = ?", d.id());
+
+    jdbc.update("UPDATE members SET rank_stats_id = NULL WHERE id = ?", d.id());
+    jdbc.update("DELETE FROM rank_stats WHERE members_id = ?", d.id());
+    jdbc.update("DELETE FROM members WHERE id = ?", d.id());
+  }
+
+  private void mergeRankStats(Duplicate d) {
+    Object[] args = new Object[RANK_COUNTERS.size() + 1];
+    Arrays.fill(args, d.id());
+    args[args.length - 1] = d.keepId();
+    if (jdbc.update(MERGE_RANK_STATS, args) == 0) {
+      // The kept row has no stats: take over the duplicate's
+      jdbc.update(
+          "UPDATE members SET rank_stats_id = (SELECT id FROM rank_stats WHERE members_id = ?)"
+              + " WHERE id = ?",
+          d.id(),
+          d.keepId());
+      jdbc.update("UPDATE members SET rank_stats_id = NULL WHERE id = ?", d.id());
+      jdbc.update("UPDATE rank_stats SET members_id = ? WHERE members_id = ?", d.keepId(), d.id());
+      return;
+    }
+    Double points =
+        jdbc.queryForObject(
+            "SELECT voice_points + chat_points FROM rank_stats WHERE members_id = ?",
+            Double.class,
+            d.keepId());
+    jdbc.update(
+        "UPDATE rank_stats SET level = ? WHERE members_id = ?",
+        RankingService.levelFor(points != null ? points : 0),
+        d.keepId());
+  }
+
+  /** Moves playlists to the kept row, appending the tracks of same-named playlists. */
+  private void movePlaylists(Duplicate d) {
+    List<long[]> collisions =
+        jdbc.query(
+            "SELECT p.id, k.id FROM music_user_playlists p"
+                + " JOIN music_user_playlists k ON k.name = p.name AND k.owner_id = ?"
+                + " WHERE p.owner_id = ?",
+            (rs, i) -> new long[] {rs.getLong(1), rs.getLong(2)},
+            d.keepId(),
+            d.id());
+    for (long[] c : collisions) {
+      Integer offset =
+          jdbc.queryForObject(
+              "SELECT coalesce(max(position) + 1, 0) FROM music_user_playlist_tracks"
+                  + " WHERE playlist_id = ?",
+              Integer.class,
+              c[1]);
+      jdbc.update(
+          "UPDATE music_user_playlist_tracks SET playlist_id = ?, position = position + ?"
+              + " WHERE playlist_id = ?",
+          c[1],
+          offset,
+          c[0]);
+      jdbc.update("DELETE FROM music_user_playlists WHERE id = ?", c[0]);
+    }
+    jdbc.update(
+        "UPDATE music_user_playlists SET owner_id = ? WHERE owner_id = ?", d.keepId(), d.id());
+  }
+
+  /** A duplicate member row and the row of the same Discord id that is kept. */
+  private record Duplicate(long id, long keepId) {}
+}
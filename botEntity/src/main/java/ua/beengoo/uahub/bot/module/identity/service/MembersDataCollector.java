@@ -6,8 +6,6 @@ import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Service;
-import ua.beengoo.uahub.bot.module.identity.exceptions.MemberExistsException;
-import ua.beengoo.uahub.bot.module.identity.model.ServerMember;
 
 @Slf4j
 @Service
@@ -20,22 +18,20 @@ public class MembersDataCollector extends ListenerAdapter {
   }
 
   /**
-   * On each non-bot message in guilds, attempts to create a {@link ServerMember} record for the
-   * author if it doesn't exist.
+   * On each non-bot message in guilds, attempts to create a {@link
+   * ua.beengoo.uahub.bot.module.identity.model.ServerMember} record for the author if it doesn't
+   * exist.
    */
   @Override
   public void onMessageReceived(@NotNull MessageReceivedEvent event) {
     Member member = event.getMember();
     if (member != null) {
       if (!member.getUser().isBot() && !member.getUser().isSystem()) {
-        try {
-          ServerMember serverMember =
-              serverMemberController.addNewMember(event.getMember().getIdLong());
+        if (serverMemberController.registerMember(member.getIdLong())) {
           log.info(
               "Member {} added to database with id {}",
               member.getEffectiveName(),
-              serverMember.getId());
-        } catch (MemberExistsException ignored) {
+              serverMemberController.resolveMemberId(member.getIdLong()));
         }
       }
     }
@@ -1,19 +1,26 @@
 package ua.beengoo.uahub.bot.module.identity.service;
 
+import java.util.Collection;
 import java.util.List;
 import lombok.NonNull;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Service;
+import ua.beengoo.uahub.bot.helper.cache.LruCache;
 import ua.beengoo.uahub.bot.module.identity.exceptions.MemberExistsException;
+import ua.beengoo.uahub.bot.module.identity.model.MemberUpsertResult;
 import ua.beengoo.uahub.bot.module.identity.model.ServerMember;
 import ua.beengoo.uahub.bot.module.identity.model.ServerMemberRepo;
-import ua.beengoo.uahub.bot.module.permissions.model.MemberPermissions;
-import ua.beengoo.uahub.bot.module.rank.model.RankStats;
 
 @Service
+@DependsOn("memberTableMigration")
 public class ServerMemberController {
+  private static final int MEMBER_ID_CACHE_SIZE = 10_000;
 
   private ServerMemberRepo serverMemberRepo;
 
+  /** Discord user id to member row id for members known to exist. */
+  private final LruCache<Long, Long> memberIds = new LruCache<>(MEMBER_ID_CACHE_SIZE);
+
   public ServerMemberController(ServerMemberRepo serverMemberRepo) {
     this.serverMemberRepo = serverMemberRepo;
   }
@@ -26,21 +33,14 @@ public class ServerMemberController {
    * @throws MemberExistsException if a record already exists
    */
   public ServerMember addNewMember(long discord_id) {
-    if (!serverMemberRepo.existsByDiscordId(discord_id)) {
-      ServerMember sm = new ServerMember();
-      RankStats rs = new RankStats();
-      rs.setMemberMultiplier(1);
-      rs.setServerMember(sm);
-      sm.setRankStats(rs);
-      sm.setDiscordId(discord_id);
-
-      MemberPermissions mp = new MemberPermissions();
-      mp.setServerMember(sm);
-      sm.setMemberPermissions(mp);
-
-      return serverMemberRepo.save(sm);
+    if (memberIds.get(discord_id) != null) {
+      throw new MemberExistsException("Member already exists");
+    }
+    MemberUpsertResult result = upsert(discord_id);
+    if (!Boolean.TRUE.equals(result.getInserted())) {
+      throw new MemberExistsException("Member already exists");
     }
-    throw new MemberExistsException("Member already exists");
+    return serverMemberRepo.findById(result.getId()).orElse(null);
   }
 
   /**
@@ -50,11 +50,50 @@ public class ServerMemberController {
    * @return the existing or newly created entity
    */
   public ServerMember addMemberOrNothing(long discord_id) {
-    try {
-      return addNewMember(discord_id);
-    } catch (MemberExistsException ignored) {
-      return serverMemberRepo.findByDiscordId(discord_id).orElse(null);
+    ServerMember sm = serverMemberRepo.findById(resolveMemberId(discord_id)).orElse(null);
+    if (sm == null) {
+      // Row vanished behind the cache, create it again
+      memberIds.remove(discord_id);
+      sm = serverMemberRepo.findById(resolveMemberId(discord_id)).orElse(null);
     }
+    return sm;
+  }
+
+  /**
+   * Ensures a member record exists and returns its row id.
+   *
+   * <p>Known members are served from a bounded cache without queries, otherwise a single upsert
+   * statement is issued.
+   *
+   * @param discord_id Discord user id
+   * @return member row id
+   */
+  public long resolveMemberId(long discord_id) {
+    Long cached = memberIds.get(discord_id);
+    if (cached != null) return cached;
+    return upsert(discord_id).getId();
+  }
+
+  /**
+   * Ensures a member record exists.
+   *
+   * @param discord_id Discord user id
+   * @return {@code true} if the record was created by this call
+   */
+  public boolean registerMember(long discord_id) {
+    if (memberIds.get(discord_id) != null) return false;
+    return Boolean.TRUE.equals(upsert(discord_id).getInserted());
+  }
+
+  private MemberUpsertResult upsert(long discord_id) {
+    MemberUpsertResult result =
+        serverMemberRepo
+            .upsertByDiscordId(discord_id)
+            // Empty when a concurrent insert committed after our statement started, retry sees it
+            .or(() -> serverMemberRepo.upsertByDiscordId(discord_id))
+            .orElseThrow(() -> new IllegalStateException("Unable to upsert member " + discord_id));
+    memberIds.put(discord_id, result.getId());
+    return result;
   }
 
   /**
@@ -77,6 +116,28 @@ public class ServerMemberController {
     return serverMemberRepo.save(entity);
   }
 
+  /**
+   * Persists changes to several members in one batch.
+   *
+   * @param entities entities to update
+   * @return updated entities
+   */
+  public List<ServerMember> updateMembers(@NonNull Collection<ServerMember> entities) {
+    if (entities.isEmpty()) return List.of();
+    return serverMemberRepo.saveAll(entities);
+  }
+
+  /**
+   * Finds members by a set of Discord user ids in one query.
+   *
+   * @param discordIds Discord user ids
+   * @return members that exist, in no particular order
+   */
+  public List<ServerMember> getByDiscordIds(@NonNull Collection<Long> discordIds) {
+    if (discordIds.isEmpty()) return List.of();
+    return serverMemberRepo.findByDiscordIdIn(discordIds);
+  }
+
   /** Lists all known server members. */
   public List<ServerMember> getAll() {
     return serverMemberRepo.findAll();
@@ -29,16 +29,15 @@ public class ClearCommand {
   }
 
   private boolean allowed(CommandEvent event) {
-    boolean hasDiscordManage =
-        event.getMember() != null && event.getMember().hasPermission(Permission.MESSAGE_MANAGE);
-    boolean hasNode =
-        permissionService.has(
-            event.getUser().getIdLong(),
-            event.getMember() != null
-                ? event.getMember().getRoles().stream().map(Role::getIdLong).toList()
-                : null,
-            "mod.clear");
-    return hasDiscordManage || hasNode;
+    if (event.getMember() != null && event.getMember().hasPermission(Permission.MESSAGE_MANAGE)) {
+      return true;
+    }
+    return permissionService.hasAny(
+        event.getUser().getIdLong(),
+        event.getMember() != null
+            ? event.getMember().getRoles().stream().map(Role::getIdLong).toList()
+            : null,
+        "mod.clear");
   }
 
   /**
@@ -6,36 +6,24 @@ import com.github.kaktushose.jda.commands.annotations.interactions.Interaction;
 import com.github.kaktushose.jda.commands.annotations.interactions.Param;
 import com.github.kaktushose.jda.commands.dispatching.events.interactions.AutoCompleteEvent;
 import com.github.kaktushose.jda.commands.dispatching.events.interactions.CommandEvent;
-import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
-import com.sedmelluq.discord.lavaplayer.player.AudioConfiguration;
 import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
-import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
-import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
-import com.sedmelluq.discord.lavaplayer.source.AudioSourceManagers;
-import com.sedmelluq.discord.lavaplayer.source.soundcloud.SoundCloudAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
-import dev.lavalink.youtube.YoutubeAudioSourceManager;
-import dev.lavalink.youtube.clients.AndroidMusic;
-import dev.lavalink.youtube.clients.MWeb;
-import dev.lavalink.youtube.clients.WebEmbedded;
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.EmbedBuilder;
-import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.MessageEmbed;
-import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.interactions.InteractionHook;
 import ua.beengoo.uahub.bot.ContextHolder;
 import ua.beengoo.uahub.bot.Lang;
 import ua.beengoo.uahub.bot.StringUtils;
 import ua.beengoo.uahub.bot.helper.paginator.ButtonPaginator;
+import ua.beengoo.uahub.bot.helper.paginator.PageSource;
 import ua.beengoo.uahub.bot.layout.message.Embed;
 import ua.beengoo.uahub.bot.module.music.model.UserPlaylist;
 import ua.beengoo.uahub.bot.module.music.model.UserPlaylistTrack;
@@ -44,32 +32,26 @@ import ua.beengoo.uahub.bot.module.music.service.MusicService;
 import ua.beengoo.uahub.bot.module.music.service.MusicSettingsService;
 import ua.beengoo.uahub.bot.module.music.service.PlaylistService;
 import ua.beengoo.uahub.bot.module.music.vote.VoteManager;
-import ua.beengoo.uahub.bot.module.permissions.service.PermissionService;
 
 @Interaction
+@Slf4j
 /** Slash commands for the music player: play, pause, queue, navigation and control panel. */
 public class PlayerCommands {
+    /** How long /play waits for a query to resolve before queueing it unresolved. */
+    private static final long PLAY_RESOLVE_TIMEOUT_SECONDS = 10;
 
-    private final PermissionService permissionService;
     private final MusicService musicService;
     private final PlaylistService playlistService;
+    private final TrackLoader trackLoader;
 
     public PlayerCommands() {
-        this.permissionService = ContextHolder.getBean(PermissionService.class);
         this.musicService = ContextHolder.getBean(MusicService.class);
         this.playlistService = ContextHolder.getBean(PlaylistService.class);
+        this.trackLoader = ContextHolder.getBean(TrackLoader.class);
     }
 
     private boolean hasPermission(CommandEvent event, String node, String fallbackNodeKey) {
-        if (event.getMember() != null && event.getMember().hasPermission(Permission.ADMINISTRATOR))
-            return true;
-        boolean allowed =
-                permissionService.has(
-                        event.getUser().getIdLong(),
-                        event.getMember() != null
-                                ? event.getMember().getRoles().stream().map(Role::getIdLong).toList()
-                                : null,
-                        node);
+        boolean allowed = PlayerAccess.hasNode(event.getUser().getIdLong(), event.getMember(), node);
         if (!allowed) {
             event.reply(
                     Embed.getError()
@@ -139,7 +121,7 @@ public class PlayerCommands {
                 }
 
                 long userId = event.getUser().getIdLong();
-                SearchManager.get().loadItem(typed.contains("at^sc") ? "scsearch:" + typed : "ytsearch:" + typed, new AudioLoadResultHandler() {
+                trackLoader.load(typed.contains("at^sc") ? "scsearch:" + typed : "ytsearch:" + typed, new AudioLoadResultHandler() {
 
                         @Override
                         public void playlistLoaded(AudioPlaylist playlist) {
@@ -219,120 +201,72 @@ public class PlayerCommands {
                         .queue();
         } catch (IllegalArgumentException ignore) {}
 
-        if (!handledAsPlaylist) {
-            Preview preview = previewLoad(url);
-            if (preview != null) {
-                java.util.Set<String> existing = new java.util.HashSet<>();
-                for (AudioTrackMeta t : PlayerController.getInstance().getTracks()) {
-                    if (t.getEntity() != null) existing.add(t.getEntity().getIdentifier());
-                }
-                long newCount =
-                        preview.tracks.stream()
-                                .map(AudioTrack::getIdentifier)
-                                .filter(id -> id != null && !existing.contains(id))
-                                .count();
-                if (preview.isPlaylist && newCount == 0) {
-                    event
-                            .jdaEvent()
-                            .replyEmbeds(
-                                    Embed.getWarn()
-                                            .setTitle(Lang.get("music.player.title"))
-                                            .setDescription(Lang.get("music.playlist.all_duplicate"))
-                                            .build())
-                            .setEphemeral(true)
-                            .queue();
-                    return;
-                }
-                if (!preview.isPlaylist && newCount == 0) {
-                    event
-                            .jdaEvent()
-                            .replyEmbeds(
-                                    Embed.getWarn()
-                                            .setTitle(Lang.get("music.player.title"))
-                                            .setDescription(Lang.get("music.track.duplicate"))
-                                            .build())
-                            .setEphemeral(true)
-                            .queue();
-                    return;
-                }
-            }
-            musicService.playQuery(event.getGuild(), m, url);
-            // If we have preview and it's a single track, show title, author and artwork
-            if (preview != null) {
-                AudioTrack first = preview.tracks().getFirst();
-                String title = first.getInfo() != null ? first.getInfo().title : null;
-                String author = first.getInfo() != null ? first.getInfo().author : null;
-                var eb = Embed.getInfo().setTitle(Lang.get("music.player.title"));
-                eb.setThumbnail(Utils.getArtwork(first));
-                String displayAuthor = author != null && !author.isBlank() ? author : "?";
-                String displayTitle = title != null && !title.isBlank() ? title : url;
-                event
-                        .jdaEvent()
-                        .replyEmbeds(
-                                eb.setDescription(
-                                                Lang.get("music.play.added.track").formatted(displayAuthor, displayTitle))
-                                        .build())
-                        .setEphemeral(true)
-                        .queue();
-            } else {
-                try {
-                    var info =
-                            musicService
-                                    .awaitQueueAddFor(event.getUser().getIdLong())
-                                    .orTimeout(2, java.util.concurrent.TimeUnit.SECONDS)
-                                    .join();
-                    if (info != null && !info.playlist()) {
-                        var meta = info.track();
-                        var track = meta.getEntity();
-                        String title = track.getInfo() != null ? track.getInfo().title : null;
-                        String author = track.getInfo() != null ? track.getInfo().author : null;
-                        var eb = Embed.getInfo().setTitle(Lang.get("music.player.title"));
-                        try {
-                            String src =
-                                    track.getSourceManager() != null
-                                            ? track.getSourceManager().getSourceName()
-                                            : null;
-                            String id = track.getIdentifier();
-                            if (src != null && src.equalsIgnoreCase("youtube") && id != null && !id.isBlank()) {
-                                eb.setThumbnail("https://img.youtube.com/vi/" + id + "/hqdefault.jpg");
-                            }
-                        } catch (Throwable ignored) {
-                        }
-                        String displayAuthor = author != null && !author.isBlank() ? author : "?";
-                        String displayTitle = title != null && !title.isBlank() ? title : url;
-                        event
-                                .jdaEvent()
-                                .replyEmbeds(
-                                        eb.setDescription(
-                                                        Lang.get("music.play.added.track")
-                                                                .formatted(displayAuthor, displayTitle))
-                                                .build())
-                                .setEphemeral(true)
-                                .queue();
-                    } else {
-                        event
-                                .jdaEvent()
-                                .replyEmbeds(
-                                        Embed.getInfo()
-                                                .setTitle(Lang.get("music.player.title"))
-                                                .setDescription(Lang.get("music.play.added").formatted(url))
-                                                .build())
-                                .setEphemeral(true)
-                                .queue();
-                    }
-                } catch (Throwable ex) {
-                    event
-                            .jdaEvent()
-                            .replyEmbeds(
-                                    Embed.getInfo()
-                                            .setTitle(Lang.get("music.player.title"))
-                                            .setDescription(Lang.get("music.play.added").formatted(url))
-                                            .build())
-                            .setEphemeral(true)
-                            .queue();
-                }
+        if (handledAsPlaylist) return;
+
+        // Resolving may take seconds, never block the interaction thread on it
+        Guild guild = event.getGuild();
+        InteractionHook hook = event.jdaEvent().getHook();
+        event.jdaEvent().deferReply(true).queue();
+        trackLoader
+                .resolve(url)
+                .orTimeout(PLAY_RESOLVE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .handle((item, error) -> error != null || item.isEmpty() ? null : item)
+                .thenApply(item -> queueResolved(guild, m, url, item))
+                .exceptionally(
+                        ex -> {
+                            log.warn("Unable to queue {}: {}", url, ex.getMessage());
+                            return addedEmbed(url);
+                        })
+                .thenAccept(embed -> hook.editOriginalEmbeds(embed).queue());
+    }
+
+    /**
+     * Queues a /play query unless everything it resolved to is queued already.
+     *
+     * @param item resolved item, {@code null} if resolving failed or timed out; the player then
+     *     loads the query itself and reports failures
+     * @return reply for the requester
+     */
+    private MessageEmbed queueResolved(
+            Guild guild, Member requester, String url, TrackLoader.LoadedItem item) {
+        if (item != null) {
+            List<String> identifiers =
+                    item.tracks().stream()
+                            .map(AudioTrack::getIdentifier)
+                            .filter(id -> id != null)
+                            .toList();
+            if (PlayerController.of(guild).isQueued(identifiers)) {
+                return Embed.getWarn()
+                        .setTitle(Lang.get("music.player.title"))
+                        .setDescription(
+                                Lang.get(
+                                        item.isPlaylist()
+                                                ? "music.playlist.all_duplicate"
+                                                : "music.track.duplicate"))
+                        .build();
             }
         }
+        musicService.playQuery(guild, requester, url);
+        if (item == null) return addedEmbed(url);
+
+        // Show title, author and artwork of the (first) track
+        AudioTrack first = item.tracks().getFirst();
+        String title = first.getInfo() != null ? first.getInfo().title : null;
+        String author = first.getInfo() != null ? first.getInfo().author : null;
+        String displayAuthor = author != null && !author.isBlank() ? author : "?";
+        String displayTitle = title != null && !title.isBlank() ? title : url;
+        return Embed.getInfo()
+                .setTitle(Lang.get("music.player.title"))
+                .setThumbnail(Utils.getArtwork(first))
+                .setDescription(Lang.get("music.play.added.track").formatted(displayAuthor, displayTitle))
+                .build();
+    }
+
+    private static MessageEmbed addedEmbed(String url) {
+        return Embed.getInfo()
+                .setTitle(Lang.get("music.player.title"))
+                .setDescription(Lang.get("music.play.added").formatted(url))
+                .build();
     }
 
     @AutoComplete(value = {"play"})
@@ -370,7 +304,7 @@ public class PlayerCommands {
                     .queue();
             return;
         }
-        PlayerController pc = PlayerController.getInstance();
+        PlayerController pc = PlayerController.of(event.getGuild());
         pc.setPaused(!pc.isPaused());
         event
                 .jdaEvent()
@@ -390,7 +324,7 @@ public class PlayerCommands {
     @Command(value = "queue", desc = "Показати чергу відтворення")
     public void onQueue(CommandEvent event) {
         if (!hasPermission(event, "music.queue", "music.perm.queue")) return;
-        List<AudioTrackMeta> tracks = PlayerController.getInstance().getTracks();
+        List<AudioTrackMeta> tracks = PlayerController.of(event.getGuild()).getTracks();
         if (tracks.isEmpty()) {
             event
                     .jdaEvent()
@@ -404,47 +338,46 @@ public class PlayerCommands {
             return;
         }
 
-        List<MessageEmbed> pages = new ArrayList<>();
-        List<List<AudioTrackMeta>> chunks = new ArrayList<>();
-        for (int i = 0; i < tracks.size(); i += 10) {
-            chunks.add(tracks.subList(i, Math.min(i + 10, tracks.size())));
-        }
-        int page = 0;
-        int position = 0;
-        for (List<AudioTrackMeta> part : chunks) {
-            page++;
-            EmbedBuilder eb = Embed.getInfo().setTitle(Lang.get("music.player.title"));
-            eb.setFooter(Lang.get("paginator.page").formatted(page, chunks.size()));
-            StringBuilder sb = new StringBuilder();
-            for (AudioTrackMeta meta : part) {
-                position++;
-                sb.append(
-                        "\n **#%s** %s — %s (%s) • %s"
-                                .formatted(
-                                        position,
-                                        meta.getEntity().getInfo().author,
-                                        meta.getEntity().getInfo().title,
-                                        fmtTime(meta.getEntity().getDuration()),
-                                        meta.getEntityOwner() != null
-                                                ? meta.getEntityOwner().getEffectiveName()
-                                                : "?"));
-            }
-            sb.append("\n\n" + Lang.get("music.queue.total").formatted(tracks.size()));
-            eb.setDescription(sb.toString());
-            pages.add(eb.build());
-        }
+        // Snapshot so later page renders are not affected by queue changes
+        List<AudioTrackMeta> snapshot = List.copyOf(tracks);
+        PageSource pages =
+                PageSource.chunked(
+                        snapshot,
+                        10,
+                        (part, page, offset) -> {
+                            EmbedBuilder eb = Embed.getInfo().setTitle(Lang.get("music.player.title"));
+                            eb.setFooter(
+                                    Lang.get("paginator.page")
+                                            .formatted(page + 1, (snapshot.size() + 9) / 10));
+                            StringBuilder sb = new StringBuilder();
+                            int position = offset;
+                            for (AudioTrackMeta meta : part) {
+                                position++;
+                                sb.append(
+                                        "\n **#%s** %s — %s (%s) • %s"
+                                                .formatted(
+                                                        position,
+                                                        meta.getEntity().getInfo().author,
+                                                        meta.getEntity().getInfo().title,
+                                                        fmtTime(meta.getEntity().getDuration()),
+                                                        meta.getEntityOwner() != null
+                                                                ? meta.getEntityOwner().getEffectiveName()
+                                                                : "?"));
+                            }
+                            sb.append("\n\n" + Lang.get("music.queue.total").formatted(snapshot.size()));
+                            eb.setDescription(sb.toString());
+                            return eb.build();
+                        });
+        ButtonPaginator paginator = new ButtonPaginator(pages, event.getUser(), false);
 
         event
                 .jdaEvent()
-                .replyEmbeds(pages.getFirst())
+                .replyEmbeds(paginator.getPage(0))
                 .setEphemeral(true)
                 .queue(
                         s ->
                                 s.retrieveOriginal()
-                                        .queue(
-                                                sentMsg ->
-                                                        new ButtonPaginator(pages, event.getUser(), false)
-                                                                .paginate(sentMsg, event.getJDA())));
+                                        .queue(paginator::paginate));
     }
 
     /** Stops player and leaves voice. */
@@ -461,13 +394,13 @@ public class PlayerCommands {
                         .queue();
                 return;
             }
-            Long ownerIdForStop = PlayerAccess.getOwnerId();
+            Long ownerIdForStop = PlayerAccess.getOwnerId(event.getGuild().getIdLong());
             boolean requireStop =
                     ownerIdForStop != null
                             && ContextHolder.getBean(MusicSettingsService.class)
                             .getRequiredVoteActions(ownerIdForStop)
                             .contains("stop");
-            if (!PlayerAccess.isOwner(event.getUser().getIdLong()) && requireStop) {
+            if (!PlayerAccess.isOwner(event.getGuild().getIdLong(), event.getUser().getIdLong()) && requireStop) {
                 var ch = m.getVoiceState().getChannel();
                 VoteManager.startVote(
                         event.jdaEvent(), m, ch,
@@ -475,13 +408,13 @@ public class PlayerCommands {
                         Lang.get("music.vote.title"),
                         Lang.get("music.vote.desc").formatted("stop"),
                         () -> {
-                                PlayerController.getInstance().clean();
+                                PlayerController.of(event.getGuild()).clean();
                                 if (event.getGuild() != null) event.getGuild().getAudioManager().closeAudioConnection();
-                                PlayerAccess.clearOwner();
+                                PlayerAccess.clearOwner(event.getGuild().getIdLong());
                         });
                 return;
             }
-            PlayerController.getInstance().clean();
+            PlayerController.of(event.getGuild()).clean();
             if (event.getGuild() != null) event.getGuild().getAudioManager().closeAudioConnection();
             event
                     .jdaEvent()
@@ -492,7 +425,7 @@ public class PlayerCommands {
                                     .build())
                     .setEphemeral(true)
                     .queue();
-            PlayerAccess.clearOwner();
+            PlayerAccess.clearOwner(event.getGuild().getIdLong());
     }
 
     /** Skips current track (removes from queue). */
@@ -508,7 +441,7 @@ public class PlayerCommands {
                     .queue();
             return;
         }
-        if (!PlayerController.getInstance().isPlaying()) {
+        if (!PlayerController.of(event.getGuild()).isPlaying()) {
             event
                     .jdaEvent()
                     .replyEmbeds(
@@ -520,13 +453,13 @@ public class PlayerCommands {
                     .queue();
             return;
         }
-        Long ownerIdForSkip = PlayerAccess.getOwnerId();
+        Long ownerIdForSkip = PlayerAccess.getOwnerId(event.getGuild().getIdLong());
         boolean requireByOwner =
                 ownerIdForSkip != null
                         && ContextHolder.getBean(MusicSettingsService.class)
                                 .getRequiredVoteActions(ownerIdForSkip)
                                 .contains("skip");
-        if (!PlayerAccess.isOwner(event.getUser().getIdLong()) && requireByOwner) {
+        if (!PlayerAccess.isOwner(event.getGuild().getIdLong(), event.getUser().getIdLong()) && requireByOwner) {
             var ch = m.getVoiceState().getChannel();
             VoteManager.startVote(
                     event.jdaEvent(),
@@ -535,10 +468,10 @@ public class PlayerCommands {
                     "skip",
                     Lang.get("music.vote.title"),
                     Lang.get("music.vote.desc").formatted("skip"),
-                    () -> PlayerController.getInstance().skip());
+                    () -> PlayerController.of(event.getGuild()).skip());
             return;
         }
-        PlayerController.getInstance().skip();
+        PlayerController.of(event.getGuild()).skip();
         event
                 .jdaEvent()
                 .replyEmbeds(
@@ -563,7 +496,7 @@ public class PlayerCommands {
                     .queue();
             return;
         }
-        if (PlayerController.getInstance().getTracks().isEmpty()) {
+        if (PlayerController.of(event.getGuild()).getTracks().isEmpty()) {
             event
                     .jdaEvent()
                     .replyEmbeds(
@@ -575,7 +508,7 @@ public class PlayerCommands {
                     .queue();
             return;
         }
-        if (!PlayerController.getInstance().hasNext()) {
+        if (!PlayerController.of(event.getGuild()).hasNext()) {
             event
                     .jdaEvent()
                     .replyEmbeds(
@@ -587,13 +520,13 @@ public class PlayerCommands {
                     .queue();
             return;
         }
-        Long ownerIdForNext = PlayerAccess.getOwnerId();
+        Long ownerIdForNext = PlayerAccess.getOwnerId(event.getGuild().getIdLong());
         boolean requireNext =
                 ownerIdForNext != null
                         && ContextHolder.getBean(MusicSettingsService.class)
                                 .getRequiredVoteActions(ownerIdForNext)
                                 .contains("next");
-        if (!PlayerAccess.isOwner(event.getUser().getIdLong()) && requireNext) {
+        if (!PlayerAccess.isOwner(event.getGuild().getIdLong(), event.getUser().getIdLong()) && requireNext) {
             var ch = m.getVoiceState().getChannel();
             VoteManager.startVote(
                     event.jdaEvent(),
@@ -602,10 +535,10 @@ public class PlayerCommands {
                     "next",
                     Lang.get("music.vote.title"),
                     Lang.get("music.vote.desc").formatted("next"),
-                    () -> PlayerController.getInstance().next());
+                    () -> PlayerController.of(event.getGuild()).next());
             return;
         }
-        PlayerController.getInstance().next();
+        PlayerController.of(event.getGuild()).next();
         event
                 .jdaEvent()
                 .replyEmbeds(
@@ -629,7 +562,7 @@ public class PlayerCommands {
                     .queue();
             return;
         }
-        if (PlayerController.getInstance().getTracks().isEmpty()) {
+        if (PlayerController.of(event.getGuild()).getTracks().isEmpty()) {
             event
                     .jdaEvent()
                     .replyEmbeds(
@@ -641,13 +574,13 @@ public class PlayerCommands {
                     .queue();
             return;
         }
-        Long ownerIdForPrev = PlayerAccess.getOwnerId();
+        Long ownerIdForPrev = PlayerAccess.getOwnerId(event.getGuild().getIdLong());
         boolean requirePrev =
                 ownerIdForPrev != null
                         && ContextHolder.getBean(MusicSettingsService.class)
                                 .getRequiredVoteActions(ownerIdForPrev)
                                 .contains("previous");
-        if (!PlayerAccess.isOwner(event.getUser().getIdLong()) && requirePrev) {
+        if (!PlayerAccess.isOwner(event.getGuild().getIdLong(), event.getUser().getIdLong()) && requirePrev) {
             var ch = m.getVoiceState().getChannel();
             VoteManager.startVote(
                     event.jdaEvent(),
@@ -656,10 +589,10 @@ public class PlayerCommands {
                     "previous",
                     Lang.get("music.vote.title"),
                     Lang.get("music.vote.desc").formatted("previous"),
-                    () -> PlayerController.getInstance().previous());
+                    () -> PlayerController.of(event.getGuild()).previous());
             return;
         }
-        PlayerController.getInstance().previous();
+        PlayerController.of(event.getGuild()).previous();
         event
                 .jdaEvent()
                 .replyEmbeds(
@@ -685,7 +618,7 @@ public class PlayerCommands {
                     .queue();
             return;
         }
-        List<AudioTrackMeta> tracks = PlayerController.getInstance().getTracks();
+        List<AudioTrackMeta> tracks = PlayerController.of(event.getGuild()).getTracks();
         if (tracks.isEmpty()) {
             event
                     .jdaEvent()
@@ -728,13 +661,13 @@ public class PlayerCommands {
         }
 
         final int targetIdx = idx;
-        Long ownerIdForJump = PlayerAccess.getOwnerId();
+        Long ownerIdForJump = PlayerAccess.getOwnerId(event.getGuild().getIdLong());
         boolean requireJump =
                 ownerIdForJump != null
                         && ContextHolder.getBean(MusicSettingsService.class)
                                 .getRequiredVoteActions(ownerIdForJump)
                                 .contains("jump");
-        if (!PlayerAccess.isOwner(event.getUser().getIdLong()) && requireJump) {
+        if (!PlayerAccess.isOwner(event.getGuild().getIdLong(), event.getUser().getIdLong()) && requireJump) {
             var ch = m.getVoiceState().getChannel();
             VoteManager.startVote(
                     event.jdaEvent(),
@@ -743,10 +676,10 @@ public class PlayerCommands {
                     "jump",
                     Lang.get("music.vote.title"),
                     Lang.get("music.vote.desc").formatted("jump"),
-                    () -> PlayerController.getInstance().playAt(targetIdx));
+                    () -> PlayerController.of(event.getGuild()).playAt(targetIdx));
             return;
         }
-        PlayerController.getInstance().playAt(targetIdx);
+        PlayerController.of(event.getGuild()).playAt(targetIdx);
         event
                 .jdaEvent()
                 .replyEmbeds(
@@ -760,7 +693,7 @@ public class PlayerCommands {
 
     @AutoComplete(value = {"jump"})
     public void onJumpAuto(AutoCompleteEvent event) {
-        var tracks = PlayerController.getInstance().getTracks();
+        var tracks = PlayerController.of(event.getGuild()).getTracks();
         java.util.List<net.dv8tion.jda.api.interactions.commands.Command.Choice> choices =
                 new java.util.ArrayList<>();
         String typed = event.jdaEvent().getFocusedOption().getValue();
@@ -781,12 +714,12 @@ public class PlayerCommands {
     @Command(value = "np", desc = "Що зараз грає")
     public void onNowPlaying(CommandEvent event) {
         if (!hasPermission(event, "music.np", "music.perm.np")) return;
-        AudioTrack now = PlayerController.getInstance().getNowPlayingTrack();
+        AudioTrack now = PlayerController.of(event.getGuild()).getNowPlayingTrack();
         if (now == null) {
             event.reply(Embed.getInfo().setTitle(Lang.get("music.player.title")).setDescription(Lang.get("music.nothing_playing")));
             return;
         }
-        AudioTrackMeta meta = PlayerController.getInstance().fetchMetaFromEntity(now);
+        AudioTrackMeta meta = PlayerController.of(event.getGuild()).fetchMetaFromEntity(now);
         event.jdaEvent().replyEmbeds(
                 Embed.getInfo()
                         .setTitle(Lang.get("music.player.title"))
@@ -818,7 +751,7 @@ public class PlayerCommands {
             var botVc = guild != null ? guild.getAudioManager().getConnectedChannel() : null;
             var userVc = (m != null && m.getVoiceState() != null) ? m.getVoiceState().getChannel() : null;
             if (botVc != null && userVc != null && botVc.getIdLong() == userVc.getIdLong()) {
-                PlayerControlPanel.removeActiveMessage();
+                PlayerControlPanel.removeActiveMessage(guild.getIdLong());
             }
         } catch (Throwable ignored) {
         }
@@ -831,10 +764,7 @@ public class PlayerCommands {
                         hook ->
                                 hook.retrieveOriginal()
                                         .queue(
-                                                msg -> {
-                                                    PlayerControlPanel.bindActive(msg, event.getJDA());
-                                                    PlayerControlPanel.getInstance().refreshSilently();
-                                                }));
+                                                msg -> PlayerControlPanel.bindActive(msg, event.getJDA())));
     }
 
     private static boolean isInVoice(Member m) {
@@ -853,7 +783,7 @@ public class PlayerCommands {
                     .queue();
             return;
         }
-        Long ownerId = PlayerAccess.getOwnerId();
+        Long ownerId = PlayerAccess.getOwnerId(event.getGuild().getIdLong());
         boolean ownerGone = ownerId == null;
         if (!ownerGone) {
             var owner = event.getGuild() != null ? event.getGuild().getMemberById(ownerId) : null;
@@ -874,7 +804,7 @@ public class PlayerCommands {
                     .queue();
             return;
         }
-        PlayerAccess.setOwnerId(event.getUser().getIdLong());
+        PlayerAccess.setOwnerId(event.getGuild().getIdLong(), event.getUser().getIdLong());
         event
                 .jdaEvent()
                 .replyEmbeds(
@@ -894,59 +824,4 @@ public class PlayerCommands {
         if (h > 0) return String.format("%d:%02d:%02d", h, m, s);
         return String.format("%d:%02d", m, s);
     }
-
-    private static Preview previewLoad(String url) {
-        try {
-            AudioPlayerManager pm = new DefaultAudioPlayerManager();
-            pm.getConfiguration().setResamplingQuality(AudioConfiguration.ResamplingQuality.HIGH);
-            pm.getConfiguration().setOutputFormat(StandardAudioDataFormats.DISCORD_OPUS);
-            dev.lavalink.youtube.YoutubeAudioSourceManager youtube =
-                    new dev.lavalink.youtube.YoutubeAudioSourceManager(
-                            true, new MWeb(), new AndroidMusic(), new WebEmbedded());
-            SoundCloudAudioSourceManager soundCloud = SoundCloudAudioSourceManager.createDefault();
-            pm.registerSourceManager(youtube);
-            pm.registerSourceManager(soundCloud);
-            // Register other remotes but exclude the default YouTube manager to avoid conflicts
-            AudioSourceManagers.registerRemoteSources(pm, YoutubeAudioSourceManager.class);
-            AtomicReference<List<AudioTrack>> tracks = new AtomicReference<>(java.util.List.of());
-            AtomicBoolean isPl = new AtomicBoolean(false);
-            CountDownLatch latch = new CountDownLatch(1);
-            pm.loadItem(
-                    url,
-                    new AudioLoadResultHandler() {
-                        @Override
-                        public void trackLoaded(AudioTrack track) {
-                            tracks.set(java.util.List.of(track));
-                            isPl.set(false);
-                            latch.countDown();
-                        }
-
-                        @Override
-                        public void playlistLoaded(AudioPlaylist playlist) {
-                            tracks.set(playlist.getTracks());
-                            isPl.set(true);
-                            latch.countDown();
-                        }
-
-                        @Override
-                        public void noMatches() {
-                            latch.countDown();
-                        }
-
-                        @Override
-                        public void loadFailed(FriendlyException e) {
-                            latch.countDown();
-                        }
-                    });
-            latch.await(
-                    Duration.ofSeconds(3).toMillis(), TimeUnit.MILLISECONDS);
-            var list = tracks.get();
-            if (list == null || list.isEmpty()) return null;
-            return new Preview(isPl.get(), list);
-        } catch (Throwable ignored) {
-            return null;
-        }
-    }
-
-    private record Preview(boolean isPlaylist, java.util.List<AudioTrack> tracks) {}
 }
@@ -2,27 +2,30 @@ package ua.beengoo.uahub.bot.module.music;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.stream.Collectors;
 import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
 import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
-import lombok.Getter;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
-import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.interactions.components.ActionRow;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
 import org.jetbrains.annotations.NotNull;
 import ua.beengoo.uahub.bot.ContextHolder;
 import ua.beengoo.uahub.bot.Lang;
 import ua.beengoo.uahub.bot.StringUtils;
+import ua.beengoo.uahub.bot.helper.interaction.InteractionHandler;
+import ua.beengoo.uahub.bot.helper.interaction.InteractionRouter;
 import ua.beengoo.uahub.bot.helper.paginator.ButtonPaginator;
+import ua.beengoo.uahub.bot.helper.paginator.PageSource;
 import ua.beengoo.uahub.bot.layout.message.Embed;
 import ua.beengoo.uahub.bot.module.music.player.AudioPlaylistMeta;
 import ua.beengoo.uahub.bot.module.music.player.AudioTrackMeta;
@@ -35,58 +38,73 @@ import ua.beengoo.uahub.bot.module.music.service.MusicSettingsService;
 import ua.beengoo.uahub.bot.module.music.vote.VoteManager;
 
 /**
- * Interactive in-channel control panel driven by message buttons to control the player. Binds to a
- * single message and auto-expires after inactivity.
+ * Interactive in-channel control panel driven by message buttons to control the player. Each guild
+ * has at most one panel, bound to a single message of that guild's player.
  */
 public class PlayerControlPanel implements PlayerInstanceListener {
 
-  private static PlayerControlPanel active;
+  private static final Map<Long, PlayerControlPanel> active = new ConcurrentHashMap<>();
+  private final long guildId;
   private Message message;
   private JDA jda;
   private static final long TTL_MILLIS = -1; // auto-close disabled
+  private static final String JUMP_SELECT_ID = "pl.jump.sel";
   private static final ScheduledExecutorService scheduler =
       Executors.newSingleThreadScheduledExecutor();
   private ScheduledFuture<?> closeTask;
-  @Getter
-  private static PlayerControlPanel instance;
 
-  private PlayerControlPanel() {
-      instance = this;
+  /** The jump menu is an ephemeral message of its own, routed to the panel of its guild. */
+  private static final InteractionHandler JUMP_DISPATCHER =
+      new InteractionHandler() {
+        @Override
+        public void onStringSelectInteraction(@NotNull StringSelectInteractionEvent event) {
+          if (event.getGuild() == null) return;
+          PlayerControlPanel panel = active.get(event.getGuild().getIdLong());
+          if (panel != null) panel.listener.onStringSelectInteraction(event);
+        }
+      };
+
+  private PlayerControlPanel(long guildId) {
+    this.guildId = guildId;
   }
 
-  /** Binds this control panel to a posted message and starts listening to button interactions. */
+  /** Binds the guild's panel to a posted message and starts listening to button interactions. */
   public static void bindActive(Message msg, JDA jda) {
-    if (active == null) {
-      active = new PlayerControlPanel();
-      PlayerController.getInstance().addListener(active);
-      jda.addEventListener(active.listener);
+    InteractionRouter router = ContextHolder.getBean(InteractionRouter.class);
+    long guildId = msg.getGuild().getIdLong();
+    PlayerControlPanel panel = active.get(guildId);
+    if (panel == null) {
+      panel = new PlayerControlPanel(guildId);
+      panel.controller().addListener(panel);
+      active.put(guildId, panel);
+      router.bindPrefix(JUMP_SELECT_ID, JUMP_DISPATCHER);
+    } else if (panel.message != null) {
+      router.unbindMessage(panel.message.getIdLong());
     }
-    active.message = msg;
-    active.jda = jda;
-    active.refreshSilently();
-    active.touch();
+    router.bindMessage(msg.getIdLong(), panel.listener, null);
+    panel.message = msg;
+    panel.jda = jda;
+    panel.refreshSilently();
+    panel.touch();
   }
 
-  /** Deletes currently active panel message (if any) and cleans up listeners. */
-  public static boolean removeActiveMessage() {
-    if (active == null) return false;
+  /** Deletes the guild's active panel message (if any) and cleans up listeners. */
+  public static boolean removeActiveMessage(long guildId) {
+    PlayerControlPanel panel = active.remove(guildId);
+    if (panel == null) return false;
     try {
-      if (active.closeTask != null) active.closeTask.cancel(false);
+      if (panel.closeTask != null) panel.closeTask.cancel(false);
     } catch (Throwable ignored) {
     }
     try {
-      if (active.message != null) active.message.delete().queue();
+      if (panel.message != null) panel.message.delete().queue();
     } catch (Throwable ignored) {
     }
+    panel.unbindInteractions();
     try {
-      if (active.jda != null) active.jda.removeEventListener(active.listener);
+      panel.controller().removeListener(panel);
     } catch (Throwable ignored) {
     }
-    try {
-      PlayerController.getInstance().removeListener(active);
-    } catch (Throwable ignored) {
-    }
-    active = null;
     return true;
   }
 
@@ -122,8 +140,8 @@ public class PlayerControlPanel implements PlayerInstanceListener {
               ActionRow.of(buttons.subList(0, 5)), ActionRow.of(buttons.subList(5, buttons.size())));
         }
     }
-    private final ListenerAdapter listener =
-      new ListenerAdapter() {
+    private final InteractionHandler listener =
+      new InteractionHandler() {
         @Override
         public void onButtonInteraction(@NotNull ButtonInteractionEvent event) {
           if (message == null || !event.getMessageId().equals(message.getId())) return;
@@ -142,14 +160,14 @@ public class PlayerControlPanel implements PlayerInstanceListener {
           }
 
           String id = event.getComponentId();
-          boolean isOwner = PlayerAccess.isOwner(event.getUser().getIdLong());
+          boolean isOwner = PlayerAccess.isOwner(guildId, event.getUser().getIdLong());
           switch (id) {
             case "pl.prev" -> {
               if (!isOwner) {
-                startVote(event, "previous", () -> PlayerController.getInstance().previous());
+                startVote(event, "previous", () -> controller().previous());
                 return;
               }
-              PlayerController.getInstance().previous();
+              controller().previous();
             }
             case "pl.pause" -> {
               if (!isOwner) {
@@ -157,15 +175,15 @@ public class PlayerControlPanel implements PlayerInstanceListener {
                     event,
                     "pause/resume",
                     () ->
-                        PlayerController.getInstance()
-                            .setPaused(!PlayerController.getInstance().isPaused()));
+                        controller()
+                            .setPaused(!controller().isPaused()));
                 return;
               }
-              boolean newPaused = !PlayerController.getInstance().isPaused();
-              PlayerController.getInstance().setPaused(newPaused);
+              boolean newPaused = !controller().isPaused();
+              controller().setPaused(newPaused);
             }
             case "pl.next" -> {
-              if (!PlayerController.getInstance().hasNext()) {
+              if (!controller().hasNext()) {
                 event
                     .replyEmbeds(
                         Embed.getWarn()
@@ -177,21 +195,21 @@ public class PlayerControlPanel implements PlayerInstanceListener {
                 return;
               }
               if (!isOwner) {
-                startVote(event, "next", () -> PlayerController.getInstance().next());
+                startVote(event, "next", () -> controller().next());
                 return;
               }
-              PlayerController.getInstance().next();
+              controller().next();
             }
             case "pl.skip" -> {
               if (!isOwner) {
-                startVote(event, "skip", () -> PlayerController.getInstance().skip());
+                startVote(event, "skip", () -> controller().skip());
                 return;
               }
-              PlayerController.getInstance().skip();
+              controller().skip();
             }
             case "pl.queue" -> {
               // Show current queue to the button clicker, with paginator (ephemeral)
-              var tracks = PlayerController.getInstance().getTracks();
+              var tracks = controller().getTracks();
               if (tracks.isEmpty()) {
                 event
                     .replyEmbeds(
@@ -203,49 +221,48 @@ public class PlayerControlPanel implements PlayerInstanceListener {
                     .queue();
                 return;
               }
-              List<MessageEmbed> pages = new ArrayList<>();
-              List<List<AudioTrackMeta>> chunks = new ArrayList<>();
-              for (int i = 0; i < tracks.size(); i += 10) {
-                chunks.add(tracks.subList(i, Math.min(i + 10, tracks.size())));
-              }
-              int page = 0;
-              int position = 0;
-              for (var part : chunks) {
-                page++;
-                EmbedBuilder eb = Embed.getInfo().setTitle(Lang.get("music.player.title"));
-                eb.setFooter(Lang.get("paginator.page").formatted(page, chunks.size()));
-                StringBuilder sb = new StringBuilder();
-                for (var meta : part) {
-                  position++;
-                  sb.append(
-                      "\n **#%s** %s — %s (%s) • %s"
-                          .formatted(
-                              position,
-                              meta.getEntity().getInfo().author,
-                              meta.getEntity().getInfo().title,
-                              fmtTime(meta.getEntity().getDuration()),
-                              meta.getEntityOwner() != null
-                                  ? meta.getEntityOwner().getEffectiveName()
-                                  : "?"));
-                }
-                sb.append("\n\n" + Lang.get("music.queue.total").formatted(tracks.size()));
-                eb.setDescription(sb.toString());
-                pages.add(eb.build());
-              }
+              List<AudioTrackMeta> snapshot = List.copyOf(tracks);
+              PageSource pages =
+                  PageSource.chunked(
+                      snapshot,
+                      10,
+                      (part, page, offset) -> {
+                        EmbedBuilder eb = Embed.getInfo().setTitle(Lang.get("music.player.title"));
+                        eb.setFooter(
+                            Lang.get("paginator.page")
+                                .formatted(page + 1, (snapshot.size() + 9) / 10));
+                        StringBuilder sb = new StringBuilder();
+                        int position = offset;
+                        for (var meta : part) {
+                          position++;
+                          sb.append(
+                              "\n **#%s** %s — %s (%s) • %s"
+                                  .formatted(
+                                      position,
+                                      meta.getEntity().getInfo().author,
+                                      meta.getEntity().getInfo().title,
+                                      fmtTime(meta.getEntity().getDuration()),
+                                      meta.getEntityOwner() != null
+                                          ? meta.getEntityOwner().getEffectiveName()
+                                          : "?"));
+                        }
+                        sb.append(
+                            "\n\n" + Lang.get("music.queue.total").formatted(snapshot.size()));
+                        eb.setDescription(sb.toString());
+                        return eb.build();
+                      });
+              ButtonPaginator paginator = new ButtonPaginator(pages, event.getUser(), true);
               event
-                  .replyEmbeds(pages.getFirst())
+                  .replyEmbeds(paginator.getPage(0))
                   .setEphemeral(true)
                   .queue(
                       hook ->
                           hook.retrieveOriginal()
-                              .queue(
-                                  msg ->
-                                      new ButtonPaginator(pages, event.getUser(), true)
-                                          .paginate(msg, event.getJDA())));
+                              .queue(paginator::paginate));
               return; // do not refresh panel UI for queue view
             }
             case "pl.jump" -> {
-              var tracks = PlayerController.getInstance().getTracks();
+              var tracks = controller().getTracks();
               if (tracks.isEmpty()) {
                 event
                     .replyEmbeds(
@@ -259,7 +276,7 @@ public class PlayerControlPanel implements PlayerInstanceListener {
               }
               var menuBuilder =
                   net.dv8tion.jda.api.interactions.components.selections.StringSelectMenu.create(
-                          "pl.jump.sel")
+                          JUMP_SELECT_ID)
                       .setPlaceholder(Lang.get("music.jump.select"));
               int max = Math.min(25, tracks.size());
               for (int i = 0; i < max; i++) {
@@ -277,7 +294,7 @@ public class PlayerControlPanel implements PlayerInstanceListener {
               return;
             }
             case "pl.mode" -> {
-              PlayerMode mode = PlayerController.getInstance().getPlayerMode();
+              PlayerMode mode = controller().getPlayerMode();
               PlayerMode next =
                   switch (mode) {
                     case REPEAT_ONE -> PlayerMode.REPEAT_QUEUE;
@@ -288,21 +305,21 @@ public class PlayerControlPanel implements PlayerInstanceListener {
                 startVote(
                     event,
                     "mode:" + next,
-                    () -> PlayerController.getInstance().setPlayerMode(next));
+                    () -> controller().setPlayerMode(next));
                 return;
               }
-              PlayerController.getInstance().setPlayerMode(next);
+              controller().setPlayerMode(next);
             }
-            case "pl.+10" -> PlayerController.getInstance().shiftPlayer(10*1000);
-            case "pl.-10" -> PlayerController.getInstance().shiftPlayer(-(10*1000));
+            case "pl.+10" -> controller().shiftPlayer(10*1000);
+            case "pl.-10" -> controller().shiftPlayer(-(10*1000));
             case "pl.bye" -> {
               if (!isOwner) {
                 startVote(
                     event,
                     "stop",
                     () -> {
-                      PlayerController.getInstance().clean();
-                      PlayerAccess.clearOwner();
+                      controller().clean();
+                      PlayerAccess.clearOwner(guildId);
                       try {
                         if (event.getGuild() != null)
                           event.getGuild().getAudioManager().closeAudioConnection();
@@ -311,8 +328,8 @@ public class PlayerControlPanel implements PlayerInstanceListener {
                     });
                 return;
               }
-              PlayerController.getInstance().clean();
-              PlayerAccess.clearOwner();
+              controller().clean();
+              PlayerAccess.clearOwner(guildId);
               try {
                 if (event.getGuild() != null)
                   event.getGuild().getAudioManager().closeAudioConnection();
@@ -322,8 +339,8 @@ public class PlayerControlPanel implements PlayerInstanceListener {
           }
 
           // Update panel UI
-          boolean paused = PlayerController.getInstance().isPaused();
-          PlayerMode mode = PlayerController.getInstance().getPlayerMode();
+          boolean paused = controller().isPaused();
+          PlayerMode mode = controller().getPlayerMode();
           MessageEmbed updated = buildStateEmbed();
           event.editMessageEmbeds(updated).setComponents(buildRows(paused, mode)).queue();
           touch();
@@ -332,7 +349,7 @@ public class PlayerControlPanel implements PlayerInstanceListener {
         @Override
         public void onStringSelectInteraction(@NotNull StringSelectInteractionEvent event) {
           // Accept selections from the ephemeral jump menu (different message id)
-          if (!"pl.jump.sel".equals(event.getComponentId())) return;
+          if (!JUMP_SELECT_ID.equals(event.getComponentId())) return;
           if (!PlayerAccess.canControl(event.getUser().getIdLong(), event.getMember())) {
             event
                 .replyEmbeds(
@@ -352,13 +369,13 @@ public class PlayerControlPanel implements PlayerInstanceListener {
           } catch (Exception ignored) {
             return;
           }
-          Long ownerIdForJump = PlayerAccess.getOwnerId();
+          Long ownerIdForJump = PlayerAccess.getOwnerId(guildId);
           boolean requireJump =
               ownerIdForJump != null
                   && ContextHolder.getBean(MusicSettingsService.class)
                       .getRequiredVoteActions(ownerIdForJump)
                       .contains("jump");
-          if (!PlayerAccess.isOwner(event.getUser().getIdLong()) && requireJump) {
+          if (!PlayerAccess.isOwner(guildId, event.getUser().getIdLong()) && requireJump) {
             var vs = event.getMember() != null ? event.getMember().getVoiceState() : null;
             var ch = vs != null ? vs.getChannel() : null;
             if (ch == null) {
@@ -379,10 +396,10 @@ public class PlayerControlPanel implements PlayerInstanceListener {
                 "jump",
                 Lang.get("music.vote.title"),
                 Lang.get("music.vote.desc").formatted("jump"),
-                () -> PlayerController.getInstance().playAt(idx));
+                () -> controller().playAt(idx));
             return;
           }
-          PlayerController.getInstance().playAt(idx);
+          controller().playAt(idx);
           event
               .replyEmbeds(
                   Embed.getInfo()
@@ -413,7 +430,7 @@ public class PlayerControlPanel implements PlayerInstanceListener {
       return;
     }
     // If owner settings do not require vote for this action, execute directly
-    Long ownerId = PlayerAccess.getOwnerId();
+    Long ownerId = PlayerAccess.getOwnerId(guildId);
     if (ownerId != null) {
       var usvc = ContextHolder.getBean(MusicSettingsService.class);
       if (!usvc.getRequiredVoteActions(ownerId).contains(actionKey.split(":")[0])) {
@@ -438,7 +455,7 @@ public class PlayerControlPanel implements PlayerInstanceListener {
   }
 
   private MessageEmbed buildStateEmbed() {
-    var pc = PlayerController.getInstance();
+    var pc = controller();
     var now = pc.getNowPlayingTrack();
     String np =
         (now == null)
@@ -477,8 +494,8 @@ public class PlayerControlPanel implements PlayerInstanceListener {
   public void refreshSilently() {
     try {
       if (message == null) return;
-      boolean paused = PlayerController.getInstance().isPaused();
-      PlayerMode mode = PlayerController.getInstance().getPlayerMode();
+      boolean paused = controller().isPaused();
+      PlayerMode mode = controller().getPlayerMode();
       MessageEmbed updated = buildStateEmbed();
       message.editMessageEmbeds(updated).setComponents(buildRows(paused, mode)).setContent("").queue();
     } catch (Throwable ignored) {
@@ -504,15 +521,22 @@ public class PlayerControlPanel implements PlayerInstanceListener {
       }
     } catch (Throwable ignored) {
     }
+    active.remove(guildId, this);
+    unbindInteractions();
     try {
-      if (jda != null) jda.removeEventListener(listener);
-    } catch (Throwable ignored) {
-    }
-    try {
-      PlayerController.getInstance().removeListener(this);
+      controller().removeListener(this);
     } catch (Throwable ignored) {
     }
-    active = null;
+  }
+
+  private void unbindInteractions() {
+    InteractionRouter router = ContextHolder.getBean(InteractionRouter.class);
+    if (active.isEmpty()) router.unbindPrefix(JUMP_SELECT_ID);
+    if (message != null) router.unbindMessage(message.getIdLong());
+  }
+
+  private PlayerController controller() {
+    return PlayerController.of(guildId);
   }
 
   // PlayerInstanceListener implementations to keep panel in sync
@@ -12,11 +12,11 @@ import java.util.List;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Member;
-import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.Role;
 import ua.beengoo.uahub.bot.ContextHolder;
 import ua.beengoo.uahub.bot.Lang;
 import ua.beengoo.uahub.bot.helper.paginator.ButtonPaginator;
+import ua.beengoo.uahub.bot.helper.paginator.PageSource;
 import ua.beengoo.uahub.bot.layout.message.Embed;
 import ua.beengoo.uahub.bot.module.music.model.UserPlaylist;
 import ua.beengoo.uahub.bot.module.music.model.UserPlaylistTrack;
@@ -276,41 +276,38 @@ public class PlayerPlaylistCommands {
       return;
     }
 
-    List<MessageEmbed> pages = new ArrayList<>();
-    List<List<UserPlaylistTrack>> chunks = new ArrayList<>();
-    for (int i = 0; i < tracks.size(); i += 10) {
-      chunks.add(tracks.subList(i, Math.min(i + 10, tracks.size())));
-    }
-    int page = 0;
-    int position = 0;
-    for (var part : chunks) {
-      page++;
-      EmbedBuilder eb =
-          Embed.getInfo().setTitle(Lang.get("music.playlist.view.title").formatted(pl.getName()));
-      eb.setFooter(Lang.get("paginator.page").formatted(page, chunks.size()));
-      StringBuilder sb = new StringBuilder();
-      for (var t : part) {
-        position++;
-        String lineTitle =
-            t.getTitle() != null && !t.getTitle().isBlank() ? t.getTitle() : t.getQuery();
-        sb.append("\n **#%s** %s".formatted(position, lineTitle));
-      }
-      sb.append("\n\n" + Lang.get("music.playlist.view.total").formatted(tracks.size()));
-      eb.setDescription(sb.toString());
-      pages.add(eb.build());
-    }
+    PageSource pages =
+        PageSource.chunked(
+            tracks,
+            10,
+            (part, page, offset) -> {
+              EmbedBuilder eb =
+                  Embed.getInfo()
+                      .setTitle(Lang.get("music.playlist.view.title").formatted(pl.getName()));
+              eb.setFooter(
+                  Lang.get("paginator.page").formatted(page + 1, (tracks.size() + 9) / 10));
+              StringBuilder sb = new StringBuilder();
+              int position = offset;
+              for (var t : part) {
+                position++;
+                String lineTitle =
+                    t.getTitle() != null && !t.getTitle().isBlank() ? t.getTitle() : t.getQuery();
+                sb.append("\n **#%s** %s".formatted(position, lineTitle));
+              }
+              sb.append("\n\n" + Lang.get("music.playlist.view.total").formatted(tracks.size()));
+              eb.setDescription(sb.toString());
+              return eb.build();
+            });
+    ButtonPaginator paginator = new ButtonPaginator(pages, event.getUser(), true);
 
     event
         .jdaEvent()
-        .replyEmbeds(pages.getFirst())
+        .replyEmbeds(paginator.getPage(0))
         .setEphemeral(true)
         .queue(
             s ->
                 s.retrieveOriginal()
-                    .queue(
-                        sentMsg ->
-                            new ButtonPaginator(pages, event.getUser(), true)
-                                .paginate(sentMsg, event.getJDA())));
+                    .queue(paginator::paginate));
   }
 
   @AutoComplete(
@@ -339,7 +336,7 @@ public class PlayerPlaylistCommands {
   public void onSaveFromQueue(
       CommandEvent event, @Param(name = "name", value = "Назва") String name) {
     if (!has(event, "music.pl.save", "music.perm.pl.save")) return;
-    List<AudioTrackMeta> tracks = PlayerController.getInstance().getTracks();
+    List<AudioTrackMeta> tracks = PlayerController.of(event.getGuild()).getTracks();
     if (tracks.isEmpty()) {
       event
           .jdaEvent()
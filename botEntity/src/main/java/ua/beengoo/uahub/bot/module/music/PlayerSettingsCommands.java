@@ -63,7 +63,7 @@ public class PlayerSettingsCommands {
           case "queue" -> PlayerMode.REPEAT_QUEUE;
           default -> PlayerMode.NOTHING;
         };
-    PlayerController.getInstance().setPlayerMode(setTo);
+    PlayerController.of(event.getGuild()).setPlayerMode(setTo);
     settingsService.saveRepeatMode(uid, setTo);
     event
         .jdaEvent()
@@ -0,0 +1,117 @@
+package ua.beengoo.uahub.bot.module.music.player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resolves a list of queries with at most {@code parallelism} loads in flight and hands the
+ * results over strictly in list order, each one as soon as it and all before it are done.
+ *
+ * <p>The first result is delivered as soon as it is ready, whatever the length of the list, and a
+ * new load starts whenever one is delivered. Results are delivered one at a time.
+ */
+@Slf4j
+final class OrderedLoader<T> {
+  private final List<String> queries;
+  private final Function<String, CompletableFuture<T>> resolver;
+  private final BiConsumer<T, Throwable> consumer;
+  private final int parallelism;
+
+  private final List<CompletableFuture<T>> pending;
+  private int started;
+  private int delivered;
+  private boolean draining;
+
+  /**
+   * @param resolver starts the load of one query
+   * @param consumer receives each result or failure, in query order
+   */
+  OrderedLoader(
+      List<String> queries,
+      int parallelism,
+      Function<String, CompletableFuture<T>> resolver,
+      BiConsumer<T, Throwable> consumer) {
+    if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be positive");
+    this.queries = List.copyOf(queries);
+    this.parallelism = parallelism;
+    this.resolver = resolver;
+    this.consumer = consumer;
+    this.pending = new ArrayList<>(this.queries.size());
+  }
+
+  /** Starts the first loads; the rest follow as results are delivered. */
+  void start() {
+    synchronized (this) {
+      // Claimed before the loads start so that callbacks of loads that are already done leave
+      // the delivery to this thread instead of running the consumer under the lock
+      draining = true;
+      topUp();
+    }
+    deliver();
+  }
+
+  /** Number of queries whose load has been started. */
+  synchronized int started() {
+    return started;
+  }
+
+  /** Number of results handed to the consumer. */
+  synchronized int delivered() {
+    return delivered;
+  }
+
+  /** Starts loads up to the parallelism limit; only called while {@code draining} is set. */
+  private void topUp() {
+    while (started < queries.size() && started - delivered < parallelism) {
+      CompletableFuture<T> load;
+      try {
+        load = resolver.apply(queries.get(started));
+      } catch (RuntimeException e) {
+        load = CompletableFuture.failedFuture(e);
+      }
+      pending.add(load);
+      started++;
+      // Loads that are already done (e.g. cached) call back right away, drain() then sees the
+      // ongoing drain and returns; the draining thread delivers them after releasing the lock
+      load.whenComplete((r, e) -> drain());
+    }
+  }
+
+  private void drain() {
+    synchronized (this) {
+      if (draining) return;
+      draining = true;
+    }
+    deliver();
+  }
+
+  /** Hands over the results that are ready, outside the lock; the caller has set draining. */
+  private void deliver() {
+    while (true) {
+      CompletableFuture<T> next;
+      synchronized (this) {
+        next = delivered < started ? pending.get(delivered) : null;
+        if (next == null || !next.isDone()) {
+          draining = false;
+          return;
+        }
+        pending.set(delivered, null);
+        delivered++;
+        topUp();
+      }
+      next.handle(
+          (result, error) -> {
+            try {
+              consumer.accept(result, error);
+            } catch (RuntimeException e) {
+              log.warn("Failed to handle a loaded item: {}", e.getMessage());
+            }
+            return null;
+          });
+    }
+  }
+}
@@ -1,25 +1,45 @@
 package ua.beengoo.uahub.bot.module.music.player;
 
 import com.github.kaktushose.jda.commands.dispatching.events.interactions.CommandEvent;
-import lombok.Getter;
-import lombok.Setter;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
 import ua.beengoo.uahub.bot.ContextHolder;
 import ua.beengoo.uahub.bot.module.permissions.service.PermissionService;
 
-/** Helper for access control to player operations based on owner, roles and permission nodes. */
+/**
+ * Helper for access control to player operations based on the per-guild owner, roles and
+ * permission nodes.
+ */
 public class PlayerAccess {
-  @Getter
-  @Setter
-  private static Long ownerId;
+  /** Any of these nodes grants access to the control panel and its buttons. */
+  private static final String[] CONTROL_NODES = {
+    "music.ctrl",
+    "music.play",
+    "music.pause",
+    "music.skip",
+    "music.prev",
+    "music.next",
+    "music.jump",
+    "music.bye",
+    "music.mode"
+  };
 
-  public static void clearOwner() {
-    ownerId = null;
+  /** Owner of the guild's player session, {@code null} when nobody started one. */
+  public static Long getOwnerId(long guildId) {
+    return registry().find(guildId).map(PlayerController::getOwnerId).orElse(null);
   }
 
-  public static boolean isOwner(long userId) {
+  public static void setOwnerId(long guildId, long userId) {
+    registry().get(guildId).setOwnerId(userId);
+  }
+
+  public static void clearOwner(long guildId) {
+    registry().find(guildId).ifPresent(p -> p.setOwnerId(null));
+  }
+
+  public static boolean isOwner(long guildId, long userId) {
+    Long ownerId = getOwnerId(guildId);
     return ownerId != null && ownerId == userId;
   }
 
@@ -30,28 +50,25 @@ public class PlayerAccess {
 
   /** Returns whether the given user can interact with player controls. */
   public static boolean canControl(long userId, Member member) {
-    if (isOwner(userId)) return true;
-    PermissionService ps = ContextHolder.getBean(PermissionService.class);
-    var roles = member != null ? member.getRoles().stream().map(Role::getIdLong).toList() : null;
-    boolean hasNode =
-        ps.has(userId, roles, "music.ctrl")
-            || ps.has(userId, roles, "music.play")
-            || ps.has(userId, roles, "music.pause")
-            || ps.has(userId, roles, "music.skip")
-            || ps.has(userId, roles, "music.prev")
-            || ps.has(userId, roles, "music.next")
-            || ps.has(userId, roles, "music.jump")
-            || ps.has(userId, roles, "music.bye")
-            || ps.has(userId, roles, "music.mode");
-    return (member != null && member.hasPermission(Permission.ADMINISTRATOR)) || hasNode;
+    if (member != null && isOwner(member.getGuild().getIdLong(), userId)) return true;
+    return hasAnyNode(userId, member, CONTROL_NODES);
   }
 
   /** Checks a single permission node with Discord admin override. */
   public static boolean hasNode(long userId, Member member, String node) {
+    return hasAnyNode(userId, member, node);
+  }
+
+  /** Checks whether any of the nodes is granted, with Discord admin override. */
+  public static boolean hasAnyNode(long userId, Member member, String... nodes) {
     // Discord admin override
     if (member != null && member.hasPermission(Permission.ADMINISTRATOR)) return true;
     PermissionService ps = ContextHolder.getBean(PermissionService.class);
     var roles = member != null ? member.getRoles().stream().map(Role::getIdLong).toList() : null;
-    return ps.has(userId, roles, node);
+    return ps.hasAny(userId, roles, nodes);
+  }
+
+  private static PlayerRegistry registry() {
+    return ContextHolder.getBean(PlayerRegistry.class);
   }
 }
@@ -2,34 +2,53 @@ package ua.beengoo.uahub.bot.module.music.player;
 
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.managers.AudioManager;
-import ua.beengoo.uahub.bot.HubBot;
+import ua.beengoo.uahub.bot.ContextHolder;
 
-/** Facade over {@link PlayerInstance} that exposes player controls to commands and UI. */
+/**
+ * Facade over the {@link PlayerInstance} of one guild that exposes player controls to commands and
+ * UI. Obtained from the {@link PlayerRegistry}, see {@link #of(long)}.
+ */
 public class PlayerController {
-  private List<PlayerInstanceListener> listeners = new ArrayList<>();
+  private final List<PlayerInstanceListener> listeners = new ArrayList<>();
 
-  private static PlayerController instance;
+  @Getter private final long guildId;
   private final PlayerInstance playerInstance;
 
-  /** Returns singleton instance of the controller. */
-  public static PlayerController getInstance() {
-    if (instance == null) instance = new PlayerController();
-    return instance;
+  /** User who started the current session, see {@link PlayerAccess}. */
+  @Getter @Setter private volatile Long ownerId;
+
+  /** Member whose request is being loaded; loaded tracks are attributed to them. */
+  @Getter @Setter private volatile Member lastRequester;
+
+  PlayerController(long guildId, TrackLoader trackLoader) {
+    this.guildId = guildId;
+    this.playerInstance = new PlayerInstance(this, trackLoader);
+  }
+
+  /** Player of a guild, created on first use. */
+  public static PlayerController of(long guildId) {
+    return ContextHolder.getBean(PlayerRegistry.class).get(guildId);
   }
 
-  private PlayerController() {
-    playerInstance = new PlayerInstance(this, HubBot.getConfig());
+  /** Player of a guild, created on first use. */
+  public static PlayerController of(Guild guild) {
+    return of(guild.getIdLong());
   }
 
   /** Registers a listener for player events. */
-  public void addListener(PlayerInstanceListener l) {
+  public synchronized void addListener(PlayerInstanceListener l) {
     listeners.add(l);
   }
 
   /** Unregisters a listener. */
-  public void removeListener(PlayerInstanceListener l) {
+  public synchronized void removeListener(PlayerInstanceListener l) {
     listeners.remove(l);
   }
 
@@ -38,7 +57,7 @@ public class PlayerController {
     return playerInstance.getPlayer().getPlayingTrack();
   }
 
-  List<PlayerInstanceListener> getListeners() {
+  synchronized List<PlayerInstanceListener> getListeners() {
     // Return a defensive copy to avoid ConcurrentModificationException if listeners mutate inside
     // callbacks
     return new ArrayList<>(listeners);
@@ -52,7 +71,7 @@ public class PlayerController {
 
   /** Loads a track or playlist by query and queues it. */
   public void requestToQueue(List<String> query) {
-    playerInstance.loadPlaylistSequentially(query);
+    playerInstance.loadInOrder(query);
   }
 
   /** Starts or continues playback from the current index. */
@@ -110,6 +129,19 @@ public class PlayerController {
     playerInstance.clear();
   }
 
+  /** Whether nothing is loaded into the player. */
+  public boolean isIdle() {
+    return playerInstance.isIdle();
+  }
+
+  /** Drops the queue, owner and listeners and releases the audio player; called on eviction. */
+  synchronized void destroy() {
+    playerInstance.destroy();
+    listeners.clear();
+    ownerId = null;
+    lastRequester = null;
+  }
+
   /** Skips current track and plays next. */
   public void skip() {
     playerInstance.skip();
@@ -130,6 +162,11 @@ public class PlayerController {
     return playerInstance.getTracks();
   }
 
+  /** Whether all tracks with the given identifiers are queued already. */
+  public boolean isQueued(Collection<String> identifiers) {
+    return playerInstance.isQueued(identifiers);
+  }
+
   /** Sets repeat mode. */
   public void setPlayerMode(PlayerMode playerMode) {
     playerInstance.setPlayerMode(playerMode);
@@ -145,6 +182,16 @@ public class PlayerController {
     playerInstance.removeFromQueue(track);
   }
 
+  /** Moves a track from one 0-based index to another. */
+  public void moveInQueue(int from, int to) {
+    playerInstance.moveInQueue(from, to);
+  }
+
+  /** Shuffles the tracks after the current one. */
+  public void shuffleQueue() {
+    playerInstance.shuffleQueue();
+  }
+
   /** Gets current repeat mode. */
   public PlayerMode getPlayerMode() {
     return playerInstance.getPlayerMode();
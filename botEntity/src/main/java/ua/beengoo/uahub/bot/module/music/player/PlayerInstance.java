@@ -1,117 +1,53 @@
 package ua.beengoo.uahub.bot.module.music.player;
 
-import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
 import com.sedmelluq.discord.lavaplayer.player.*;
 import com.sedmelluq.discord.lavaplayer.player.event.AudioEventAdapter;
-import com.sedmelluq.discord.lavaplayer.source.AudioSourceManagers;
-import com.sedmelluq.discord.lavaplayer.source.soundcloud.SoundCloudAudioSourceManager;
 import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
-import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
 import com.sedmelluq.discord.lavaplayer.track.AudioTrackEndReason;
-import dev.lavalink.youtube.YoutubeAudioSourceManager;
-import dev.lavalink.youtube.YoutubeSourceOptions;
-import dev.lavalink.youtube.clients.*;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
-import ua.beengoo.uahub.bot.config.ConfigurationFile;
 
 /**
- * Wrapper over LavaPlayer
+ * Wrapper over LavaPlayer: queue, repeat mode and the {@link AudioPlayer} of one guild.
+ *
+ * <p>Tracks are queued from the loader threads and JDA threads while the audio thread advances, so
+ * the queue and the current index are guarded by this instance's monitor. The audio player and
+ * the listeners are called after it is released: LavaPlayer fires track events under its own lock
+ * and listeners may block on Discord requests.
  */
 @Slf4j
 public class PlayerInstance extends ListenerAdapter {
 
-    @Getter private final AudioPlayerManager playerManager;
-    @Getter private final List<AudioTrackMeta> tracks = new ArrayList<>();
+    private final TrackLoader trackLoader;
     private static final int MAX_TRACKS = 1028;
+    private final TrackQueue tracks = new TrackQueue(MAX_TRACKS);
+    /** Loads in flight per queued playlist, matching the loader threads of the manager. */
+    private static final int LOAD_PARALLELISM = TrackLoader.LOADER_THREADS;
     private final PlayerController playerController;
-    private final ConfigurationFile config;
-    private AudioPlayer audioPlayer;
+    private volatile AudioPlayer audioPlayer;
     private int currentIndex;
-    @Getter private boolean isPlaying = false;
-    @Getter private PlayerMode playerMode = PlayerMode.NOTHING;
-
-    @SuppressWarnings("deprecation")
-    public PlayerInstance(PlayerController playerController, ConfigurationFile config) {
-        this.playerController = playerController;
-        this.config = config;
-
-        playerManager = new DefaultAudioPlayerManager();
-
-        playerManager
-            .getConfiguration()
-            .setResamplingQuality(AudioConfiguration.ResamplingQuality.MEDIUM);
-        playerManager.getConfiguration().setOutputFormat(StandardAudioDataFormats.DISCORD_OPUS);
-
-        // Create YouTube source manager with optional authentication
-        YoutubeAudioSourceManager youtube = createYoutubeSourceManager();
-        SoundCloudAudioSourceManager soundCloud = SoundCloudAudioSourceManager.createDefault();
-
-        playerManager.registerSourceManager(youtube);
-        playerManager.registerSourceManager(soundCloud);
-        AudioSourceManagers.registerRemoteSources(
-            playerManager,
-            com.sedmelluq.discord.lavaplayer.source.youtube.YoutubeAudioSourceManager.class);
-    }
+    @Getter private volatile boolean isPlaying = false;
+    @Getter private volatile PlayerMode playerMode = PlayerMode.NOTHING;
 
     /**
-     * Creates YouTube source manager with OAuth authentication and remote cipher if configured.
-     * Prioritizes clients that return Opus formats to avoid AAC decoder issues.
+     * @param playerController owning per-guild controller
+     * @param trackLoader loader shared by all guilds, owns the audio player manager
      */
-    private YoutubeAudioSourceManager createYoutubeSourceManager() {
-        // Create options for YouTube source
-        YoutubeSourceOptions options = new YoutubeSourceOptions();
-
-        // Configure remote cipher if enabled
-        if (config.remoteCipher != null && config.remoteCipher.enabled) {
-            log.info("Using cipher server: {}", config.remoteCipher.url);
-            options.setRemoteCipherUrl(
-                config.remoteCipher.url,
-                config.remoteCipher.password
-            );
-        }
-
-        YoutubeAudioSourceManager youtube;
-
-        if (config.youtubeOAuth.enabled &&
-            config.youtubeOAuth.refreshToken != null &&
-            !config.youtubeOAuth.refreshToken.isEmpty()) {
-            try {
-                youtube = new YoutubeAudioSourceManager(
-                    options,
-                    new Tv(), new Web() // Miracle that it still works tbh
-                );
-
-                // Enable OAuth with refresh token
-                youtube.useOauth2(config.youtubeOAuth.refreshToken, true);
-
-                log.info("Applying Google Account credentials successfully!");
-                return youtube;
-
-            } catch (Exception e) {
-                log.error("Failed to configure Google Account for YouTube playback, falling back to guest mode", e);
-            }
-        }
-
-        log.info("Using YouTube in guest mode...");
-        youtube = new YoutubeAudioSourceManager(
-            options,
-            new Web(),
-            new AndroidMusic(),
-            new Music()
-        );
-
-        return youtube;
+    public PlayerInstance(PlayerController playerController, TrackLoader trackLoader) {
+        this.playerController = playerController;
+        this.trackLoader = trackLoader;
     }
 
     /** Creates and returns the underlying {@link AudioPlayer}. */
-    public AudioPlayer getPlayer() {
+    public synchronized AudioPlayer getPlayer() {
         if (audioPlayer == null) {
-            audioPlayer = playerManager.createPlayer();
+            audioPlayer = trackLoader.manager().createPlayer();
             setupPlayer();
         }
         return audioPlayer;
@@ -138,15 +74,26 @@ public class PlayerInstance extends ListenerAdapter {
             });
     }
 
+    /** Queued tracks in order, as a copy. */
+    public synchronized List<AudioTrackMeta> getTracks() {
+        return tracks.toList();
+    }
+
+    /** Whether every identifier is queued already, checked against one state of the queue. */
+    public synchronized boolean isQueued(Collection<String> identifiers) {
+        for (String identifier : identifiers) {
+            if (!tracks.contains(identifier)) return false;
+        }
+        return true;
+    }
+
     /** Resolves queue metadata for a raw LavaPlayer track entity. */
-    public AudioTrackMeta fetchMetaFromEntity(AudioTrack entity) {
-        for (AudioTrackMeta me : tracks) {
-            if (me.getEntity().getIdentifier().equals(entity.getIdentifier())) {
-                return me;
-            }
+    public synchronized AudioTrackMeta fetchMetaFromEntity(AudioTrack entity) {
+        AudioTrackMeta meta = tracks.find(entity.getIdentifier());
+        if (meta == null) {
+            log.warn("Track metadata unresolved. size={}, entity={}.", tracks.size(), entity);
         }
-        log.warn("Track metadata unresolved. size={}, entity={}.", tracks.size(), entity);
-        return null;
+        return meta;
     }
 
     /** Sets repeat mode and notifies listeners. */
@@ -157,114 +104,112 @@ public class PlayerInstance extends ListenerAdapter {
             .forEach(l -> l.onPlayerModeChanged(getPlayerMode(), playerMode, getPlayer()));
     }
 
-    /** Loads a track or playlist from a query/URL and emits appropriate callbacks. */
-    public void loadPlaylistSequentially(List<String> queries) {
+    /**
+     * Resolves queries (URLs or searches) with up to {@link #LOAD_PARALLELISM} loads in flight and
+     * emits the load callbacks in query order, the first one as soon as it is ready.
+     */
+    public void loadInOrder(List<String> queries) {
         if (queries.isEmpty()) return;
-        loadTrack(queries, 0);
+        new OrderedLoader<>(queries, LOAD_PARALLELISM, trackLoader::resolve, this::dispatchLoaded)
+            .start();
     }
 
-    private void loadTrack(List<String> queries, int index) {
-        if (index >= queries.size()) return;
-
-        String query = queries.get(index);
-        playerManager.loadItem(query, new AudioLoadResultHandler() {
-            @Override
-            public void trackLoaded(AudioTrack audioTrack) {
-                playerController.getListeners().forEach(l -> l.onTrackLoaded(audioTrack, getPlayer()));
-                loadTrack(queries, index + 1);
-            }
-
-            @Override
-            public void playlistLoaded(AudioPlaylist audioPlaylist) {
-                if (audioPlaylist.isSearchResult()) {
-                    playerController.getListeners().forEach(l -> l.onSearchLoaded(audioPlaylist, getPlayer()));
-                } else {
-                    playerController.getListeners().forEach(l -> l.onPlaylistLoaded(audioPlaylist, getPlayer()));
-                }
-                loadTrack(queries, index + 1);
-            }
-
-            @Override
-            public void noMatches() {
-                playerController.getListeners().forEach(l -> l.onSearchFailed(getPlayer()));
-                loadTrack(queries, index + 1);
-            }
-
-            @Override
-            public void loadFailed(FriendlyException e) {
-                playerController.getListeners().forEach(l -> l.onLoadFailed(e, getPlayer()));
-                loadTrack(queries, index + 1);
-            }
-        });
+    private void dispatchLoaded(TrackLoader.LoadedItem item, Throwable error) {
+        AudioPlayer player = getPlayer();
+        List<PlayerInstanceListener> listeners = playerController.getListeners();
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+            FriendlyException e = cause instanceof FriendlyException fe
+                ? fe
+                : new FriendlyException(cause.getMessage(), FriendlyException.Severity.FAULT, cause);
+            listeners.forEach(l -> l.onLoadFailed(e, player));
+        } else if (item.isEmpty()) {
+            listeners.forEach(l -> l.onSearchFailed(player));
+        } else if (!item.isPlaylist()) {
+            listeners.forEach(l -> l.onTrackLoaded(item.track(), player));
+        } else if (item.playlist().isSearchResult()) {
+            listeners.forEach(l -> l.onSearchLoaded(item.playlist(), player));
+        } else {
+            listeners.forEach(l -> l.onPlaylistLoaded(item.playlist(), player));
+        }
     }
 
-    /** Adds a single track to the end of the queue. */
+    /** Adds a single track to the end of the queue unless already queued (bounded size). */
     public void addToQueue(AudioTrackMeta track) {
-        // Prevent duplicates by identifier
-        String id = track.getEntity() != null ? track.getEntity().getIdentifier() : null;
-        if (id != null) {
-            for (AudioTrackMeta t : tracks) {
-                if (t.getEntity() != null && id.equals(t.getEntity().getIdentifier())) {
-                    return; // already queued
-                }
-            }
-        }
-
-        if (tracks.size() >= MAX_TRACKS) {
-            // Remove oldest
-            tracks.remove(0);
+        synchronized (this) {
+            if (!enqueue(track)) return;
         }
-        tracks.add(track);
         playerController.getListeners().forEach(l -> l.onTrackQueueAdded(track, getPlayer()));
     }
 
     /** Adds all tracks of a playlist to the end of the queue (bounded size). */
     public void addPlaylistToQueue(AudioPlaylistMeta playlist) {
         // Append only tracks that are not already present by identifier
-        java.util.Set<String> seen = new java.util.HashSet<>();
-        for (AudioTrackMeta t : tracks) {
-            if (t.getEntity() != null) seen.add(t.getEntity().getIdentifier());
-        }
-        java.util.List<AudioTrackMeta> toAdd = new java.util.ArrayList<>();
-        for (AudioTrackMeta meta : playlist.getTracks()) {
-            String id = meta.getEntity() != null ? meta.getEntity().getIdentifier() : null;
-            if (id == null || !seen.contains(id)) {
-                toAdd.add(meta);
-                if (id != null) seen.add(id);
-            }
-        }
-        for (AudioTrackMeta meta : toAdd) {
-            if (tracks.size() >= MAX_TRACKS) {
-                // Remove oldest
-                tracks.remove(0);
+        boolean added = false;
+        synchronized (this) {
+            for (AudioTrackMeta meta : playlist.getTracks()) {
+                added |= enqueue(meta);
             }
-            tracks.add(meta);
         }
-        if (!toAdd.isEmpty()) {
+        if (added) {
             playerController.getListeners().forEach(l -> l.onPlaylistQueueAdded(playlist, getPlayer()));
         }
     }
 
+    /**
+     * Appends to the queue; when full, the oldest entry is evicted and the current index follows
+     * the shift. The current track itself is never evicted, the track is refused instead.
+     *
+     * @return {@code false} if the track was already queued or the queue is full up to the current
+     *     track
+     */
+    private boolean enqueue(AudioTrackMeta meta) {
+        boolean evicts = tracks.isFull();
+        if (evicts && currentIndex <= 0) {
+            log.warn("Queue is full, dropping {}", meta.getEntity().getIdentifier());
+            return false;
+        }
+        if (!tracks.add(meta)) return false; // already queued
+        if (evicts) currentIndex--;
+        return true;
+    }
+
     /** Starts playing current index; ends gracefully if queue is empty or finished. */
     public void playQueue() {
+        AudioTrackMeta next;
+        synchronized (this) {
+            next = current();
+        }
+        play(next);
+    }
+
+    /** Track at the current index, or {@code null} if the queue is empty or finished. */
+    private AudioTrackMeta current() {
         if (tracks.isEmpty()) {
             isPlaying = false;
             log.warn("Queue is empty!");
-            return;
+            return null;
         }
 
         if (currentIndex >= tracks.size()) {
             isPlaying = false;
             log.info("End of queue reached.");
-            return;
+            return null;
         }
 
-        AudioTrack track = tracks.get(currentIndex).getEntity().makeClone();
         isPlaying = true;
+        return tracks.get(currentIndex);
+    }
+
+    /** Starts the given track; called without holding the monitor. */
+    private void play(AudioTrackMeta meta) {
+        if (meta == null) return;
+        AudioTrack track = meta.getEntity().makeClone();
         log.trace("Now playing: {} (by {})", track.getInfo().title, track.getInfo().author);
         if (track.getDuration() >= 1800000) { //TODO: Interrupt if RAM usage is too high
             log.warn("Ohh boy we got heavy one! Trying to load track over 30 minutes long: {} - {}", track.getInfo().author, track.getInfo().title);
-            PlayerController.getInstance().getListeners().forEach(l -> l.onHeavyLoadWarn(tracks.get(currentIndex), getPlayer()));
+            playerController.getListeners().forEach(l -> l.onHeavyLoadWarn(meta, getPlayer()));
         }
         getPlayer().playTrack(track);
     }
@@ -277,14 +222,22 @@ public class PlayerInstance extends ListenerAdapter {
     /** Advances to next track with optional override of repeat behavior. */
     public void playNext(boolean ignorePlayerMode) {
         PlayerMode localPlayerMode = ignorePlayerMode ? PlayerMode.NOTHING : playerMode;
+        AudioTrackMeta next;
+        synchronized (this) {
+            next = advance(localPlayerMode);
+        }
+        playOrFinish(next, localPlayerMode);
+    }
 
+    /** Moves the current index on and returns the track to play, {@code null} if there is none. */
+    private AudioTrackMeta advance(PlayerMode localPlayerMode) {
         switch (localPlayerMode) {
             case REPEAT_ONE -> {
                 log.info(
                     "Repeating track: {} (by {})",
                     tracks.get(currentIndex).getEntity().getInfo().title,
                     tracks.get(currentIndex).getEntity().getInfo().author);
-                playQueue();
+                return current();
             }
             case REPEAT_QUEUE -> {
                 currentIndex++;
@@ -292,69 +245,83 @@ public class PlayerInstance extends ListenerAdapter {
                     currentIndex = 0;
                     log.info("Restarting queue from beginning.");
                 }
-                playQueue();
+                return current();
             }
-            case NOTHING -> {
+            default -> {
                 currentIndex++;
-                if (currentIndex < tracks.size()) {
-                    playQueue();
-                } else {
-                    isPlaying = false;
-                    log.info("Queue finished.");
-                    playerController.getListeners().forEach(l -> l.onQueueFinished(getPlayer()));
-                }
+                if (currentIndex < tracks.size()) return current();
+                isPlaying = false;
+                log.info("Queue finished.");
+                return null;
             }
         }
     }
 
+    /** Plays the track picked by {@link #advance}, or reports the end of a non-repeating queue. */
+    private void playOrFinish(AudioTrackMeta next, PlayerMode localPlayerMode) {
+        if (next != null) {
+            play(next);
+        } else if (localPlayerMode == PlayerMode.NOTHING) {
+            playerController.getListeners().forEach(l -> l.onQueueFinished(getPlayer()));
+        }
+    }
+
     /** True if another track exists after current index. */
-    public boolean hasNext() {
+    public synchronized boolean hasNext() {
         return currentIndex < (tracks.size() - 1);
     }
 
     /** Plays previous track depending on repeat mode. */
     public void playPrevious() {
+        AudioTrackMeta next;
+        synchronized (this) {
+            next = previous();
+        }
+        play(next);
+    }
+
+    /** Moves the current index back and returns the track to play. */
+    private AudioTrackMeta previous() {
         PlayerMode localPlayerMode = playerMode;
         if (tracks.isEmpty()) {
             isPlaying = false;
             log.warn("Queue is empty!");
-            return;
+            return null;
         }
         switch (localPlayerMode) {
             case REPEAT_ONE, REPEAT_QUEUE -> {
                 currentIndex--;
                 if (currentIndex < 0) currentIndex = tracks.size() - 1;
-                playQueue();
             }
             case NOTHING -> {
-                if (currentIndex > 0) {
-                    currentIndex--;
-                    playQueue();
-                } else {
-                    // At the beginning: restart current
-                    playQueue();
-                }
+                // At the beginning the current track restarts
+                if (currentIndex > 0) currentIndex--;
             }
         }
+        return current();
     }
 
     /** Plays track at the given index if valid. */
     public void playAtIndex(int index) {
-        if (tracks.isEmpty()) {
-            isPlaying = false;
-            log.warn("Queue is empty!");
-            return;
-        }
-        if (index < 0 || index >= tracks.size()) {
-            log.warn("Index out of range: {} (size {})", index, tracks.size());
-            return;
+        AudioTrackMeta next;
+        synchronized (this) {
+            if (tracks.isEmpty()) {
+                isPlaying = false;
+                log.warn("Queue is empty!");
+                return;
+            }
+            if (index < 0 || index >= tracks.size()) {
+                log.warn("Index out of range: {} (size {})", index, tracks.size());
+                return;
+            }
+            currentIndex = index;
+            next = current();
         }
-        currentIndex = index;
-        playQueue();
+        play(next);
     }
 
     /** Removes an item from queue and adjusts the current index if needed. */
-    public void removeFromQueue(int index) {
+    public synchronized void removeFromQueue(int index) {
         if (index < 0 || index >= tracks.size()) return;
 
         tracks.remove(index);
@@ -364,37 +331,77 @@ public class PlayerInstance extends ListenerAdapter {
     }
 
     /** Removes a specific meta from queue. */
-    public void removeFromQueue(AudioTrackMeta track) {
+    public synchronized void removeFromQueue(AudioTrackMeta track) {
         int index = tracks.indexOf(track);
         if (index != -1) {
             removeFromQueue(index);
         }
     }
 
+    /** Moves a queued track to another position; the current index follows the current track. */
+    public synchronized void moveInQueue(int from, int to) {
+        if (from < 0 || from >= tracks.size() || to < 0 || to >= tracks.size()) return;
+
+        tracks.move(from, to);
+        if (currentIndex == from) {
+            currentIndex = to;
+        } else if (from < currentIndex && to >= currentIndex) {
+            currentIndex--;
+        } else if (from > currentIndex && to <= currentIndex) {
+            currentIndex++;
+        }
+    }
+
+    /** Shuffles the tracks after the current one. */
+    public synchronized void shuffleQueue() {
+        tracks.shuffle(Math.max(currentIndex + 1, 0), ThreadLocalRandom.current());
+    }
+
     /** Skips the current track (removes it) and plays next. */
     public void skip() {
-        playerController
-            .getListeners()
-            .forEach(
-                l -> {
-                    if (getPlayer().getPlayingTrack() != null)
-                        l.onTrackSkipped(
-                            fetchMetaFromEntity(getPlayer().getPlayingTrack().makeClone()), getPlayer());
-                });
+        AudioPlayer player = audioPlayer;
+        AudioTrack playing = player == null ? null : player.getPlayingTrack();
+        if (playing == null) return;
+        AudioTrackMeta skipped = fetchMetaFromEntity(playing);
+        playerController.getListeners().forEach(l -> l.onTrackSkipped(skipped, getPlayer()));
+        AudioTrackMeta next;
         try {
-            removeFromQueue(fetchMetaFromEntity(audioPlayer.getPlayingTrack()));
-            playNext(true);
+            synchronized (this) {
+                removeFromQueue(skipped);
+                next = advance(PlayerMode.NOTHING);
+            }
         } catch (Throwable e) {
             log.debug("Exception while skipping track", e);
+            return;
         }
+        playOrFinish(next, PlayerMode.NOTHING);
+    }
+
+    /** Whether nothing is loaded into the player, without creating one. */
+    public boolean isIdle() {
+        AudioPlayer player = audioPlayer;
+        return player == null || player.getPlayingTrack() == null;
+    }
+
+    /** Clears the queue and releases the underlying player for good. */
+    public void destroy() {
+        AudioPlayer player = reset();
+        if (player != null) player.destroy();
     }
 
     /** Clears queue and stops the underlying player. */
     public void clear() {
+        AudioPlayer player = reset();
+        if (player != null) player.stopTrack();
+    }
+
+    /** Empties the queue and detaches the audio player, which is returned for the caller to stop. */
+    private synchronized AudioPlayer reset() {
         tracks.clear();
         isPlaying = false;
         currentIndex = 0;
-        getPlayer().stopTrack();
+        AudioPlayer player = audioPlayer;
         audioPlayer = null;
+        return player;
     }
 }
@@ -0,0 +1,94 @@
+package ua.beengoo.uahub.bot.module.music.player;
+
+import com.sedmelluq.discord.lavaplayer.format.StandardAudioDataFormats;
+import com.sedmelluq.discord.lavaplayer.player.AudioConfiguration;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.player.DefaultAudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.source.AudioSourceManagers;
+import com.sedmelluq.discord.lavaplayer.source.soundcloud.SoundCloudAudioSourceManager;
+import com.sedmelluq.discord.lavaplayer.track.playback.NonAllocatingAudioFrameBuffer;
+import dev.lavalink.youtube.YoutubeAudioSourceManager;
+import dev.lavalink.youtube.YoutubeSourceOptions;
+import dev.lavalink.youtube.clients.*;
+import lombok.extern.slf4j.Slf4j;
+import ua.beengoo.uahub.bot.config.ConfigurationFile;
+
+/** Builds the LavaPlayer manager with the configured YouTube, SoundCloud and remote sources. */
+@Slf4j
+public final class PlayerManagerFactory {
+
+    private PlayerManagerFactory() {}
+
+    @SuppressWarnings("deprecation")
+    public static AudioPlayerManager create(ConfigurationFile config) {
+        AudioPlayerManager playerManager = new DefaultAudioPlayerManager();
+
+        playerManager
+            .getConfiguration()
+            .setResamplingQuality(AudioConfiguration.ResamplingQuality.MEDIUM);
+        playerManager.getConfiguration().setOutputFormat(StandardAudioDataFormats.DISCORD_OPUS);
+        // Frames are copied into the send handler's buffer, see PlayerSendHandler
+        playerManager.getConfiguration().setFrameBufferFactory(NonAllocatingAudioFrameBuffer::new);
+
+        // Create YouTube source manager with optional authentication
+        YoutubeAudioSourceManager youtube = createYoutubeSourceManager(config);
+        SoundCloudAudioSourceManager soundCloud = SoundCloudAudioSourceManager.createDefault();
+
+        playerManager.registerSourceManager(youtube);
+        playerManager.registerSourceManager(soundCloud);
+        AudioSourceManagers.registerRemoteSources(
+            playerManager,
+            com.sedmelluq.discord.lavaplayer.source.youtube.YoutubeAudioSourceManager.class);
+        return playerManager;
+    }
+
+    /**
+     * Creates YouTube source manager with OAuth authentication and remote cipher if configured.
+     * Prioritizes clients that return Opus formats to avoid AAC decoder issues.
+     */
+    private static YoutubeAudioSourceManager createYoutubeSourceManager(ConfigurationFile config) {
+        // Create options for YouTube source
+        YoutubeSourceOptions options = new YoutubeSourceOptions();
+
+        // Configure remote cipher if enabled
+        if (config.remoteCipher != null && config.remoteCipher.enabled) {
+            log.info("Using cipher server: {}", config.remoteCipher.url);
+            options.setRemoteCipherUrl(
+                config.remoteCipher.url,
+                config.remoteCipher.password
+            );
+        }
+
+        YoutubeAudioSourceManager youtube;
+
+        if (config.youtubeOAuth.enabled &&
+            config.youtubeOAuth.refreshToken != null &&
+            !config.youtubeOAuth.refreshToken.isEmpty()) {
+            try {
+                youtube = new YoutubeAudioSourceManager(
+                    options,
+                    new Tv(), new Web() // Miracle that it still works tbh
+                );
+
+                // Enable OAuth with refresh token
+                youtube.useOauth2(config.youtubeOAuth.refreshToken, true);
+
+                log.info("Applying Google Account credentials successfully!");
+                return youtube;
+
+            } catch (Exception e) {
+                log.error("Failed to configure Google Account for YouTube playback, falling back to guest mode", e);
+            }
+        }
+
+        log.info("Using YouTube in guest mode...");
+        youtube = new YoutubeAudioSourceManager(
+            options,
+            new Web(),
+            new AndroidMusic(),
+            new Music()
+        );
+
+        return youtube;
+    }
+}
@@ -0,0 +1,103 @@
+package ua.beengoo.uahub.bot.module.music.player;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Guild-keyed registry of music players.
+ *
+ * <p>Players are lightweight (queue, mode, owner and one {@link
+ * com.sedmelluq.discord.lavaplayer.player.AudioPlayer}); source managers, loader threads and HTTP
+ * clients live in the one {@link AudioPlayerManager} of the {@link TrackLoader}. Players that stay
+ * idle and disconnected are evicted.
+ */
+@Component
+@Slf4j
+public class PlayerRegistry {
+  private static final Duration IDLE_TTL = Duration.ofMinutes(10);
+
+  private final TrackLoader trackLoader;
+  private final ObjectProvider<JDA> jdaProvider;
+
+  private final Map<Long, PlayerController> players = new ConcurrentHashMap<>();
+  private final Map<Long, Long> idleSince = new ConcurrentHashMap<>();
+  private final List<Consumer<PlayerController>> createHooks = new CopyOnWriteArrayList<>();
+
+  public PlayerRegistry(TrackLoader trackLoader, ObjectProvider<JDA> jdaProvider) {
+    this.trackLoader = trackLoader;
+    this.jdaProvider = jdaProvider;
+  }
+
+  /** Player of a guild, created on first use. */
+  public PlayerController get(long guildId) {
+    return players.computeIfAbsent(
+        guildId,
+        id -> {
+          PlayerController created = new PlayerController(id, trackLoader);
+          createHooks.forEach(hook -> hook.accept(created));
+          return created;
+        });
+  }
+
+  /** Player of a guild if one exists. */
+  public Optional<PlayerController> find(long guildId) {
+    return Optional.ofNullable(players.get(guildId));
+  }
+
+  /** Runs for every player, existing and created later, e.g. to attach listeners. */
+  public void onCreate(Consumer<PlayerController> hook) {
+    createHooks.add(hook);
+    players.values().forEach(hook);
+  }
+
+  /** Number of live players. */
+  public int size() {
+    return players.size();
+  }
+
+  /** Evicts players that had nothing loaded and no voice connection for {@link #IDLE_TTL}. */
+  @Scheduled(fixedDelay = 60000)
+  public void evictIdle() {
+    long now = System.currentTimeMillis();
+    for (Map.Entry<Long, PlayerController> entry : players.entrySet()) {
+      long guildId = entry.getKey();
+      PlayerController player = entry.getValue();
+      if (!player.isIdle() || isConnected(guildId)) {
+        idleSince.remove(guildId);
+        continue;
+      }
+      long since = idleSince.computeIfAbsent(guildId, id -> now);
+      if (now - since < IDLE_TTL.toMillis()) continue;
+      if (players.remove(guildId, player)) {
+        idleSince.remove(guildId);
+        player.destroy();
+        log.debug("Evicted idle player of guild {}", guildId);
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    players.values().forEach(PlayerController::destroy);
+    players.clear();
+  }
+
+  private boolean isConnected(long guildId) {
+    JDA jda = jdaProvider.getIfAvailable();
+    Guild guild = jda != null ? jda.getGuildById(guildId) : null;
+    return guild != null && guild.getAudioManager().isConnected();
+  }
+}
@@ -1,28 +1,42 @@
 package ua.beengoo.uahub.bot.module.music.player;
 
-import com.sedmelluq.discord.lavaplayer.player.AudioPlayer;
-import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrameProvider;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
 import java.nio.ByteBuffer;
 import net.dv8tion.jda.api.audio.AudioSendHandler;
 
-/** Bridges LavaPlayer audio frames to JDA's {@link net.dv8tion.jda.api.audio.AudioSendHandler}. */
+/**
+ * Bridges LavaPlayer audio frames to JDA's {@link net.dv8tion.jda.api.audio.AudioSendHandler}.
+ *
+ * <p>Frames are copied into one {@link MutableAudioFrame} backed by a buffer owned by this
+ * handler, so sending audio allocates nothing per frame.
+ */
 public class PlayerSendHandler implements AudioSendHandler {
-  private final AudioPlayer audioPlayer;
-  private AudioFrame lastFrame;
+  /** Larger than any 20 ms Opus frame. */
+  static final int BUFFER_SIZE = 1024;
 
-  public PlayerSendHandler(AudioPlayer audioPlayer) {
+  private final AudioFrameProvider audioPlayer;
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private final MutableAudioFrame frame = new MutableAudioFrame();
+
+  /**
+   * @param audioPlayer source of frames, normally the guild's {@link
+   *     com.sedmelluq.discord.lavaplayer.player.AudioPlayer}
+   */
+  public PlayerSendHandler(AudioFrameProvider audioPlayer) {
     this.audioPlayer = audioPlayer;
+    frame.setBuffer(buffer);
   }
 
   @Override
   public boolean canProvide() {
-    lastFrame = audioPlayer.provide();
-    return lastFrame != null;
+    buffer.clear();
+    return audioPlayer.provide(frame);
   }
 
   @Override
   public ByteBuffer provide20MsAudio() {
-    return ByteBuffer.wrap(lastFrame.getData());
+    return buffer.flip();
   }
 
   @Override
@@ -0,0 +1,197 @@
+package ua.beengoo.uahub.bot.module.music.player;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioPlaylist;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import com.sedmelluq.discord.lavaplayer.track.BasicAudioPlaylist;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ua.beengoo.uahub.bot.HubBot;
+import ua.beengoo.uahub.bot.helper.cache.LruCache;
+
+/**
+ * Owner of the single {@link AudioPlayerManager} of the bot.
+ *
+ * <p>Players, /play previews and search autocomplete all load through here, so YouTube clients,
+ * HTTP connection pools and loader threads are built once and reused. Item loading runs on a
+ * bounded pool of {@link #LOADER_THREADS} threads; the manager is shut down with the context.
+ *
+ * <p>{@link #resolve(String)} keeps resolved tracks as prototypes for {@link #CACHE_TTL} in an LRU
+ * cache and coalesces concurrent loads of the same query into one request. Callers always get
+ * clones, prototypes are never played.
+ */
+@Component
+@Slf4j
+public class TrackLoader {
+  /** Concurrent item loads; further loads wait in the manager's queue. */
+  static final int LOADER_THREADS = 4;
+
+  static final int CACHE_SIZE = 512;
+  static final Duration CACHE_TTL = Duration.ofMinutes(30);
+
+  private final AudioPlayerManager playerManager;
+  private final LruCache<String, CachedItem> cache = new LruCache<>(CACHE_SIZE);
+  private final Map<String, CompletableFuture<LoadedItem>> inFlight = new ConcurrentHashMap<>();
+
+  @Autowired
+  public TrackLoader() {
+    this(PlayerManagerFactory.create(HubBot.getConfig()));
+  }
+
+  TrackLoader(AudioPlayerManager playerManager) {
+    this.playerManager = playerManager;
+    playerManager.setItemLoaderThreadPoolSize(LOADER_THREADS);
+  }
+
+  /** Shared manager, used to create audio players. */
+  public AudioPlayerManager manager() {
+    return playerManager;
+  }
+
+  /** Loads an identifier (URL or {@code ytsearch:}/{@code scsearch:} query) with a callback. */
+  public void load(String identifier, AudioLoadResultHandler handler) {
+    playerManager.loadItem(identifier, handler);
+  }
+
+  /**
+   * Resolves a query or URL, from the cache when possible.
+   *
+   * @return future with fresh clones of the resolved item, an empty item when nothing matched, or
+   *     failed with the {@link FriendlyException} of the source. Empty and failed results are not
+   *     cached.
+   */
+  public CompletableFuture<LoadedItem> resolve(String query) {
+    String key = normalize(query);
+    CachedItem cached = cache.get(key);
+    if (cached != null) {
+      if (System.currentTimeMillis() - cached.loadedAt() < CACHE_TTL.toMillis()) {
+        return CompletableFuture.completedFuture(cached.item().cloned());
+      }
+      cache.remove(key);
+    }
+
+    CompletableFuture<LoadedItem> created = new CompletableFuture<>();
+    CompletableFuture<LoadedItem> pending = inFlight.putIfAbsent(key, created);
+    if (pending == null) {
+      pending = created;
+      load(query)
+          .whenComplete(
+              (item, e) -> {
+                if (e == null && !item.isEmpty()) {
+                  cache.put(key, new CachedItem(System.currentTimeMillis(), item));
+                }
+                inFlight.remove(key, created);
+                if (e != null) created.completeExceptionally(e);
+                else created.complete(item);
+              });
+    }
+    return pending.thenApply(LoadedItem::cloned);
+  }
+
+  /** Drops all cached tracks. */
+  public void invalidateAll() {
+    cache.clear();
+  }
+
+  /** Number of cached items. */
+  public int cacheSize() {
+    return cache.size();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    log.info("Shutting down audio player manager");
+    playerManager.shutdown();
+  }
+
+  /** Loads an identifier without the cache. */
+  private CompletableFuture<LoadedItem> load(String identifier) {
+    CompletableFuture<LoadedItem> future = new CompletableFuture<>();
+    playerManager.loadItem(
+        identifier,
+        new AudioLoadResultHandler() {
+          @Override
+          public void trackLoaded(AudioTrack track) {
+            future.complete(new LoadedItem(track, null));
+          }
+
+          @Override
+          public void playlistLoaded(AudioPlaylist playlist) {
+            future.complete(new LoadedItem(null, playlist));
+          }
+
+          @Override
+          public void noMatches() {
+            future.complete(LoadedItem.EMPTY);
+          }
+
+          @Override
+          public void loadFailed(FriendlyException e) {
+            future.completeExceptionally(e);
+          }
+        });
+    return future;
+  }
+
+  /**
+   * Cache key of a query: trimmed, and lower-cased unless it is a URL, whose path and parameters
+   * may be case-sensitive.
+   */
+  static String normalize(String query) {
+    String key = query.strip();
+    if (key.startsWith("http://") || key.startsWith("https://")) return key;
+    return key.toLowerCase(Locale.ROOT);
+  }
+
+  private record CachedItem(long loadedAt, LoadedItem item) {}
+
+  /**
+   * Result of one load: a single track, a playlist (search results included), or neither when
+   * nothing matched.
+   */
+  public record LoadedItem(AudioTrack track, AudioPlaylist playlist) {
+    static final LoadedItem EMPTY = new LoadedItem(null, null);
+
+    public boolean isEmpty() {
+      return track == null && (playlist == null || playlist.getTracks().isEmpty());
+    }
+
+    public boolean isPlaylist() {
+      return playlist != null;
+    }
+
+    /** The loaded track, or the tracks of the playlist. */
+    public List<AudioTrack> tracks() {
+      if (playlist != null) return playlist.getTracks();
+      return track != null ? List.of(track) : List.of();
+    }
+
+    /** Copy with fresh track clones, which can be played independently of this one. */
+    LoadedItem cloned() {
+      if (track != null) return new LoadedItem(track.makeClone(), null);
+      if (playlist == null) return this;
+      List<AudioTrack> source = playlist.getTracks();
+      List<AudioTrack> clones = new ArrayList<>(source.size());
+      AudioTrack selected = null;
+      for (AudioTrack t : source) {
+        AudioTrack clone = t.makeClone();
+        if (t == playlist.getSelectedTrack()) selected = clone;
+        clones.add(clone);
+      }
+      return new LoadedItem(
+          null,
+          new BasicAudioPlaylist(playlist.getName(), clones, selected, playlist.isSearchResult()));
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package ua.beengoo.uahub.bot.module.music.player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Bounded play queue: a ring buffer of {@link AudioTrackMeta} plus an index by track identifier.
+ *
+ * <p>Appending, evicting the oldest entry, positional reads and lookups by identifier are O(1).
+ * Removing or moving an entry shifts only the entries between the two positions (or to the nearer
+ * end), which at the queue cap of about a thousand entries is a short copy within one array. Each
+ * identifier is queued at most once; entries without an identifier are not indexed. Not
+ * thread-safe; {@link PlayerInstance} guards its queue with its own monitor.
+ */
+public final class TrackQueue {
+  private final AudioTrackMeta[] slots;
+  private final Map<String, AudioTrackMeta> byIdentifier;
+  private int head;
+  private int size;
+
+  public TrackQueue(int capacity) {
+    if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+    this.slots = new AudioTrackMeta[capacity];
+    this.byIdentifier = new HashMap<>(capacity * 4 / 3 + 1);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int capacity() {
+    return slots.length;
+  }
+
+  public boolean isFull() {
+    return size == slots.length;
+  }
+
+  /** Entry at a 0-based queue position. */
+  public AudioTrackMeta get(int index) {
+    checkIndex(index);
+    return slots[slot(index)];
+  }
+
+  /** Queued entry with the given track identifier, or {@code null}. */
+  public AudioTrackMeta find(String identifier) {
+    return identifier == null ? null : byIdentifier.get(identifier);
+  }
+
+  public boolean contains(String identifier) {
+    return identifier != null && byIdentifier.containsKey(identifier);
+  }
+
+  /**
+   * Appends an entry, evicting the oldest one when the queue is full.
+   *
+   * @return {@code false} if an entry with the same identifier is already queued
+   */
+  public boolean add(AudioTrackMeta meta) {
+    String id = identifier(meta);
+    if (id != null && byIdentifier.containsKey(id)) return false;
+    if (isFull()) removeFirst();
+    slots[slot(size)] = meta;
+    size++;
+    if (id != null) byIdentifier.put(id, meta);
+    return true;
+  }
+
+  /** Removes and returns the oldest entry, or {@code null} if empty. */
+  public AudioTrackMeta removeFirst() {
+    if (size == 0) return null;
+    AudioTrackMeta removed = slots[head];
+    slots[head] = null;
+    head = (head + 1) % slots.length;
+    size--;
+    unindex(removed);
+    return removed;
+  }
+
+  /** Removes and returns the entry at a position; later entries move up by one. */
+  public AudioTrackMeta remove(int index) {
+    checkIndex(index);
+    AudioTrackMeta removed = slots[slot(index)];
+    if (index < size / 2) {
+      // Nearer to the front: shift the entries before it back and advance the head
+      for (int i = index; i > 0; i--) slots[slot(i)] = slots[slot(i - 1)];
+      slots[head] = null;
+      head = (head + 1) % slots.length;
+    } else {
+      for (int i = index; i < size - 1; i++) slots[slot(i)] = slots[slot(i + 1)];
+      slots[slot(size - 1)] = null;
+    }
+    size--;
+    unindex(removed);
+    return removed;
+  }
+
+  /** Position of an entry (by identity), or -1. */
+  public int indexOf(AudioTrackMeta meta) {
+    for (int i = 0; i < size; i++) {
+      if (slots[slot(i)] == meta) return i;
+    }
+    return -1;
+  }
+
+  /** Moves the entry at {@code from} to position {@code to}, shifting the entries in between. */
+  public void move(int from, int to) {
+    checkIndex(from);
+    checkIndex(to);
+    AudioTrackMeta moved = slots[slot(from)];
+    if (from < to) {
+      for (int i = from; i < to; i++) slots[slot(i)] = slots[slot(i + 1)];
+    } else {
+      for (int i = from; i > to; i--) slots[slot(i)] = slots[slot(i - 1)];
+    }
+    slots[slot(to)] = moved;
+  }
+
+  /** Shuffles the entries from position {@code from} (inclusive) to the end. */
+  public void shuffle(int from, Random random) {
+    for (int i = size - 1; i > from; i--) {
+      int j = from + random.nextInt(i - from + 1);
+      int a = slot(i);
+      int b = slot(j);
+      AudioTrackMeta tmp = slots[a];
+      slots[a] = slots[b];
+      slots[b] = tmp;
+    }
+  }
+
+  public void clear() {
+    for (int i = 0; i < size; i++) slots[slot(i)] = null;
+    head = 0;
+    size = 0;
+    byIdentifier.clear();
+  }
+
+  /** Entries in queue order, as a copy. */
+  public List<AudioTrackMeta> toList() {
+    List<AudioTrackMeta> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) list.add(slots[slot(i)]);
+    return list;
+  }
+
+  private void unindex(AudioTrackMeta meta) {
+    String id = identifier(meta);
+    if (id != null) byIdentifier.remove(id, meta);
+  }
+
+  private int slot(int index) {
+    int s = head + index;
+    return s < slots.length ? s : s - slots.length;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+  }
+
+  private static String identifier(AudioTrackMeta meta) {
+    return meta.getEntity() != null ? meta.getEntity().getIdentifier() : null;
+  }
+}
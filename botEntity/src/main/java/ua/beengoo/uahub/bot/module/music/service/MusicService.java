@@ -15,7 +15,6 @@ import ua.beengoo.uahub.bot.layout.message.Embed;
 import ua.beengoo.uahub.bot.module.music.player.*;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * Spring-managed facade around the music player to enable control from both Discord commands and
@@ -24,18 +23,19 @@ import java.util.concurrent.CompletableFuture;
 @Service
 public class MusicService {
 
-  private final RuntimeListener runtimeListener = new RuntimeListener();
   private final MusicSettingsService settingsService;
+  private final PlayerRegistry playerRegistry;
 
-  public MusicService(MusicSettingsService settingsService) {
+  public MusicService(MusicSettingsService settingsService, PlayerRegistry playerRegistry) {
     this.settingsService = settingsService;
-    PlayerController.getInstance().addListener(runtimeListener);
+    this.playerRegistry = playerRegistry;
+    playerRegistry.onCreate(player -> player.addListener(new RuntimeListener(player)));
   }
 
   /** Ensure audio handlers are set and connect the guild to a channel. */
   public void connect(Guild guild, AudioChannel channel) {
     if (guild == null || channel == null) return;
-    PlayerController.getInstance().prepareHandlers(guild.getAudioManager());
+    player(guild).prepareHandlers(guild.getAudioManager());
     guild.getAudioManager().openAudioConnection(channel);
   }
 
@@ -43,157 +43,86 @@ public class MusicService {
   public void playQuery(Guild guild, Member requester, String query) {
     if (guild == null || requester == null || requester.getVoiceState() == null) return;
     connect(guild, requester.getVoiceState().getChannel());
+    PlayerController player = player(guild);
     boolean setOwner = false;
-    if (PlayerAccess.getOwnerId() == null) {
-      PlayerAccess.setOwnerId(requester.getIdLong());
+    if (player.getOwnerId() == null) {
+      player.setOwnerId(requester.getIdLong());
       setOwner = true;
     }
-    runtimeListener.setLastRequester(requester);
-    PlayerController.getInstance().requestToQueue(List.of(query));
-    if (setOwner) applySavedSettings(requester.getIdLong());
+    player.setLastRequester(requester);
+    player.requestToQueue(List.of(query));
+    if (setOwner) applySavedSettings(player, requester.getIdLong());
   }
 
   /** Add a playlist (already materialized to queries) to queue. */
   public void playPlaylist(Guild guild, Member requester, List<String> queries, boolean replace) {
       if (guild == null || requester == null || requester.getVoiceState() == null) return;
       connect(guild, requester.getVoiceState().getChannel());
+      PlayerController player = player(guild);
       boolean setOwner = false;
-      if (PlayerAccess.getOwnerId() == null) {
-          PlayerAccess.setOwnerId(requester.getIdLong());
+      if (player.getOwnerId() == null) {
+          player.setOwnerId(requester.getIdLong());
           setOwner = true;
       }
-      runtimeListener.setLastRequester(requester);
+      player.setLastRequester(requester);
       if (replace) {
-          PlayerController.getInstance().clean();
-          PlayerController.getInstance().requestToQueue(queries);
-          PlayerController.getInstance().playNext();
+          player.clean();
+          player.requestToQueue(queries);
+          player.playNext();
       } else {
-          PlayerController.getInstance().requestToQueue(queries);
+          player.requestToQueue(queries);
       }
-      if (setOwner) applySavedSettings(requester.getIdLong());
+      if (setOwner) applySavedSettings(player, requester.getIdLong());
   }
 
-  private void applySavedSettings(long discordId) {
-    settingsService
-        .getSavedRepeatMode(discordId)
-        .ifPresent(mode -> PlayerController.getInstance().setPlayerMode(mode));
+  private void applySavedSettings(PlayerController player, long discordId) {
+    settingsService.getSavedRepeatMode(discordId).ifPresent(player::setPlayerMode);
   }
 
-  /** Basic transport controls exposed for other layers. */
-  public void pause(boolean val) {
-    PlayerController.getInstance().setPaused(val);
+  /** Player of a guild, created on first use. */
+  public PlayerController player(Guild guild) {
+    return playerRegistry.get(guild.getIdLong());
   }
 
-  public void skip() {
-    PlayerController.getInstance().skip();
+  /** Basic transport controls exposed for other layers. */
+  public void pause(Guild guild, boolean val) {
+    player(guild).setPaused(val);
   }
 
-  public void next() {
-    PlayerController.getInstance().next();
+  public void skip(Guild guild) {
+    player(guild).skip();
   }
 
-  public void previous() {
-    PlayerController.getInstance().previous();
+  public void next(Guild guild) {
+    player(guild).next();
   }
 
-  public void stop(Guild guild) {
-    PlayerController.getInstance().clean();
-    if (guild != null) guild.getAudioManager().closeAudioConnection();
-    PlayerAccess.clearOwner();
+  public void previous(Guild guild) {
+    player(guild).previous();
   }
 
-  /**
-   * Returns a future that completes when the next queue addition (track or playlist) happens for
-   * the given requester
-   */
-  public CompletableFuture<QueueAddInfo> awaitQueueAddFor(long requesterId) {
-    CompletableFuture<QueueAddInfo> fut =
-        new CompletableFuture<>();
-    PlayerInstanceListener listener =
-        new PlayerInstanceListener() {
-          @Override
-          public void onPlaylistLoaded(
-              AudioPlaylist playlist, AudioPlayer player) {
-
-          }
-
-          @Override
-          public void onSearchFailed(AudioPlayer player) {}
-
-          @Override
-          public void onLoadFailed(FriendlyException e, AudioPlayer player) {}
-
-          @Override
-          public void onTrackPlaying(AudioTrackMeta track, AudioPlayer player) {}
-
-          @Override
-          public void onTrackEnd(
-              AudioTrackMeta track, AudioTrackEndReason endReason, AudioPlayer player) {}
-
-          @Override
-          public void onTrackSkipped(AudioTrackMeta track, AudioPlayer player) {}
-
-          @Override
-          public void onTrackQueueAdded(AudioTrackMeta track, AudioPlayer player) {
-            if (track != null
-                && track.getEntityOwner() != null
-                && track.getEntityOwner().getIdLong() == requesterId) {
-              fut.complete(new QueueAddInfo(false, track, null, false));
-            }
-          }
-
-          @Override
-          public void onPlaylistQueueAdded(AudioPlaylistMeta playlist, AudioPlayer player) {
-            if (playlist != null
-                && playlist.getEntityOwner() != null
-                && playlist.getEntityOwner().getIdLong() == requesterId) {
-                fut.complete(new QueueAddInfo(true, null, playlist, playlist.isSearchResult()));
-            }
-          }
-
-          @Override
-          public void onTrackLoaded(
-              com.sedmelluq.discord.lavaplayer.track.AudioTrack track, AudioPlayer player) {}
-
-          @Override
-          public void onPlayerModeChanged(
-              PlayerMode modeBefore, PlayerMode modeAfter, AudioPlayer player) {}
-
-          @Override
-          public void onQueueFinished(AudioPlayer player) {}
-
-            @Override
-            public void onSearchLoaded(AudioPlaylist audioPlaylist, AudioPlayer player) {
-
-            }
-
-            @Override
-            public void onHeavyLoadWarn(AudioTrackMeta track, AudioPlayer player) {
-
-            }
-        };
-    PlayerController.getInstance().addListener(listener);
-    fut.whenComplete((r, e) -> PlayerController.getInstance().removeListener(listener));
-    return fut;
+  public void stop(Guild guild) {
+    if (guild == null) return;
+    PlayerController player = player(guild);
+    player.clean();
+    guild.getAudioManager().closeAudioConnection();
+    player.setOwnerId(null);
   }
 
-  /** Info about what was added to the queue for a requester. */
-  public record QueueAddInfo(
-      boolean playlist, AudioTrackMeta track, AudioPlaylistMeta playlistMeta, boolean searchResult) {}
-
+  /** Queues loaded tracks and advances the queue of one guild's player. */
   private static class RuntimeListener implements PlayerInstanceListener {
-    private Member lastRequester;
+    private final PlayerController controller;
 
-    public void setLastRequester(Member m) {
-      this.lastRequester = m;
+    private RuntimeListener(PlayerController controller) {
+      this.controller = controller;
     }
 
     @Override
     public void onPlaylistLoaded(
         AudioPlaylist playlist,
         AudioPlayer player) {
-      PlayerController.getInstance().addToQueue(new AudioPlaylistMeta(playlist, lastRequester));
-      if (!PlayerController.getInstance().isPlaying()) PlayerController.getInstance().playQueue();
+      controller.addToQueue(new AudioPlaylistMeta(playlist, controller.getLastRequester()));
+      if (!controller.isPlaying()) controller.playQueue();
     }
 
     @Override
@@ -203,6 +132,9 @@ public class MusicService {
     public void onLoadFailed(
         FriendlyException e,
         AudioPlayer player) {
+        Member lastRequester = controller.getLastRequester();
+        if (lastRequester == null || lastRequester.getVoiceState() == null
+            || lastRequester.getVoiceState().getChannel() == null) return;
         Message msg = lastRequester.getVoiceState().getChannel().asGuildMessageChannel().sendMessageEmbeds(
             Embed.getError().setTitle("Unable to load track").setDescription("""
                 Due to platforms restrictions player might break sometimes, its totally expected to happen.
@@ -234,10 +166,10 @@ public class MusicService {
         AudioTrackEndReason endReason,
         AudioPlayer player) {
         if (endReason.equals(AudioTrackEndReason.LOAD_FAILED)){
-            PlayerController.getInstance().removeFromQueue(track);
+            controller.removeFromQueue(track);
             return;
         }
-        if (endReason.mayStartNext) PlayerController.getInstance().playNext();
+        if (endReason.mayStartNext) controller.playNext();
     }
 
     @Override
@@ -256,8 +188,8 @@ public class MusicService {
         public void onTrackLoaded(
             AudioTrack track,
             AudioPlayer player) {
-            PlayerController.getInstance().addToQueue(new AudioTrackMeta(track, lastRequester));
-            if (!PlayerController.getInstance().isPlaying()) PlayerController.getInstance().playQueue();
+            controller.addToQueue(new AudioTrackMeta(track, controller.getLastRequester()));
+            if (!controller.isPlaying()) controller.playQueue();
         }
 
         @Override
@@ -1,16 +1,25 @@
 package ua.beengoo.uahub.bot.module.music.vote;
 
+import java.time.Duration;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
-import net.dv8tion.jda.api.hooks.ListenerAdapter;
-import org.jetbrains.annotations.NotNull;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import ua.beengoo.uahub.bot.helper.interaction.InteractionHandler;
+import ua.beengoo.uahub.bot.helper.interaction.InteractionRouter;
 
+/** Handles vote buttons, routed by the {@code vote:} component id prefix. */
 @Component
-public class VoteListener extends ListenerAdapter {
+public class VoteListener implements InteractionHandler {
+  /** Votes without a result after this long are closed as failed. */
+  private static final Duration VOTE_TTL = Duration.ofMinutes(10);
+
+  public VoteListener(InteractionRouter router) {
+    router.bindPrefix("vote", this);
+  }
+
   @Override
-  public void onButtonInteraction(@NotNull ButtonInteractionEvent event) {
+  public void onButtonInteraction(ButtonInteractionEvent event) {
     String id = event.getComponentId();
-    if (id == null) return;
     if (id.startsWith("vote:yes:")) {
       String voteId = id.substring("vote:yes:".length());
       VoteManager.addYes(voteId, event.getMember());
@@ -21,4 +30,9 @@ public class VoteListener extends ListenerAdapter {
       event.deferEdit().queue();
     }
   }
+
+  @Scheduled(fixedDelay = 60000)
+  public void expireVotes() {
+    VoteManager.expireOlderThan(VOTE_TTL);
+  }
 }
@@ -1,5 +1,6 @@
 package ua.beengoo.uahub.bot.module.music.vote;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -209,6 +210,14 @@ public class VoteManager {
     }
   }
 
+  /** Closes votes started more than {@code ttl} ago as failed and forgets them. */
+  public static void expireOlderThan(Duration ttl) {
+    Instant cutoff = Instant.now().minus(ttl);
+    for (Vote v : votes.values()) {
+      if (v.createdAt().isBefore(cutoff)) complete(v, false);
+    }
+  }
+
   private static void update(Vote v, int yes) {
     try {
       v.message()
@@ -97,6 +97,7 @@ public class PermsGroupCommand {
         boolean def = Boolean.parseBoolean(p1);
         group.setDefaultGroup(def);
         groupRepo.save(group);
+        permissionService.invalidateAll();
         event.reply(
             Embed.getInfo()
                 .setTitle(Lang.get("perms.group.set_default.title"))
@@ -124,6 +125,7 @@ public class PermsGroupCommand {
         gp.setAllowed(allow);
         group.getPermissions().add(gp);
         groupRepo.save(group);
+        permissionService.invalidateGroup(group);
         event.reply(
             Embed.getInfo()
                 .setTitle(Lang.get("perms.group.node.added.title"))
@@ -148,6 +150,7 @@ public class PermsGroupCommand {
         }
         boolean removed = group.getPermissions().removeIf(x -> x.getNode().equalsIgnoreCase(p1));
         groupRepo.save(group);
+        permissionService.invalidateGroup(group);
         event.reply(
             (removed ? Embed.getInfo() : Embed.getWarn())
                 .setTitle(Lang.get("perms.group.node.removed.title"))
@@ -177,8 +180,18 @@ public class PermsGroupCommand {
                   .setDescription(p1));
           return;
         }
+        if (permissionService.wouldCreateCycle(group, parent)) {
+          event.reply(
+              Embed.getError()
+                  .setTitle(Lang.get("perms.group.parent.cycle.title"))
+                  .setDescription(
+                      Lang.get("perms.group.parent.cycle.desc")
+                          .formatted(parent.getName(), groupName)));
+          return;
+        }
         group.getParents().add(parent);
         groupRepo.save(group);
+        permissionService.invalidateGroup(group);
         event.reply(
             Embed.getInfo()
                 .setTitle(Lang.get("perms.group.parent.added.title"))
@@ -203,6 +216,7 @@ public class PermsGroupCommand {
         }
         boolean removed = group.getParents().removeIf(x -> x.getName().equalsIgnoreCase(p1));
         groupRepo.save(group);
+        permissionService.invalidateGroup(group);
         event.reply(
             (removed ? Embed.getInfo() : Embed.getWarn())
                 .setTitle(Lang.get("perms.group.parent.removed.title"))
@@ -228,6 +242,7 @@ public class PermsGroupCommand {
           int w = Integer.parseInt(p1);
           group.setWeight(w);
           groupRepo.save(group);
+          permissionService.invalidateGroup(group);
           event.reply(
               Embed.getInfo()
                   .setTitle(Lang.get("perms.group.weight.updated.title"))
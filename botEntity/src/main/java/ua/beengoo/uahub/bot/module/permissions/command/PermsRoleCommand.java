@@ -80,6 +80,7 @@ public class PermsRoleCommand {
         }
         mapping.getGroups().add(group);
         roleRepo.save(mapping);
+        permissionService.invalidateRole(rid);
         event.reply(
             Embed.getInfo()
                 .setTitle(Lang.get("perms.role.mapping.added.title"))
@@ -99,6 +100,7 @@ public class PermsRoleCommand {
         boolean removed =
             mapping.getGroups().removeIf(g -> g.getName().equalsIgnoreCase(groupName));
         roleRepo.save(mapping);
+        permissionService.invalidateRole(rid);
         event.reply(
             (removed ? Embed.getInfo() : Embed.getWarn())
                 .setTitle(Lang.get("perms.role.mapping.removed.title"))
@@ -91,6 +91,7 @@ public class PermsUserCommand {
         }
         mp.getGroups().add(g);
         memberController.updateMember(sm);
+        permissionService.invalidateUser(uid);
         event.reply(
             Embed.getInfo()
                 .setTitle(Lang.get("perms.user.group.added.title"))
@@ -108,6 +109,7 @@ public class PermsUserCommand {
         }
         boolean removed = mp.getGroups().removeIf(x -> x.getName().equalsIgnoreCase(p1));
         memberController.updateMember(sm);
+        permissionService.invalidateUser(uid);
         event.reply(
             (removed ? Embed.getInfo() : Embed.getWarn())
                 .setTitle(Lang.get("perms.user.group.removed.title"))
@@ -130,6 +132,7 @@ public class PermsUserCommand {
         node.setAllowed(allow);
         mp.getNodes().add(node);
         memberController.updateMember(sm);
+        permissionService.invalidateUser(uid);
         event.reply(
             Embed.getInfo()
                 .setTitle(Lang.get("perms.user.node.added.title"))
@@ -147,6 +150,7 @@ public class PermsUserCommand {
         }
         boolean removed = mp.getNodes().removeIf(x -> x.getNode().equalsIgnoreCase(p1));
         memberController.updateMember(sm);
+        permissionService.invalidateUser(uid);
         event.reply(
             (removed ? Embed.getInfo() : Embed.getWarn())
                 .setTitle(Lang.get("perms.user.node.removed.title"))
@@ -0,0 +1,49 @@
+package ua.beengoo.uahub.bot.module.permissions.data;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Effective permission nodes of one member and role set, resolved once and checked many times.
+ *
+ * <p>An exact node wins, otherwise the most specific matching wildcard decides (see {@link
+ * NodeTrie}), otherwise the node is denied.
+ */
+public final class CompiledPermissions {
+  private final Map<String, Boolean> exact;
+  private final NodeTrie wildcards;
+  private final Set<Long> groupIds;
+
+  private CompiledPermissions(Map<String, Boolean> exact, NodeTrie wildcards, Set<Long> groupIds) {
+    this.exact = exact;
+    this.wildcards = wildcards;
+    this.groupIds = groupIds;
+  }
+
+  /**
+   * @param resolved node to allowed, after weight and user overrides were applied
+   * @param groupIds ids of every group that contributed, including inherited ones
+   */
+  public static CompiledPermissions of(LinkedHashMap<String, Boolean> resolved, Set<Long> groupIds) {
+    NodeTrie wildcards = new NodeTrie();
+    for (Map.Entry<String, Boolean> e : resolved.entrySet()) {
+      if (e.getKey().endsWith("*")) wildcards.put(e.getKey(), e.getValue());
+    }
+    return new CompiledPermissions(new HashMap<>(resolved), wildcards, Set.copyOf(groupIds));
+  }
+
+  /** Whether the node is allowed. */
+  public boolean check(String node) {
+    Boolean allowed = exact.get(node);
+    if (allowed != null) return allowed;
+    allowed = wildcards.match(node);
+    return allowed != null && allowed;
+  }
+
+  /** Whether the given group took part in the resolution. */
+  public boolean dependsOnGroup(long groupId) {
+    return groupIds.contains(groupId);
+  }
+}
@@ -0,0 +1,56 @@
+package ua.beengoo.uahub.bot.module.permissions.data;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Effective nodes of one permission group including everything it inherits from its parents.
+ *
+ * <p>Each node keeps the weight of the group that decided it, so resolving a member is a merge of
+ * a few flattened groups instead of a walk over the inheritance graph.
+ */
+public final class FlatGroup {
+  private final Map<String, WeightedNode> nodes;
+  private final Set<Long> groupIds;
+
+  /**
+   * @param nodes node to the deciding entry, already resolved within the group and its parents
+   * @param groupIds ids of the group and all of its ancestors
+   */
+  public FlatGroup(Map<String, WeightedNode> nodes, Set<Long> groupIds) {
+    this.nodes = Map.copyOf(nodes);
+    this.groupIds = Set.copyOf(groupIds);
+  }
+
+  /** Merges the nodes into a target map; an entry replaces an existing one it overrides. */
+  public void mergeInto(Map<String, WeightedNode> target) {
+    for (Map.Entry<String, WeightedNode> e : nodes.entrySet()) {
+      target.merge(e.getKey(), e.getValue(), (old, cur) -> cur.overrides(old) ? cur : old);
+    }
+  }
+
+  /** Ids of the group and all of its ancestors. */
+  public Set<Long> groupIds() {
+    return groupIds;
+  }
+
+  /** Whether the group inherits from, or is, the given group. */
+  public boolean dependsOnGroup(long groupId) {
+    return groupIds.contains(groupId);
+  }
+
+  /**
+   * A node value together with the group that set it.
+   *
+   * @param weight weight of the deciding group
+   * @param order tie-breaker between groups of equal weight, the group id
+   * @param allowed whether the node is granted
+   */
+  public record WeightedNode(int weight, long order, boolean allowed) {
+    /** Higher weight wins; equal weights are decided by the higher group id. */
+    public boolean overrides(WeightedNode other) {
+      if (weight != other.weight) return weight > other.weight;
+      return order > other.order;
+    }
+  }
+}
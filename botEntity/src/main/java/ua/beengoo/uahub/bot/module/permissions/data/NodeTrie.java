@@ -0,0 +1,72 @@
+package ua.beengoo.uahub.bot.module.permissions.data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Segment trie of wildcard permission nodes over dot-separated segments.
+ *
+ * <p>{@code music.*} matches every node below {@code music}, {@code music.pl*} matches nodes whose
+ * next segment starts with {@code pl} (including {@code music.pl} itself) and {@code *} matches
+ * everything. A lookup walks the target's segments once, so it is O(depth), and the most specific
+ * wildcard wins: a deeper one over a shallower one, a partial segment over a whole one, a longer
+ * partial over a shorter one.
+ */
+public final class NodeTrie {
+  private final Node root = new Node();
+
+  /** Adds or replaces a wildcard node, which must end with {@code *}. */
+  public void put(String wildcard, boolean allowed) {
+    if (!wildcard.endsWith("*")) {
+      throw new IllegalArgumentException("Not a wildcard node: " + wildcard);
+    }
+    String body = wildcard.substring(0, wildcard.length() - 1);
+    int lastDot = body.lastIndexOf('.');
+    Node node = root;
+    int start = 0;
+    while (start <= lastDot) {
+      int dot = body.indexOf('.', start);
+      node = node.children.computeIfAbsent(body.substring(start, dot), k -> new Node());
+      start = dot + 1;
+    }
+    String partial = body.substring(lastDot + 1);
+    if (partial.isEmpty()) {
+      node.whole = allowed;
+    } else {
+      if (node.partials == null) node.partials = new HashMap<>();
+      node.partials.put(partial, allowed);
+    }
+  }
+
+  /** Decision of the most specific matching wildcard, or {@code null} when none matches. */
+  public Boolean match(String target) {
+    Boolean best = null;
+    Node node = root;
+    int start = 0;
+    while (node != null && start <= target.length()) {
+      int dot = target.indexOf('.', start);
+      String segment = dot < 0 ? target.substring(start) : target.substring(start, dot);
+      // A whole-segment wildcard only covers nodes below it
+      if (node.whole != null && !segment.isEmpty()) best = node.whole;
+      if (node.partials != null) {
+        int bestLength = 0;
+        for (Map.Entry<String, Boolean> p : node.partials.entrySet()) {
+          if (p.getKey().length() > bestLength && segment.startsWith(p.getKey())) {
+            best = p.getValue();
+            bestLength = p.getKey().length();
+          }
+        }
+      }
+      if (dot < 0) break;
+      node = node.children.get(segment);
+      start = dot + 1;
+    }
+    return best;
+  }
+
+  private static final class Node {
+    private final Map<String, Node> children = new HashMap<>();
+    private Boolean whole;
+    private Map<String, Boolean> partials;
+  }
+}
@@ -1,5 +1,7 @@
 package ua.beengoo.uahub.bot.module.permissions.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -9,4 +11,7 @@ import ua.beengoo.uahub.bot.module.permissions.model.RolePermissionMapping;
 public interface RolePermissionMappingRepo extends JpaRepository<RolePermissionMapping, Long> {
   /** Find mapping for a Discord role id. */
   Optional<RolePermissionMapping> findByRoleId(long roleId);
+
+  /** Find mappings of several Discord role ids in one query. */
+  List<RolePermissionMapping> findByRoleIdIn(Collection<Long> roleIds);
 }
@@ -12,9 +12,11 @@ import ua.beengoo.uahub.bot.module.permissions.repository.PermissionGroupRepo;
 @Component
 public class PermissionBootstrap {
   private final PermissionGroupRepo groupRepo;
+  private final PermissionService permissionService;
 
-  public PermissionBootstrap(PermissionGroupRepo groupRepo) {
+  public PermissionBootstrap(PermissionGroupRepo groupRepo, PermissionService permissionService) {
     this.groupRepo = groupRepo;
+    this.permissionService = permissionService;
   }
 
   @EventListener(ApplicationReadyEvent.class)
@@ -39,5 +41,6 @@ public class PermissionBootstrap {
       def.getPermissions().add(gp);
     }
     groupRepo.save(def);
+    permissionService.invalidateAll();
   }
 }
@@ -1,11 +1,18 @@
 package ua.beengoo.uahub.bot.module.permissions.service;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ua.beengoo.uahub.bot.module.identity.model.ServerMember;
 import ua.beengoo.uahub.bot.module.identity.model.ServerMemberRepo;
+import ua.beengoo.uahub.bot.module.permissions.data.CompiledPermissions;
+import ua.beengoo.uahub.bot.module.permissions.data.FlatGroup;
+import ua.beengoo.uahub.bot.module.permissions.data.FlatGroup.WeightedNode;
 import ua.beengoo.uahub.bot.module.permissions.model.*;
 import ua.beengoo.uahub.bot.module.permissions.repository.PermissionGroupRepo;
 import ua.beengoo.uahub.bot.module.permissions.repository.RolePermissionMappingRepo;
@@ -17,6 +24,18 @@ public class PermissionService {
   private final PermissionGroupRepo groupRepo;
   private final RolePermissionMappingRepo roleMappingRepo;
 
+  /** Compiled permissions by Discord user id, valid for the role set they were compiled for. */
+  private final Map<Long, CachedDecision> decisions = new ConcurrentHashMap<>();
+
+  /** Flattened group nodes by group id, see {@link FlatGroup}. */
+  private final Map<Long, FlatGroup> flatGroups = new ConcurrentHashMap<>();
+
+  /** Groups mapped to each Discord role; roles without a mapping are kept as empty sets. */
+  private final Map<Long, Set<PermissionGroup>> roleGroups = new ConcurrentHashMap<>();
+
+  /** Bumped by every invalidation so that compilations racing with it are not cached. */
+  private final AtomicLong generation = new AtomicLong();
+
   public PermissionService(
       ServerMemberRepo serverMemberRepo,
       PermissionGroupRepo groupRepo,
@@ -29,28 +48,116 @@ public class PermissionService {
   /**
    * Returns whether a user effectively has a permission node considering defaults, role groups and
    * user overrides.
+   *
+   * <p>The effective nodes are compiled once per user and role set and cached until a permission
+   * change invalidates them; a cached check is a hash lookup.
    */
-  @Transactional(readOnly = true)
   public boolean has(long discordUserId, Collection<Long> roleIds, String node) {
-    ServerMember member = serverMemberRepo.findByDiscordId(discordUserId).orElse(null);
-    if (member == null) {
-      return resolve(Collections.emptySet(), Collections.emptySet(), Collections.emptySet(), node);
+    return compiled(discordUserId, roleIds).check(node);
+  }
+
+  /** Whether at least one of the nodes is allowed; permissions are resolved once for all nodes. */
+  public boolean hasAny(long discordUserId, Collection<Long> roleIds, String... nodes) {
+    CompiledPermissions compiled = compiled(discordUserId, roleIds);
+    for (String node : nodes) {
+      if (compiled.check(node)) return true;
     }
-    MemberPermissions mp = member.getMemberPermissions();
-    Set<PermissionGroup> userGroups = mp != null ? mp.getGroups() : Collections.emptySet();
-    Set<MemberPermissionNode> userNodes = mp != null ? mp.getNodes() : Collections.emptySet();
-    Set<PermissionGroup> roleGroups = resolveRoleGroups(roleIds);
-    return resolve(userGroups, roleGroups, userNodes, node);
+    return false;
+  }
+
+  /** Whether every node is allowed; permissions are resolved once for all nodes. */
+  public boolean hasAll(long discordUserId, Collection<Long> roleIds, String... nodes) {
+    CompiledPermissions compiled = compiled(discordUserId, roleIds);
+    for (String node : nodes) {
+      if (!compiled.check(node)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Checks several nodes against one resolution of the user's permissions.
+   *
+   * @return node to allowed, in the iteration order of {@code nodes}
+   */
+  public Map<String, Boolean> evaluate(
+      long discordUserId, Collection<Long> roleIds, Set<String> nodes) {
+    CompiledPermissions compiled = compiled(discordUserId, roleIds);
+    Map<String, Boolean> result = new LinkedHashMap<>();
+    for (String node : nodes) {
+      result.put(node, compiled.check(node));
+    }
+    return result;
   }
 
-  /** Variant of {@link #has(long, Collection, String)} for an existing member entity. */
+  /** Variant of {@link #has(long, Collection, String)} for an existing member entity, not cached. */
   @Transactional(readOnly = true)
   public boolean has(ServerMember member, Collection<Long> roleIds, String node) {
-    MemberPermissions mp = member.getMemberPermissions();
+    return compile(member, roleIds).check(node);
+  }
+
+  /** Drops the compiled permissions of a user, e.g. after its groups or nodes changed. */
+  public void invalidateUser(long discordUserId) {
+    generation.incrementAndGet();
+    decisions.remove(discordUserId);
+  }
+
+  /** Drops compiled permissions of members holding a role whose group mapping changed. */
+  public void invalidateRole(long roleId) {
+    generation.incrementAndGet();
+    roleGroups.remove(roleId);
+    decisions.values().removeIf(d -> d.roleIds().contains(roleId));
+  }
+
+  /**
+   * Drops compiled permissions and flattened groups that a group took part in, directly or as an
+   * inherited parent. Changes to default groups affect everyone.
+   */
+  public void invalidateGroup(PermissionGroup group) {
+    if (group.isDefaultGroup() || group.getId() == null) {
+      invalidateAll();
+      return;
+    }
+    generation.incrementAndGet();
+    long groupId = group.getId();
+    // Indexed role groups hold the changed entity or one inheriting from it
+    roleGroups.clear();
+    flatGroups.values().removeIf(f -> f.dependsOnGroup(groupId));
+    decisions.values().removeIf(d -> d.compiled().dependsOnGroup(groupId));
+  }
+
+  /** Drops all compiled permissions, flattened groups and indexed role mappings. */
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    roleGroups.clear();
+    flatGroups.clear();
+    decisions.clear();
+  }
+
+  private CompiledPermissions compiled(long discordUserId, Collection<Long> roleIds) {
+    Collection<Long> roles = roleIds != null ? roleIds : Collections.emptyList();
+    CachedDecision cached = decisions.get(discordUserId);
+    if (cached != null && cached.matches(roles)) return cached.compiled();
+
+    long gen = generation.get();
+    ServerMember member = serverMemberRepo.findByDiscordId(discordUserId).orElse(null);
+    CompiledPermissions compiled = compile(member, roles);
+    // Skip caching if an invalidation ran meanwhile, the result may already be stale
+    if (generation.get() == gen) {
+      decisions.put(discordUserId, new CachedDecision(Set.copyOf(roles), compiled));
+    }
+    return compiled;
+  }
+
+  private CompiledPermissions compile(ServerMember member, Collection<Long> roleIds) {
+    MemberPermissions mp = member != null ? member.getMemberPermissions() : null;
     Set<PermissionGroup> userGroups = mp != null ? mp.getGroups() : Collections.emptySet();
     Set<MemberPermissionNode> userNodes = mp != null ? mp.getNodes() : Collections.emptySet();
-    Set<PermissionGroup> roleGroups = resolveRoleGroups(roleIds);
-    return resolve(userGroups, roleGroups, userNodes, node);
+    // Members without a record only get the default groups
+    Set<PermissionGroup> roleGroups =
+        member != null ? resolveRoleGroups(roleIds) : Collections.emptySet();
+    Set<Long> groupIds = new HashSet<>();
+    LinkedHashMap<String, Boolean> resolved = resolveAll(userGroups, roleGroups, userNodes, groupIds);
+    return CompiledPermissions.of(resolved, groupIds);
   }
 
   /** Lists all effective allowed nodes for a user. */
@@ -63,60 +170,91 @@ public class PermissionService {
     Set<MemberPermissionNode> userNodes = mp != null ? mp.getNodes() : Collections.emptySet();
     Set<PermissionGroup> roleGroups = resolveRoleGroups(roleIds);
 
-    LinkedHashMap<String, Boolean> resolved = resolveAll(userGroups, roleGroups, userNodes);
+    LinkedHashMap<String, Boolean> resolved =
+        resolveAll(userGroups, roleGroups, userNodes, new HashSet<>());
     return resolved.entrySet().stream()
         .filter(Map.Entry::getValue)
         .map(Map.Entry::getKey)
         .collect(Collectors.toCollection(LinkedHashSet::new));
   }
 
+  /**
+   * Whether making {@code parent} a parent of {@code child} would close an inheritance cycle, i.e.
+   * the parent already is or inherits from the child.
+   */
+  public boolean wouldCreateCycle(PermissionGroup child, PermissionGroup parent) {
+    Set<PermissionGroup> seen = new HashSet<>();
+    Deque<PermissionGroup> stack = new ArrayDeque<>();
+    stack.push(parent);
+    while (!stack.isEmpty()) {
+      PermissionGroup g = stack.pop();
+      if (g.equals(child)) return true;
+      if (seen.add(g)) g.getParents().forEach(stack::push);
+    }
+    return false;
+  }
+
+  /** Indexes all role mappings so that permission checks of any member start warm. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadRoleIndex() {
+    long gen = generation.get();
+    Map<Long, Set<PermissionGroup>> loaded = new HashMap<>();
+    for (RolePermissionMapping mapping : roleMappingRepo.findAll()) {
+      loaded.put(mapping.getRoleId(), Set.copyOf(mapping.getGroups()));
+    }
+    if (generation.get() == gen) roleGroups.putAll(loaded);
+  }
+
   private Set<PermissionGroup> resolveRoleGroups(Collection<Long> roleIds) {
     if (roleIds == null || roleIds.isEmpty()) return Collections.emptySet();
     Set<PermissionGroup> groups = new HashSet<>();
+    List<Long> missing = new ArrayList<>();
     for (Long roleId : roleIds) {
-      roleMappingRepo.findByRoleId(roleId).ifPresent(mapping -> groups.addAll(mapping.getGroups()));
+      Set<PermissionGroup> mapped = roleGroups.get(roleId);
+      if (mapped != null) groups.addAll(mapped);
+      else missing.add(roleId);
+    }
+    if (!missing.isEmpty()) {
+      loadRoles(missing).values().forEach(groups::addAll);
     }
     return groups;
   }
 
-  private boolean resolve(
-      Set<PermissionGroup> userGroups,
-      Set<PermissionGroup> roleGroups,
-      Set<MemberPermissionNode> userNodes,
-      String target) {
-    LinkedHashMap<String, Boolean> resolved = resolveAll(userGroups, roleGroups, userNodes);
-    // Exact match first
-    if (resolved.containsKey(target)) return resolved.get(target);
-    // Wildcard match
-    for (Map.Entry<String, Boolean> e : resolved.entrySet()) {
-      String key = e.getKey();
-      if (key.endsWith("*")) {
-        String prefix = key.substring(0, key.length() - 1);
-        if (target.startsWith(prefix)) return e.getValue();
-      }
+  /** Loads the mappings of roles missing from the index in one query. */
+  private Map<Long, Set<PermissionGroup>> loadRoles(List<Long> roleIds) {
+    long gen = generation.get();
+    Map<Long, Set<PermissionGroup>> loaded = new HashMap<>();
+    for (Long roleId : roleIds) {
+      loaded.put(roleId, Set.of());
     }
-    return false;
+    for (RolePermissionMapping mapping : roleMappingRepo.findByRoleIdIn(roleIds)) {
+      loaded.put(mapping.getRoleId(), Set.copyOf(mapping.getGroups()));
+    }
+    if (generation.get() == gen) roleGroups.putAll(loaded);
+    return loaded;
   }
 
+  /** Resolves node to allowed from flattened groups; ids of all involved groups go to groupIds. */
   private LinkedHashMap<String, Boolean> resolveAll(
       Set<PermissionGroup> userGroups,
       Set<PermissionGroup> roleGroups,
-      Set<MemberPermissionNode> userNodes) {
+      Set<MemberPermissionNode> userNodes,
+      Set<Long> groupIds) {
     // Start with defaults
     Set<PermissionGroup> allGroups = new HashSet<>(groupRepo.findByDefaultGroupTrue());
-    allGroups.addAll(expandGroups(roleGroups));
-    allGroups.addAll(expandGroups(userGroups));
+    allGroups.addAll(roleGroups);
+    allGroups.addAll(userGroups);
 
-    // Sort by weight ascending so later overrides with higher weight
-    List<PermissionGroup> sorted = new ArrayList<>(allGroups);
-    sorted.sort(Comparator.comparingInt(PermissionGroup::getWeight));
+    // Higher weight overrides, see WeightedNode#overrides
+    Map<String, WeightedNode> merged = new HashMap<>();
+    for (PermissionGroup g : allGroups) {
+      FlatGroup flat = flattened(g);
+      flat.mergeInto(merged);
+      groupIds.addAll(flat.groupIds());
+    }
 
     LinkedHashMap<String, Boolean> map = new LinkedHashMap<>();
-    for (PermissionGroup g : sorted) {
-      for (GroupPermission gp : g.getPermissions()) {
-        map.put(gp.getNode(), gp.isAllowed());
-      }
-    }
+    merged.forEach((node, value) -> map.put(node, value.allowed()));
     // User-specific nodes override groups
     for (MemberPermissionNode node : userNodes) {
       map.put(node.getNode(), node.isAllowed());
@@ -124,9 +262,44 @@ public class PermissionService {
     return map;
   }
 
-  private Set<PermissionGroup> expandGroups(Set<PermissionGroup> input) {
+  /** Flattened nodes of a group, computed once per group until it or an ancestor changes. */
+  private FlatGroup flattened(PermissionGroup group) {
+    Long id = group.getId();
+    if (id == null) return flatten(group);
+    FlatGroup cached = flatGroups.get(id);
+    if (cached != null) return cached;
+
+    long gen = generation.get();
+    FlatGroup flat = flatten(group);
+    if (generation.get() == gen) flatGroups.put(id, flat);
+    return flat;
+  }
+
+  private FlatGroup flatten(PermissionGroup group) {
+    // Sort the group and its ancestors by weight ascending so later overrides with higher weight
+    List<PermissionGroup> sorted = new ArrayList<>(expandGroup(group));
+    sorted.sort(Comparator.comparingInt(PermissionGroup::getWeight).thenComparingLong(this::order));
+
+    Map<String, WeightedNode> nodes = new HashMap<>();
+    Set<Long> ids = new HashSet<>();
+    for (PermissionGroup g : sorted) {
+      if (g.getId() != null) ids.add(g.getId());
+      for (GroupPermission gp : g.getPermissions()) {
+        nodes.put(gp.getNode(), new WeightedNode(g.getWeight(), order(g), gp.isAllowed()));
+      }
+    }
+    return new FlatGroup(nodes, ids);
+  }
+
+  private long order(PermissionGroup group) {
+    return group.getId() != null ? group.getId() : Long.MIN_VALUE;
+  }
+
+  /** The group and all of its ancestors; tolerates cycles stored before they were rejected. */
+  private Set<PermissionGroup> expandGroup(PermissionGroup group) {
     Set<PermissionGroup> out = new HashSet<>();
-    Deque<PermissionGroup> stack = new ArrayDeque<>(input);
+    Deque<PermissionGroup> stack = new ArrayDeque<>();
+    stack.push(group);
     while (!stack.isEmpty()) {
       PermissionGroup g = stack.pop();
       if (out.add(g)) {
@@ -137,4 +310,10 @@ public class PermissionService {
     }
     return out;
   }
+
+  private record CachedDecision(Set<Long> roleIds, CompiledPermissions compiled) {
+    boolean matches(Collection<Long> roles) {
+      return roleIds.size() == roles.size() && roleIds.containsAll(roles);
+    }
+  }
 }
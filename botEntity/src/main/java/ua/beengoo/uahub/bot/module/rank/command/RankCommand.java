@@ -15,7 +15,9 @@ import ua.beengoo.uahub.bot.helper.paginator.Buttons;
 import ua.beengoo.uahub.bot.layout.message.Embed;
 import ua.beengoo.uahub.bot.module.identity.service.ServerMemberController;
 import ua.beengoo.uahub.bot.module.permissions.service.PermissionService;
+import ua.beengoo.uahub.bot.module.rank.data.LeaderboardMetric;
 import ua.beengoo.uahub.bot.module.rank.model.RankStats;
+import ua.beengoo.uahub.bot.module.rank.service.LeaderboardIndex;
 import ua.beengoo.uahub.bot.module.rank.service.RankingService;
 
 @Interaction
@@ -25,11 +27,13 @@ public class RankCommand {
   private final ServerMemberController serverMemberController;
   private final PermissionService permissionService;
   private final RankingService rankingService;
+  private final LeaderboardIndex leaderboardIndex;
 
   public RankCommand() {
     serverMemberController = ContextHolder.getBean(ServerMemberController.class);
     permissionService = ContextHolder.getBean(PermissionService.class);
     rankingService = ContextHolder.getBean(RankingService.class);
+    leaderboardIndex = ContextHolder.getBean(LeaderboardIndex.class);
   }
 
   /** Handler for the /rank command. */
@@ -49,18 +53,15 @@ public class RankCommand {
               .setDescription(Lang.get("ranking.view.required")));
       return;
     }
-    // Update voice pool stats on-demand for fresher data
-    rankingService.updateVoiceRankState();
-
+    // Overlay unflushed chat points and voice time without writing anything
     RankStats member =
-        serverMemberController.addMemberOrNothing(event.getUser().getIdLong()).getRankStats();
+        rankingService.liveStats(
+            serverMemberController.addMemberOrNothing(event.getUser().getIdLong()).getRankStats());
 
-    // Compute positions in chat/voice leaderboards
-    List<RankStats> allStats = new ArrayList<>();
-    serverMemberController.getAll().forEach(sm -> allStats.add(sm.getRankStats()));
-    long chatPos = getPosition(allStats, member, RankStats::getChatPoints);
-    long voicePos = getPosition(allStats, member, RankStats::getVoicePoints);
-    long primePos = getPosition(allStats, member, RankStats::getPrimePoints);
+    // Positions in chat/voice/prime leaderboards; ties share the same position
+    long chatPos = getPosition(LeaderboardMetric.CHAT, member);
+    long voicePos = getPosition(LeaderboardMetric.VOICE, member);
+    long primePos = getPosition(LeaderboardMetric.PRIME, member);
 
     List<MessageEmbed> pages = new ArrayList<>();
 
@@ -144,14 +145,11 @@ public class RankCommand {
                     .queue(
                         sentMsg ->
                             new ButtonPaginator(pages, event.getUser(), false, List.of(Buttons.PREVIOUS, Buttons.NEXT))
-                                .paginate(sentMsg, event.getJDA())));
+                                .paginate(sentMsg)));
   }
 
-  private long getPosition(
-      List<RankStats> all, RankStats me, java.util.function.ToDoubleFunction<RankStats> metric) {
-    double myValue = metric.applyAsDouble(me);
-    long better = all.stream().filter(s -> metric.applyAsDouble(s) > myValue).count();
-    return better + 1; // 1-based position; ties share same position
+  private long getPosition(LeaderboardMetric metric, RankStats me) {
+    return leaderboardIndex.position(metric, metric.valueOf(me));
   }
 
   private String formatDuration(long ms) {
@@ -2,30 +2,30 @@ package ua.beengoo.uahub.bot.module.rank.command;
 
 import com.github.kaktushose.jda.commands.annotations.interactions.*;
 import com.github.kaktushose.jda.commands.dispatching.events.interactions.CommandEvent;
-import java.util.*;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.Role;
 import ua.beengoo.uahub.bot.ContextHolder;
 import ua.beengoo.uahub.bot.Lang;
 import ua.beengoo.uahub.bot.helper.paginator.ButtonPaginator;
+import ua.beengoo.uahub.bot.helper.paginator.PageSource;
 import ua.beengoo.uahub.bot.layout.message.Embed;
-import ua.beengoo.uahub.bot.module.identity.service.ServerMemberController;
 import ua.beengoo.uahub.bot.module.permissions.service.PermissionService;
-import ua.beengoo.uahub.bot.module.rank.model.RankStats;
-import ua.beengoo.uahub.bot.module.rank.service.RankingService;
+import ua.beengoo.uahub.bot.module.rank.data.LeaderboardEntry;
+import ua.beengoo.uahub.bot.module.rank.data.LeaderboardMetric;
+import ua.beengoo.uahub.bot.module.rank.service.LeaderboardIndex;
 
 @Interaction
 /** Slash command: shows top members by various ranking metrics with pagination. */
 public class TopCommand {
-  private final ServerMemberController serverMemberController;
+  private static final int PAGE_SIZE = 10;
+
   private final PermissionService permissionService;
-  private final RankingService rankingService;
+  private final LeaderboardIndex leaderboardIndex;
 
   public TopCommand() {
-    serverMemberController = ContextHolder.getBean(ServerMemberController.class);
     permissionService = ContextHolder.getBean(PermissionService.class);
-    rankingService = ContextHolder.getBean(RankingService.class);
+    leaderboardIndex = ContextHolder.getBean(LeaderboardIndex.class);
   }
 
   /**
@@ -59,84 +59,64 @@ public class TopCommand {
               .setDescription(Lang.get("ranking.view.required")));
       return;
     }
-    // Update voice pool stats on-demand for fresher data
-    rankingService.updateVoiceRankState();
-
-    List<MessageEmbed> pages = new ArrayList<>();
-    List<RankStats> members = new ArrayList<>();
-
-    serverMemberController
-        .getAll()
-        .forEach(
-            serverMember -> {
-              if (serverMember.getRankStats() != null) {
-                members.add(serverMember.getRankStats());
-              }
-            });
-    if (members.isEmpty()) {
+    LeaderboardMetric metric = LeaderboardMetric.fromKey(topBy);
+    long total = leaderboardIndex.size();
+    if (total == 0) {
       event.reply(
           Embed.getWarn()
               .setTitle(Lang.get("ranking.top.title"))
               .setDescription(Lang.get("ranking.top.empty")));
       return;
     }
-    sortListBy(members, topBy);
 
-    List<List<RankStats>> chunks = new ArrayList<>();
-    for (int i = 0; i < members.size(); i += 10) {
-      chunks.add(members.subList(i, Math.min(i + 10, members.size())));
-    }
-    int position = 0;
-    int page = 0;
-    for (List<RankStats> rankStats : chunks) {
-      page++;
-      EmbedBuilder eb = Embed.getInfo().setTitle(Lang.get("ranking.top.title"));
-      eb.setFooter(Lang.get("ranking.top.footer").formatted(page, chunks.size()));
-      StringBuilder sb = new StringBuilder();
-      sb.append(Lang.get("ranking.top.description.%s".formatted(topBy)));
-      for (RankStats stat : rankStats) {
-        position++;
-        sb.append(
-            "\n **#%s** x%s %s: lvl%s; C %s (V: %s C: %s P: %s)"
-                .formatted(
-                    position,
-                    stat.getMemberMultiplier(),
-                    "<@" + stat.getServerMember().getDiscordId() + ">",
-                    (int) stat.getLevel(),
-                    stat.getCompetitivePoints(),
-                    stat.getVoicePoints(),
-                    stat.getChatPoints(),
-                    stat.getPrimePoints()));
-      }
-      eb.setDescription(sb.toString());
-      pages.add(eb.build());
-    }
+    int pageCount = (int) ((total + PAGE_SIZE - 1) / PAGE_SIZE);
+    PageSource pages =
+        new PageSource() {
+          @Override
+          public int pageCount() {
+            return pageCount;
+          }
+
+          @Override
+          public MessageEmbed render(int page) {
+            return renderPage(metric, topBy, page, pageCount);
+          }
+        };
+    ButtonPaginator paginator = new ButtonPaginator(pages, event.getUser(), false);
 
     event
         .jdaEvent()
-        .replyEmbeds(pages.getFirst())
+        .replyEmbeds(paginator.getPage(0))
         .setEphemeral(false)
         .queue(
             s ->
                 s.retrieveOriginal()
-                    .queue(
-                        sentMsg ->
-                            new ButtonPaginator(pages, event.getUser(), false)
-                                .paginate(sentMsg, event.getJDA())));
+                    .queue(paginator::paginate));
   }
 
-  /** Sorts members by the provided metric in descending order. */
-  public void sortListBy(List<RankStats> members, String sortBy) {
-    switch (sortBy) {
-      case "competitive" -> members.sort(
-          Comparator.comparingDouble(RankStats::getCompetitivePoints).reversed());
-      case "voice" -> members.sort(
-          Comparator.comparingDouble(RankStats::getVoicePoints).reversed());
-      case "chat" -> members.sort(Comparator.comparingDouble(RankStats::getChatPoints).reversed());
-      case "prime" -> members.sort(
-          Comparator.comparingDouble(RankStats::getPrimePoints).reversed());
-      case "level" -> members.sort(Comparator.comparingDouble(RankStats::getLevel).reversed());
-      default -> throw new IllegalArgumentException("Unknown sortBy param: %s".formatted(sortBy));
+  /** Renders one page of the leaderboard straight from the index. */
+  private MessageEmbed renderPage(
+      LeaderboardMetric metric, String topBy, int page, int pageCount) {
+    EmbedBuilder eb = Embed.getInfo().setTitle(Lang.get("ranking.top.title"));
+    eb.setFooter(Lang.get("ranking.top.footer").formatted(page + 1, pageCount));
+    StringBuilder sb = new StringBuilder();
+    sb.append(Lang.get("ranking.top.description.%s".formatted(topBy)));
+    int position = page * PAGE_SIZE;
+    for (LeaderboardEntry entry : leaderboardIndex.page(metric, position, PAGE_SIZE)) {
+      position++;
+      sb.append(
+          "\n **#%s** x%s %s: lvl%s; C %s (V: %s C: %s P: %s)"
+              .formatted(
+                  position,
+                  entry.memberMultiplier(),
+                  "<@" + entry.discordId() + ">",
+                  (int) entry.level(),
+                  entry.competitivePoints(),
+                  entry.voicePoints(),
+                  entry.chatPoints(),
+                  entry.primePoints()));
     }
+    eb.setDescription(sb.toString());
+    return eb.build();
   }
 }
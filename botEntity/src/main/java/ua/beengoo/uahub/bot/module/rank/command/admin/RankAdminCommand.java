@@ -8,6 +8,7 @@ import com.github.kaktushose.jda.commands.dispatching.events.interactions.Comman
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 import ua.beengoo.uahub.bot.ContextHolder;
 import ua.beengoo.uahub.bot.Lang;
 import ua.beengoo.uahub.bot.layout.message.Embed;
@@ -17,8 +18,11 @@ import ua.beengoo.uahub.bot.module.permissions.service.PermissionService;
 import ua.beengoo.uahub.bot.module.rank.model.RankSettings;
 import ua.beengoo.uahub.bot.module.rank.model.RankStats;
 import ua.beengoo.uahub.bot.module.rank.model.RoleToLevel;
+import ua.beengoo.uahub.bot.module.rank.service.ChatPointsBuffer;
+import ua.beengoo.uahub.bot.module.rank.service.LeaderboardIndex;
 import ua.beengoo.uahub.bot.module.rank.service.RankSettingsController;
 import ua.beengoo.uahub.bot.module.rank.service.RankingService;
+import ua.beengoo.uahub.bot.module.rank.service.RankingStatsService;
 
 @Interaction
 /** Administrative slash command to view and modify user ranking statistics. */
@@ -27,13 +31,18 @@ public class RankAdminCommand {
     private final PermissionService permissionService;
     private final RankingService rankingService;
     private final RankSettingsController rankSettingsController;
-
+    private final ChatPointsBuffer chatPointsBuffer;
+    private final RankingStatsService rankingStatsService;
+    private final LeaderboardIndex leaderboardIndex;
 
     public RankAdminCommand() {
         serverMemberController = ContextHolder.getBean(ServerMemberController.class);
         permissionService = ContextHolder.getBean(PermissionService.class);
         rankingService = ContextHolder.getBean(RankingService.class);
         rankSettingsController = ContextHolder.getBean(RankSettingsController.class);
+        chatPointsBuffer = ContextHolder.getBean(ChatPointsBuffer.class);
+        rankingStatsService = ContextHolder.getBean(RankingStatsService.class);
+        leaderboardIndex = ContextHolder.getBean(LeaderboardIndex.class);
     }
 
     private boolean allowed(CommandEvent event) {
@@ -148,6 +157,39 @@ public class RankAdminCommand {
         }
     }
 
+    @Command(value = "rankadmin multiplier", desc = "Множники балів для ролей і каналів")
+    public void onRankAdminMultiplier(
+        CommandEvent event,
+        @Param(name = "value", value = "Множник") Double value,
+        @Param(name = "role", value = "Роль", optional = true) Role role,
+        @Param(name = "channel", value = "Канал або категорія", optional = true) GuildChannel channel
+    ) {
+        if (!allowed(event)) {
+            event.reply(
+                Embed.getError()
+                    .setTitle(Lang.get("perms.error.insufficient_rights.title"))
+                    .setDescription(Lang.get("rank.admin.required")));
+            return;
+        }
+        if (value == null || (role == null && channel == null)) {
+            event.reply(Embed.getWarn().setTitle(Lang.get("rank.admin.multiplier.usage")));
+            return;
+        }
+        StringBuilder builder = new StringBuilder();
+        if (role != null) {
+            rankingStatsService.setRoleMultiplier(role.getIdLong(), value);
+            builder.append("> <@&%s> - x%s\n".formatted(role.getId(), value));
+        }
+        if (channel != null) {
+            rankingStatsService.setChannelMultiplier(channel.getIdLong(), value);
+            builder.append("> <#%s> - x%s\n".formatted(channel.getId(), value));
+        }
+        event.reply(
+            Embed.getInfo()
+                .setTitle(Lang.get("rank.admin.multiplier.ok"))
+                .setDescription(builder.toString()));
+    }
+
     @Command(value = "rankadmin user", desc = "Керування статистикою користувача")
     public void onRankAdminUser(
             CommandEvent event,
@@ -184,6 +226,8 @@ public class RankAdminCommand {
             return;
         }
 
+        // Write buffered chat points first so the edit is not overwritten by a later flush
+        chatPointsBuffer.flush(user.getIdLong());
         ServerMember sm = serverMemberController.addMemberOrNothing(user.getIdLong());
         RankStats stats = sm.getRankStats();
 
@@ -239,6 +283,7 @@ public class RankAdminCommand {
             rankingService.upgradeRole(event.getMember(), stats);
 
         serverMemberController.updateMember(stats.getServerMember());
+        leaderboardIndex.update(stats);
         event.reply(
                 Embed.getInfo()
                         .setTitle(Lang.get("rank.admin.add.ok"))
@@ -268,6 +313,7 @@ public class RankAdminCommand {
         if (event.getMember() != null)
             rankingService.upgradeRole(event.getMember(), stats);
         serverMemberController.updateMember(stats.getServerMember());
+        leaderboardIndex.update(stats);
         event.reply(
                 Embed.getInfo()
                         .setTitle(Lang.get("rank.admin.set.ok"))
@@ -323,6 +369,7 @@ public class RankAdminCommand {
         if (event.getMember() != null)
             rankingService.upgradeRole(event.getMember(), s);
         serverMemberController.updateMember(sm);
+        leaderboardIndex.update(s);
         event.reply(
                 Embed.getInfo()
                         .setTitle(Lang.get("rank.admin.reset.ok"))
@@ -0,0 +1,50 @@
+package ua.beengoo.uahub.bot.module.rank.data;
+
+import ua.beengoo.uahub.bot.module.rank.model.LeaderboardRow;
+import ua.beengoo.uahub.bot.module.rank.model.RankStats;
+
+/** Leaderboard values of one member, enough to render a /top line without loading the entity. */
+public record LeaderboardEntry(
+    long discordId,
+    double memberMultiplier,
+    double level,
+    double voicePoints,
+    double chatPoints,
+    double primePoints) {
+
+  public static LeaderboardEntry of(RankStats stats) {
+    return new LeaderboardEntry(
+        stats.getServerMember().getDiscordId(),
+        stats.getMemberMultiplier(),
+        stats.getLevel(),
+        stats.getVoicePoints(),
+        stats.getChatPoints(),
+        stats.getPrimePoints());
+  }
+
+  public static LeaderboardEntry of(LeaderboardRow row) {
+    return new LeaderboardEntry(
+        row.getDiscordId(),
+        row.getMemberMultiplier(),
+        row.getLevel(),
+        row.getVoicePoints(),
+        row.getChatPoints(),
+        row.getPrimePoints());
+  }
+
+  /** Competitive points (chat + voice). */
+  public double competitivePoints() {
+    return chatPoints + voicePoints;
+  }
+
+  /** Value of the given metric. */
+  public double value(LeaderboardMetric metric) {
+    return switch (metric) {
+      case COMPETITIVE -> competitivePoints();
+      case VOICE -> voicePoints;
+      case CHAT -> chatPoints;
+      case PRIME -> primePoints;
+      case LEVEL -> level;
+    };
+  }
+}
@@ -0,0 +1,39 @@
+package ua.beengoo.uahub.bot.module.rank.data;
+
+import java.util.function.ToDoubleFunction;
+import ua.beengoo.uahub.bot.module.rank.model.RankStats;
+
+/** Metrics members can be ranked by in /top and /rank. */
+public enum LeaderboardMetric {
+  COMPETITIVE("competitive", RankStats::getCompetitivePoints),
+  VOICE("voice", RankStats::getVoicePoints),
+  CHAT("chat", RankStats::getChatPoints),
+  PRIME("prime", RankStats::getPrimePoints),
+  LEVEL("level", RankStats::getLevel);
+
+  private final String key;
+  private final ToDoubleFunction<RankStats> extractor;
+
+  LeaderboardMetric(String key, ToDoubleFunction<RankStats> extractor) {
+    this.key = key;
+    this.extractor = extractor;
+  }
+
+  /** Command choice value of the metric. */
+  public String key() {
+    return key;
+  }
+
+  /** Value of the metric for the given stats. */
+  public double valueOf(RankStats stats) {
+    return extractor.applyAsDouble(stats);
+  }
+
+  /** Resolves a command choice value. */
+  public static LeaderboardMetric fromKey(String key) {
+    for (LeaderboardMetric metric : values()) {
+      if (metric.key.equals(key)) return metric;
+    }
+    throw new IllegalArgumentException("Unknown sortBy param: %s".formatted(key));
+  }
+}
@@ -0,0 +1,11 @@
+package ua.beengoo.uahub.bot.module.rank.data;
+
+import net.dv8tion.jda.api.entities.Member;
+
+/** Guild-scoped member identity that does not retain JDA entities. */
+public record MemberKey(long guildId, long userId) {
+
+  public static MemberKey of(Member member) {
+    return new MemberKey(member.getGuild().getIdLong(), member.getIdLong());
+  }
+}
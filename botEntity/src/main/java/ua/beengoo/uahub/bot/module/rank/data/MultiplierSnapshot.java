@@ -0,0 +1,67 @@
+package ua.beengoo.uahub.bot.module.rank.data;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable id to multiplier table backed by sorted primitive arrays.
+ *
+ * <p>Lookups are a binary search without boxing; changes produce a patched copy.
+ */
+public final class MultiplierSnapshot {
+  public static final MultiplierSnapshot EMPTY = new MultiplierSnapshot(new long[0], new double[0]);
+
+  private final long[] ids;
+  private final double[] multipliers;
+
+  private MultiplierSnapshot(long[] ids, double[] multipliers) {
+    this.ids = ids;
+    this.multipliers = multipliers;
+  }
+
+  /** Builds a snapshot from id to multiplier pairs. */
+  public static MultiplierSnapshot of(Map<Long, Double> values) {
+    TreeMap<Long, Double> sorted = new TreeMap<>(values);
+    long[] ids = new long[sorted.size()];
+    double[] multipliers = new double[sorted.size()];
+    int i = 0;
+    for (Map.Entry<Long, Double> e : sorted.entrySet()) {
+      ids[i] = e.getKey();
+      multipliers[i] = e.getValue();
+      i++;
+    }
+    return new MultiplierSnapshot(ids, multipliers);
+  }
+
+  /** Returns the multiplier for an id, or {@code 0} when it has none. */
+  public double get(long id) {
+    int i = Arrays.binarySearch(ids, id);
+    return i >= 0 ? multipliers[i] : 0;
+  }
+
+  /** Returns a copy with the multiplier for an id added or replaced. */
+  public MultiplierSnapshot with(long id, double multiplier) {
+    int i = Arrays.binarySearch(ids, id);
+    if (i >= 0) {
+      double[] patched = multipliers.clone();
+      patched[i] = multiplier;
+      return new MultiplierSnapshot(ids, patched);
+    }
+    int at = -i - 1;
+    long[] newIds = new long[ids.length + 1];
+    double[] newMultipliers = new double[ids.length + 1];
+    System.arraycopy(ids, 0, newIds, 0, at);
+    System.arraycopy(multipliers, 0, newMultipliers, 0, at);
+    newIds[at] = id;
+    newMultipliers[at] = multiplier;
+    System.arraycopy(ids, at, newIds, at + 1, ids.length - at);
+    System.arraycopy(multipliers, at, newMultipliers, at + 1, ids.length - at);
+    return new MultiplierSnapshot(newIds, newMultipliers);
+  }
+
+  /** Number of ids with a multiplier. */
+  public int size() {
+    return ids.length;
+  }
+}
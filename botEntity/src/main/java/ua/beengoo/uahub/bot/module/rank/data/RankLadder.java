@@ -0,0 +1,79 @@
+package ua.beengoo.uahub.bot.module.rank.data;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import ua.beengoo.uahub.bot.module.rank.model.RoleToLevel;
+
+/**
+ * Immutable level to role ladder built from {@link RoleToLevel} links.
+ *
+ * <p>Thresholds are kept in a sorted primitive array so the target role for a level is a binary
+ * search without allocation.
+ */
+public final class RankLadder {
+  /** Returned by {@link #targetRoleFor(double)} when the level is below every threshold. */
+  public static final long NO_ROLE = -1;
+
+  public static final RankLadder EMPTY = new RankLadder(new long[0], new long[0], new long[0]);
+
+  private final long[] thresholds;
+  private final long[] roleIds;
+  private final long[] sortedRoleIds;
+
+  private RankLadder(long[] thresholds, long[] roleIds, long[] sortedRoleIds) {
+    this.thresholds = thresholds;
+    this.roleIds = roleIds;
+    this.sortedRoleIds = sortedRoleIds;
+  }
+
+  /** Builds a ladder; when several roles share a threshold the first one wins. */
+  public static RankLadder of(List<RoleToLevel> links) {
+    List<RoleToLevel> sorted =
+        links.stream().sorted(Comparator.comparingLong(RoleToLevel::getLevelRequired)).toList();
+    long[] thresholds = new long[sorted.size()];
+    long[] roleIds = new long[sorted.size()];
+    int n = 0;
+    for (RoleToLevel link : sorted) {
+      if (n > 0 && thresholds[n - 1] == link.getLevelRequired()) continue;
+      thresholds[n] = link.getLevelRequired();
+      roleIds[n] = link.getRoleId();
+      n++;
+    }
+    long[] sortedRoleIds = links.stream().mapToLong(RoleToLevel::getRoleId).sorted().toArray();
+    return new RankLadder(
+        Arrays.copyOf(thresholds, n), Arrays.copyOf(roleIds, n), sortedRoleIds);
+  }
+
+  /** Index of the highest step reached at a level, or {@code -1} below the first step. */
+  public int stepFor(double level) {
+    int lo = 0;
+    int hi = thresholds.length - 1;
+    int found = -1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      if (thresholds[mid] <= level) {
+        found = mid;
+        lo = mid + 1;
+      } else {
+        hi = mid - 1;
+      }
+    }
+    return found;
+  }
+
+  /** Role id for the highest step reached at a level, or {@link #NO_ROLE}. */
+  public long targetRoleFor(double level) {
+    int step = stepFor(level);
+    return step < 0 ? NO_ROLE : roleIds[step];
+  }
+
+  /** Whether a role is managed by this ladder. */
+  public boolean isLadderRole(long roleId) {
+    return Arrays.binarySearch(sortedRoleIds, roleId) >= 0;
+  }
+
+  public boolean isEmpty() {
+    return sortedRoleIds.length == 0;
+  }
+}
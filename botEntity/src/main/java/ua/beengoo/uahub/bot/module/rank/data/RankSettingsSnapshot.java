@@ -0,0 +1,14 @@
+package ua.beengoo.uahub.bot.module.rank.data;
+
+import ua.beengoo.uahub.bot.module.rank.model.RankSettings;
+
+/** Read-only view of a guild's {@link RankSettings} used on hot paths. */
+public record RankSettingsSnapshot(long serverId, double chatPointsAmount, RankLadder ladder) {
+
+  public static RankSettingsSnapshot of(RankSettings settings) {
+    return new RankSettingsSnapshot(
+        settings.getServerId(),
+        settings.getChatPointsAmount(),
+        RankLadder.of(settings.getRoleLevelMappings()));
+  }
+}
@@ -0,0 +1,140 @@
+package ua.beengoo.uahub.bot.module.rank.data;
+
+/**
+ * Order-statistic tree of (score, id) pairs, ordered by score descending and id ascending.
+ *
+ * <p>A size-augmented treap: inserts, removals and rank queries are O(log n) expected, reading k
+ * consecutive entries from any offset is O(log n + k). Not thread-safe.
+ */
+public final class ScoreTree {
+  private Node root;
+
+  /** Adds a pair; the caller makes sure it is not present yet. */
+  public void insert(double score, long id) {
+    Node[] parts = split(root, score, id);
+    root = merge(merge(parts[0], new Node(score, id)), parts[1]);
+  }
+
+  /** Removes a pair if present. */
+  public void remove(double score, long id) {
+    root = remove(root, score, id);
+  }
+
+  /** Number of entries with a score strictly greater than the given one. */
+  public int countAbove(double score) {
+    int count = 0;
+    Node n = root;
+    while (n != null) {
+      if (n.score > score) {
+        count += size(n.left) + 1;
+        n = n.right;
+      } else {
+        n = n.left;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Ids of up to {@code limit} entries starting at the 0-based position {@code offset}.
+   *
+   * @return ids in leaderboard order, shorter than {@code limit} at the end of the tree
+   */
+  public long[] page(int offset, int limit) {
+    int from = Math.max(0, offset);
+    int count = Math.max(0, Math.min(limit, size(root) - from));
+    long[] out = new long[count];
+    collect(root, from, out, new int[1]);
+    return out;
+  }
+
+  /** Number of entries. */
+  public int size() {
+    return size(root);
+  }
+
+  private static void collect(Node n, int skip, long[] out, int[] filled) {
+    if (n == null || filled[0] == out.length) return;
+    int leftSize = size(n.left);
+    if (skip < leftSize) collect(n.left, skip, out, filled);
+    if (filled[0] == out.length) return;
+    if (skip <= leftSize) out[filled[0]++] = n.id;
+    collect(n.right, Math.max(0, skip - leftSize - 1), out, filled);
+  }
+
+  private static Node remove(Node n, double score, long id) {
+    if (n == null) return null;
+    int c = compare(score, id, n.score, n.id);
+    if (c == 0) return merge(n.left, n.right);
+    if (c < 0) n.left = remove(n.left, score, id);
+    else n.right = remove(n.right, score, id);
+    n.update();
+    return n;
+  }
+
+  /** Splits into entries ordered before the key and entries at or after it. */
+  private static Node[] split(Node n, double score, long id) {
+    if (n == null) return new Node[2];
+    if (compare(n.score, n.id, score, id) < 0) {
+      Node[] parts = split(n.right, score, id);
+      n.right = parts[0];
+      n.update();
+      parts[0] = n;
+      return parts;
+    }
+    Node[] parts = split(n.left, score, id);
+    n.left = parts[1];
+    n.update();
+    parts[1] = n;
+    return parts;
+  }
+
+  private static Node merge(Node a, Node b) {
+    if (a == null) return b;
+    if (b == null) return a;
+    if (a.priority > b.priority) {
+      a.right = merge(a.right, b);
+      a.update();
+      return a;
+    }
+    b.left = merge(a, b.left);
+    b.update();
+    return b;
+  }
+
+  /** Leaderboard order: higher score first, lower id first on ties. */
+  private static int compare(double scoreA, long idA, double scoreB, long idB) {
+    int c = Double.compare(scoreB, scoreA);
+    return c != 0 ? c : Long.compare(idA, idB);
+  }
+
+  private static int size(Node n) {
+    return n == null ? 0 : n.size;
+  }
+
+  private static final class Node {
+    private final double score;
+    private final long id;
+    private final long priority;
+    private int size = 1;
+    private Node left;
+    private Node right;
+
+    private Node(double score, long id) {
+      this.score = score;
+      this.id = id;
+      this.priority = mix(id);
+    }
+
+    private void update() {
+      size = 1 + size(left) + size(right);
+    }
+
+    /** SplitMix64 finalizer: random-looking but stable priorities without shared RNG state. */
+    private static long mix(long z) {
+      z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+      z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+      return z ^ (z >>> 31);
+    }
+  }
+}
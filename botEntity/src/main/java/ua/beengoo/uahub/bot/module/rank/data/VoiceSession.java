@@ -0,0 +1,112 @@
+package ua.beengoo.uahub.bot.module.rank.data;
+
+/**
+ * Compact voice session state of a pooled member, accounted in segments.
+ *
+ * <p>Holds only primitives, no JDA entities. A segment lasts while the channel, the "with others"
+ * state and mute/deafen state stay the same; closing it adds the exact duration to the matching
+ * buckets, which the flush job drains.
+ */
+public final class VoiceSession {
+  private static final byte WITH_OTHERS = 1;
+  private static final byte MUTED = 1 << 1;
+  private static final byte DEAFENED = 1 << 2;
+
+  private final long connectedAt;
+  private long channelId;
+  private long segmentStart;
+  private long windowStart;
+  private byte flags;
+  private int joins;
+
+  private long msAlone;
+  private long msWithOthers;
+  private long msMuted;
+  private long msDeafened;
+  private long msActive;
+  private long msEligible;
+
+  public VoiceSession(long connectedAt) {
+    this.connectedAt = connectedAt;
+    this.segmentStart = connectedAt;
+    this.windowStart = connectedAt;
+  }
+
+  /** Counts the join that opened this session. */
+  public synchronized void countJoin() {
+    joins++;
+  }
+
+  public synchronized long channelId() {
+    return channelId;
+  }
+
+  public synchronized boolean isWithOthers() {
+    return (flags & WITH_OTHERS) != 0;
+  }
+
+  /** Closes the running segment at {@code now} and opens a new one with the given state. */
+  public synchronized void nextSegment(
+      long now, long channelId, boolean withOthers, boolean muted, boolean deafened) {
+    closeSegment(now);
+    this.channelId = channelId;
+    this.flags =
+        (byte) ((withOthers ? WITH_OTHERS : 0) | (muted ? MUTED : 0) | (deafened ? DEAFENED : 0));
+  }
+
+  /** Closes the running segment and returns totals since the previous drain, resetting them. */
+  public synchronized VoiceTotals drain(long now) {
+    closeSegment(now);
+    VoiceTotals totals =
+        new VoiceTotals(
+            connectedAt,
+            Math.max(now - windowStart, 0),
+            msAlone,
+            msWithOthers,
+            msMuted,
+            msDeafened,
+            msActive,
+            msEligible,
+            joins);
+    windowStart = now;
+    msAlone = msWithOthers = msMuted = msDeafened = msActive = msEligible = 0;
+    joins = 0;
+    return totals;
+  }
+
+  /** Totals since the previous drain including the running segment, without resetting them. */
+  public synchronized VoiceTotals peek(long now) {
+    long delta = Math.max(now - segmentStart, 0);
+    boolean withOthers = (flags & WITH_OTHERS) != 0;
+    boolean muted = (flags & MUTED) != 0;
+    boolean deafened = (flags & DEAFENED) != 0;
+    boolean eligible = !muted && !deafened;
+    return new VoiceTotals(
+        connectedAt,
+        Math.max(now - windowStart, 0),
+        msAlone + (withOthers ? 0 : delta),
+        msWithOthers + (withOthers ? delta : 0),
+        msMuted + (muted ? delta : 0),
+        msDeafened + (deafened ? delta : 0),
+        msActive + (eligible && withOthers ? delta : 0),
+        msEligible + (eligible ? delta : 0),
+        joins);
+  }
+
+  private void closeSegment(long now) {
+    long delta = now - segmentStart;
+    segmentStart = now;
+    if (delta <= 0) return;
+    boolean withOthers = (flags & WITH_OTHERS) != 0;
+    boolean muted = (flags & MUTED) != 0;
+    boolean deafened = (flags & DEAFENED) != 0;
+    if (withOthers) msWithOthers += delta;
+    else msAlone += delta;
+    if (muted) msMuted += delta;
+    if (deafened) msDeafened += delta;
+    if (!muted && !deafened) {
+      msEligible += delta;
+      if (withOthers) msActive += delta;
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package ua.beengoo.uahub.bot.module.rank.data;
+
+import ua.beengoo.uahub.bot.module.rank.model.RankStats;
+
+/**
+ * Voice time accumulated by a session since its previous flush.
+ *
+ * @param sessionStart when the member connected
+ * @param windowMs length of the flushed window
+ * @param msEligible time in the window not muted and not deafened (eligible for voice points)
+ * @param joins voice joins to count
+ */
+public record VoiceTotals(
+    long sessionStart,
+    long windowMs,
+    long msAlone,
+    long msWithOthers,
+    long msMuted,
+    long msDeafened,
+    long msActive,
+    long msEligible,
+    int joins) {
+
+  /** Sums two totals of the same member, keeping the later session start. */
+  public VoiceTotals plus(VoiceTotals o) {
+    return new VoiceTotals(
+        Math.max(sessionStart, o.sessionStart),
+        windowMs + o.windowMs,
+        msAlone + o.msAlone,
+        msWithOthers + o.msWithOthers,
+        msMuted + o.msMuted,
+        msDeafened + o.msDeafened,
+        msActive + o.msActive,
+        msEligible + o.msEligible,
+        joins + o.joins);
+  }
+
+  /** Adds the time buckets and join count to persisted stats. */
+  public void applyTo(RankStats stats) {
+    stats.addVoiceMsAlone(msAlone);
+    stats.addVoiceMsWithOthers(msWithOthers);
+    stats.addVoiceMsMuted(msMuted);
+    stats.addVoiceMsDeafened(msDeafened);
+    stats.addVoiceMsActive(msActive);
+    for (int i = 0; i < joins; i++) stats.incVoiceJoins();
+  }
+}
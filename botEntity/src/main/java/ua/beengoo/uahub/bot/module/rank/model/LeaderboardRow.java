@@ -0,0 +1,16 @@
+package ua.beengoo.uahub.bot.module.rank.model;
+
+/** Leaderboard columns of one member, read without hydrating {@link RankStats} entities. */
+public interface LeaderboardRow {
+  Long getDiscordId();
+
+  Double getMemberMultiplier();
+
+  Double getLevel();
+
+  Double getVoicePoints();
+
+  Double getChatPoints();
+
+  Double getPrimePoints();
+}
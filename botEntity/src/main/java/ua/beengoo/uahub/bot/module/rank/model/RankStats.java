@@ -11,7 +11,14 @@ import ua.beengoo.uahub.bot.module.identity.model.ServerMember;
  */
 @Entity
 @Data
-@Table(name = "rank_stats")
+@Table(
+    name = "rank_stats",
+    indexes = {
+      @Index(name = "ix_rank_stats_level", columnList = "level"),
+      @Index(name = "ix_rank_stats_voice_points", columnList = "voice_points"),
+      @Index(name = "ix_rank_stats_chat_points", columnList = "chat_points"),
+      @Index(name = "ix_rank_stats_prime_points", columnList = "prime_points")
+    })
 public class RankStats {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -83,6 +90,26 @@ public class RankStats {
     setMemberMultiplier(getMemberMultiplier() + multiplier);
   }
 
+  /** Detached copy for read-only projections; shares the member reference and is never saved. */
+  public RankStats copy() {
+    RankStats c = new RankStats();
+    c.setId(id);
+    c.setServerMember(serverMember);
+    c.setPrimePoints(primePoints);
+    c.setVoicePoints(voicePoints);
+    c.setLevel(level);
+    c.setChatPoints(chatPoints);
+    c.setMemberMultiplier(memberMultiplier);
+    c.setMessagesSent(messagesSent);
+    c.setVoiceJoins(voiceJoins);
+    c.setVoiceMsAlone(voiceMsAlone);
+    c.setVoiceMsWithOthers(voiceMsWithOthers);
+    c.setVoiceMsMuted(voiceMsMuted);
+    c.setVoiceMsDeafened(voiceMsDeafened);
+    c.setVoiceMsActive(voiceMsActive);
+    return c;
+  }
+
   /** Competitive points used for leaderboards (chat + voice). */
   public double getCompetitivePoints() {
     return getChatPoints() + getVoicePoints();
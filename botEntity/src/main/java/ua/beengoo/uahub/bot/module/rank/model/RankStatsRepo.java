@@ -0,0 +1,77 @@
+package ua.beengoo.uahub.bot.module.rank.model;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Leaderboard reads on {@link RankStats} returning {@link LeaderboardRow} projections.
+ *
+ * <p>Pages are ordered by metric descending, then Discord id, and are served by the metric
+ * indexes of {@code rank_stats}. Competitive points are ordered by {@code level}, which grows
+ * monotonically with chat + voice points.
+ */
+@Repository
+public interface RankStatsRepo extends JpaRepository<RankStats, Long> {
+  String ROW_SELECT =
+      """
+      SELECT m.discord_id AS "discordId", rs.multiplier AS "memberMultiplier",
+             rs.level AS "level", rs.voice_points AS "voicePoints",
+             rs.chat_points AS "chatPoints", rs.prime_points AS "primePoints"
+      FROM rank_stats rs JOIN members m ON m.id = rs.members_id
+      """;
+
+  /** All rows, used to build the in-memory leaderboards. */
+  @Query(nativeQuery = true, value = ROW_SELECT)
+  List<LeaderboardRow> findAllRows();
+
+  @Query(
+      nativeQuery = true,
+      value =
+          ROW_SELECT
+              + " ORDER BY rs.level DESC, m.discord_id LIMIT :limit OFFSET :offset")
+  List<LeaderboardRow> pageByLevel(@Param("offset") long offset, @Param("limit") int limit);
+
+  @Query(
+      nativeQuery = true,
+      value =
+          ROW_SELECT
+              + " ORDER BY rs.voice_points DESC, m.discord_id LIMIT :limit OFFSET :offset")
+  List<LeaderboardRow> pageByVoice(@Param("offset") long offset, @Param("limit") int limit);
+
+  @Query(
+      nativeQuery = true,
+      value =
+          ROW_SELECT
+              + " ORDER BY rs.chat_points DESC, m.discord_id LIMIT :limit OFFSET :offset")
+  List<LeaderboardRow> pageByChat(@Param("offset") long offset, @Param("limit") int limit);
+
+  @Query(
+      nativeQuery = true,
+      value =
+          ROW_SELECT
+              + " ORDER BY rs.prime_points DESC, m.discord_id LIMIT :limit OFFSET :offset")
+  List<LeaderboardRow> pageByPrime(@Param("offset") long offset, @Param("limit") int limit);
+
+  /**
+   * Number of members above a level. The position of a value, i.e. its {@code RANK() OVER (ORDER
+   * BY level DESC)}, is this count plus one; counting is an index range scan while the window
+   * function would rank every row.
+   */
+  long countByLevelGreaterThan(double level);
+
+  /** Number of members above a voice points value, see {@link #countByLevelGreaterThan}. */
+  long countByVoicePointsGreaterThan(double voicePoints);
+
+  /** Number of members above a chat points value, see {@link #countByLevelGreaterThan}. */
+  long countByChatPointsGreaterThan(double chatPoints);
+
+  /** Number of members above a prime points value, see {@link #countByLevelGreaterThan}. */
+  long countByPrimePointsGreaterThan(double primePoints);
+
+  /** Number of members above a competitive points value (not index backed). */
+  @Query("select count(rs) from RankStats rs where rs.chatPoints + rs.voicePoints > :points")
+  long countByCompetitivePointsGreaterThan(@Param("points") double points);
+}
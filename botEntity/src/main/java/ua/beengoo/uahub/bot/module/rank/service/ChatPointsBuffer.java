@@ -0,0 +1,168 @@
+package ua.beengoo.uahub.bot.module.rank.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ua.beengoo.uahub.bot.module.identity.model.ServerMember;
+import ua.beengoo.uahub.bot.module.identity.service.ServerMemberController;
+import ua.beengoo.uahub.bot.module.rank.model.RankStats;
+
+/**
+ * Write-behind buffer for chat activity.
+ *
+ * <p>Messages only update in-memory per-member deltas; pending deltas are applied to {@link
+ * RankStats} in one batch on a short interval and on shutdown.
+ */
+@Service
+@Slf4j
+public class ChatPointsBuffer {
+  private final ServerMemberController serverMemberController;
+  private final LeaderboardIndex leaderboardIndex;
+
+  private final Map<Long, PendingChat> pending = new ConcurrentHashMap<>();
+
+  public ChatPointsBuffer(
+      ServerMemberController serverMemberController, LeaderboardIndex leaderboardIndex) {
+    this.serverMemberController = serverMemberController;
+    this.leaderboardIndex = leaderboardIndex;
+  }
+
+  /**
+   * Buffers one message for a member.
+   *
+   * @param discordId Discord user id
+   * @param amount base chat points per message
+   * @param sharedMultiplier channel + role multiplier, the member multiplier is added here
+   * @return projected level including not yet flushed points
+   */
+  public double add(long discordId, double amount, double sharedMultiplier) {
+    while (true) {
+      // Load outside of compute: the map holds the bin lock for the whole remapping
+      PendingChat loaded = pending.containsKey(discordId) ? null : load(discordId);
+      PendingChat entry =
+          pending.compute(
+              discordId,
+              (id, e) -> {
+                if (e == null) e = loaded;
+                if (e == null) return null; // drained by a flush since the check, load again
+                e.chatPoints += amount * (sharedMultiplier + e.memberMultiplier);
+                e.messages++;
+                return e;
+              });
+      if (entry != null) return RankingService.levelFor(entry.basePoints + entry.chatPoints);
+    }
+  }
+
+  /**
+   * Adds not yet flushed chat deltas of a member to a detached stats copy.
+   *
+   * @return {@code true} if the member had pending deltas
+   */
+  public boolean overlay(long discordId, RankStats target) {
+    boolean[] found = new boolean[1];
+    pending.computeIfPresent(
+        discordId,
+        (id, e) -> {
+          target.addChatPoints(e.chatPoints);
+          target.setMessagesSent(target.getMessagesSent() + e.messages);
+          found[0] = true;
+          return e;
+        });
+    return found[0];
+  }
+
+  /** Whether a member has chat deltas waiting for the next flush. */
+  public boolean hasPending(long discordId) {
+    return pending.containsKey(discordId);
+  }
+
+  /** Writes all pending deltas in one batch. */
+  @Scheduled(fixedDelay = 5000)
+  public void flush() {
+    if (pending.isEmpty()) return;
+    Map<Long, PendingChat> drained = new HashMap<>();
+    for (Long id : pending.keySet()) {
+      PendingChat e = pending.remove(id);
+      if (e != null) drained.put(id, e);
+    }
+    write(drained);
+  }
+
+  /** Writes pending deltas of a single member, e.g. before an admin edits the stats directly. */
+  public void flush(long discordId) {
+    PendingChat e = pending.remove(discordId);
+    if (e != null) write(Map.of(discordId, e));
+  }
+
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+  }
+
+  private void write(Map<Long, PendingChat> drained) {
+    if (drained.isEmpty()) return;
+    List<RankStats> changedStats;
+    try {
+      List<ServerMember> members = serverMemberController.getByDiscordIds(drained.keySet());
+      List<ServerMember> changed = new ArrayList<>(members.size());
+      changedStats = new ArrayList<>(members.size());
+      for (ServerMember sm : members) {
+        PendingChat e = drained.get(sm.getDiscordId());
+        if (e == null) continue;
+        RankStats stats = sm.getRankStats();
+        stats.addChatPoints(e.chatPoints);
+        stats.setMessagesSent(stats.getMessagesSent() + e.messages);
+        stats.setLevel(RankingService.levelFor(stats.getCompetitivePoints()));
+        changed.add(sm);
+        changedStats.add(stats);
+      }
+      serverMemberController.updateMembers(changed);
+    } catch (RuntimeException ex) {
+      log.warn("Unable to flush chat points for {} members: {}", drained.size(), ex.getMessage());
+      drained.forEach(this::restore);
+      return;
+    }
+    // The deltas are saved at this point; a failing index update must not put them back
+    try {
+      leaderboardIndex.updateAll(changedStats);
+    } catch (RuntimeException ex) {
+      log.warn("Unable to update leaderboard index after chat flush: {}", ex.getMessage());
+    }
+  }
+
+  /** Puts back deltas of a failed write so they are retried on the next flush. */
+  private void restore(long discordId, PendingChat failed) {
+    pending.merge(
+        discordId,
+        failed,
+        (current, old) -> {
+          current.chatPoints += old.chatPoints;
+          current.messages += old.messages;
+          return current;
+        });
+  }
+
+  private PendingChat load(long discordId) {
+    RankStats stats = serverMemberController.addMemberOrNothing(discordId).getRankStats();
+    return new PendingChat(stats.getCompetitivePoints(), stats.getMemberMultiplier());
+  }
+
+  /** Unflushed chat delta plus the member values it was computed against. */
+  private static final class PendingChat {
+    private final double basePoints;
+    private final double memberMultiplier;
+    private double chatPoints;
+    private long messages;
+
+    private PendingChat(double basePoints, double memberMultiplier) {
+      this.basePoints = basePoints;
+      this.memberMultiplier = memberMultiplier;
+    }
+  }
+}
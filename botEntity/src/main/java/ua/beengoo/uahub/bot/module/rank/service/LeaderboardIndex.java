@@ -0,0 +1,125 @@
+package ua.beengoo.uahub.bot.module.rank.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import ua.beengoo.uahub.bot.module.rank.data.LeaderboardEntry;
+import ua.beengoo.uahub.bot.module.rank.data.LeaderboardMetric;
+import ua.beengoo.uahub.bot.module.rank.data.ScoreTree;
+import ua.beengoo.uahub.bot.module.rank.model.LeaderboardRow;
+import ua.beengoo.uahub.bot.module.rank.model.RankStats;
+import ua.beengoo.uahub.bot.module.rank.model.RankStatsRepo;
+
+/**
+ * In-memory leaderboards, one order-statistic tree per {@link LeaderboardMetric}.
+ *
+ * <p>Loaded once on startup from {@link RankStatsRepo} projections and kept current by every write
+ * of rank stats, so /top and /rank never load or sort all members. Until the load has finished,
+ * reads fall back to one paged or counting query each.
+ */
+@Service
+@Slf4j
+public class LeaderboardIndex {
+  private final RankStatsRepo rankStatsRepo;
+
+  private final Map<Long, LeaderboardEntry> entries = new HashMap<>();
+  private final Map<LeaderboardMetric, ScoreTree> trees = new EnumMap<>(LeaderboardMetric.class);
+  private volatile boolean loaded;
+
+  public LeaderboardIndex(RankStatsRepo rankStatsRepo) {
+    this.rankStatsRepo = rankStatsRepo;
+    for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+      trees.put(metric, new ScoreTree());
+    }
+  }
+
+  /** Loads all stored stats. Members updated before the load finished keep their newer values. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    List<LeaderboardRow> rows = rankStatsRepo.findAllRows();
+    synchronized (this) {
+      for (LeaderboardRow row : rows) {
+        if (!entries.containsKey(row.getDiscordId())) put(LeaderboardEntry.of(row));
+      }
+      loaded = true;
+    }
+    log.info("Leaderboards loaded with {} members", rows.size());
+  }
+
+  /** Puts the current values of a member, replacing older ones. */
+  public synchronized void update(RankStats stats) {
+    put(LeaderboardEntry.of(stats));
+  }
+
+  /** Puts the current values of several members, e.g. after a batch write. */
+  public synchronized void updateAll(Collection<RankStats> stats) {
+    for (RankStats s : stats) put(LeaderboardEntry.of(s));
+  }
+
+  /** 1-based position of a value; members with equal values share the position. */
+  public long position(LeaderboardMetric metric, double value) {
+    if (!loaded) return countAbove(metric, value) + 1;
+    synchronized (this) {
+      return trees.get(metric).countAbove(value) + 1;
+    }
+  }
+
+  /** Up to {@code limit} entries starting at the 0-based position {@code offset}. */
+  public List<LeaderboardEntry> page(LeaderboardMetric metric, int offset, int limit) {
+    if (!loaded) return queryPage(metric, offset, limit);
+    synchronized (this) {
+      long[] ids = trees.get(metric).page(offset, limit);
+      List<LeaderboardEntry> page = new ArrayList<>(ids.length);
+      for (long id : ids) page.add(entries.get(id));
+      return page;
+    }
+  }
+
+  /** Number of ranked members. */
+  public long size() {
+    if (!loaded) return rankStatsRepo.count();
+    synchronized (this) {
+      return entries.size();
+    }
+  }
+
+  private long countAbove(LeaderboardMetric metric, double value) {
+    return switch (metric) {
+      case COMPETITIVE -> rankStatsRepo.countByCompetitivePointsGreaterThan(value);
+      case VOICE -> rankStatsRepo.countByVoicePointsGreaterThan(value);
+      case CHAT -> rankStatsRepo.countByChatPointsGreaterThan(value);
+      case PRIME -> rankStatsRepo.countByPrimePointsGreaterThan(value);
+      case LEVEL -> rankStatsRepo.countByLevelGreaterThan(value);
+    };
+  }
+
+  private List<LeaderboardEntry> queryPage(LeaderboardMetric metric, int offset, int limit) {
+    List<LeaderboardRow> rows =
+        switch (metric) {
+          case COMPETITIVE, LEVEL -> rankStatsRepo.pageByLevel(offset, limit);
+          case VOICE -> rankStatsRepo.pageByVoice(offset, limit);
+          case CHAT -> rankStatsRepo.pageByChat(offset, limit);
+          case PRIME -> rankStatsRepo.pageByPrime(offset, limit);
+        };
+    return rows.stream().map(LeaderboardEntry::of).toList();
+  }
+
+  private void put(LeaderboardEntry entry) {
+    LeaderboardEntry old = entries.put(entry.discordId(), entry);
+    for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+      ScoreTree tree = trees.get(metric);
+      if (old != null) {
+        if (old.value(metric) == entry.value(metric)) continue;
+        tree.remove(old.value(metric), old.discordId());
+      }
+      tree.insert(entry.value(metric), entry.discordId());
+    }
+  }
+}
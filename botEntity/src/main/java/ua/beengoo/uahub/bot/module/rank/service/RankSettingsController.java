@@ -1,6 +1,10 @@
 package ua.beengoo.uahub.bot.module.rank.service;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import org.springframework.stereotype.Service;
+import ua.beengoo.uahub.bot.module.rank.data.RankSettingsSnapshot;
 import ua.beengoo.uahub.bot.module.rank.model.RankSettings;
 import ua.beengoo.uahub.bot.module.rank.model.RankSettingsRepo;
 
@@ -9,6 +13,10 @@ public class RankSettingsController {
 
   private final RankSettingsRepo rankSettingsRepo;
 
+  private final Map<Long, RankSettingsSnapshot> snapshots = new ConcurrentHashMap<>();
+  /** Bumped by every invalidation, so a snapshot loaded before one is not kept after it. */
+  private final AtomicLong generation = new AtomicLong();
+
   public RankSettingsController(RankSettingsRepo rankSettingsRepo) {
     this.rankSettingsRepo = rankSettingsRepo;
   }
@@ -20,13 +28,43 @@ public class RankSettingsController {
    * @return settings entity
    */
   public RankSettings getSettings(long serverId) {
-    if (rankSettingsRepo.existsByServerId(serverId)) {
-      return rankSettingsRepo.findByServerId(serverId).orElse(null);
-    } else {
-      RankSettings rs = new RankSettings();
-      rs.setServerId(serverId);
-      rankSettingsRepo.save(rs);
-      return rs;
-    }
+    return rankSettingsRepo
+        .findByServerId(serverId)
+        .orElseGet(
+            () -> {
+              RankSettings rs = new RankSettings();
+              rs.setServerId(serverId);
+              return rankSettingsRepo.save(rs);
+            });
+  }
+
+  /**
+   * Returns the cached settings snapshot for a server, loading it on first use.
+   *
+   * @param serverId guild id
+   * @return immutable snapshot including the role ladder
+   */
+  public RankSettingsSnapshot getSnapshot(long serverId) {
+    RankSettingsSnapshot cached = snapshots.get(serverId);
+    if (cached != null) return cached;
+    // Load outside of compute: the map holds the bin lock for the whole remapping
+    long loadedAt = generation.get();
+    RankSettingsSnapshot loaded = RankSettingsSnapshot.of(getSettings(serverId));
+    RankSettingsSnapshot raced = snapshots.putIfAbsent(serverId, loaded);
+    if (raced != null) return raced;
+    if (generation.get() != loadedAt) snapshots.remove(serverId, loaded);
+    return loaded;
+  }
+
+  /** Drops the cached snapshot of a server after its settings or role links changed. */
+  public void invalidate(long serverId) {
+    generation.incrementAndGet();
+    snapshots.remove(serverId);
+  }
+
+  /** Drops all cached snapshots. */
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    snapshots.clear();
   }
 }
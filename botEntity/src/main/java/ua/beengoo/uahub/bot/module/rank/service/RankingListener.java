@@ -1,5 +1,7 @@
 package ua.beengoo.uahub.bot.module.rank.service;
 
+import net.dv8tion.jda.api.events.guild.voice.GuildVoiceDeafenEvent;
+import net.dv8tion.jda.api.events.guild.voice.GuildVoiceMuteEvent;
 import net.dv8tion.jda.api.events.guild.voice.GuildVoiceUpdateEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
@@ -28,6 +30,16 @@ public class RankingListener extends ListenerAdapter {
     rankingService.updateVoiceState(event);
   }
 
+  @Override
+  public void onGuildVoiceMute(@NotNull GuildVoiceMuteEvent event) {
+    rankingService.updateVoiceFlags(event.getMember());
+  }
+
+  @Override
+  public void onGuildVoiceDeafen(@NotNull GuildVoiceDeafenEvent event) {
+    rankingService.updateVoiceFlags(event.getMember());
+  }
+
   @Override
   public void onReady(@NotNull ReadyEvent event) {
     try {
@@ -1,23 +1,29 @@
 package ua.beengoo.uahub.bot.module.rank.service;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.GuildVoiceState;
 import net.dv8tion.jda.api.entities.Member;
-import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.channel.middleman.AudioChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildChannel;
 import net.dv8tion.jda.api.entities.channel.unions.AudioChannelUnion;
 import net.dv8tion.jda.api.events.guild.voice.GuildVoiceUpdateEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import ua.beengoo.uahub.bot.HubBot;
 import ua.beengoo.uahub.bot.module.identity.model.ServerMember;
 import ua.beengoo.uahub.bot.module.identity.service.ServerMemberController;
-import ua.beengoo.uahub.bot.module.rank.data.VoiceMember;
+import ua.beengoo.uahub.bot.module.rank.data.RankSettingsSnapshot;
+import ua.beengoo.uahub.bot.module.rank.data.MemberKey;
+import ua.beengoo.uahub.bot.module.rank.data.VoiceSession;
+import ua.beengoo.uahub.bot.module.rank.data.VoiceTotals;
 import ua.beengoo.uahub.bot.module.rank.model.*;
 
 /**
@@ -32,16 +38,32 @@ public class RankingService {
     private final RankingStatsService rankingStatsService;
     private final RoleToLevelRepo roleToLevelRepo;
     private final RankSettingsController rankSettingsController;
+    private final ChatPointsBuffer chatPointsBuffer;
+    private final RoleReconciler roleReconciler;
+    private final LeaderboardIndex leaderboardIndex;
 
-    private final Map<Member, VoiceMember> voiceRankingPool =
-            Collections.synchronizedMap(new HashMap<>());
+    private final ObjectProvider<JDA> jdaProvider;
+
+    /** Open voice sessions by (guild id, user id); holds no JDA entities. */
+    private final Map<MemberKey, VoiceSession> voiceRankingPool = new ConcurrentHashMap<>();
+
+    /** Totals of sessions that ended since the last flush. */
+    private final Map<MemberKey, VoiceTotals> departedSessions = new ConcurrentHashMap<>();
 
     public RankingService(
             ServerMemberController serverMemberController,
             RankSettingsController rankSettingsController,
             RankingStatsService rankingStatsService,
-            RoleToLevelRepo roleToLevelRepo) {
+            RoleToLevelRepo roleToLevelRepo,
+            ChatPointsBuffer chatPointsBuffer,
+            RoleReconciler roleReconciler,
+            LeaderboardIndex leaderboardIndex,
+            ObjectProvider<JDA> jdaProvider) {
+        this.leaderboardIndex = leaderboardIndex;
+        this.jdaProvider = jdaProvider;
         this.serverMemberController = serverMemberController;
+        this.chatPointsBuffer = chatPointsBuffer;
+        this.roleReconciler = roleReconciler;
         this.roleToLevelRepo = roleToLevelRepo;
         this.rankSettingsController = rankSettingsController;
         this.rankingStatsService = rankingStatsService;
@@ -49,12 +71,17 @@ public class RankingService {
 
     /** Save role to rank link */
     public RoleToLevel saveRoleToLevel(RoleToLevel roleToLevel) {
-        return roleToLevelRepo.save(roleToLevel);
+        RoleToLevel saved = roleToLevelRepo.save(roleToLevel);
+        rankSettingsController.invalidate(roleToLevel.getRankSettings().getServerId());
+        roleReconciler.reset();
+        return saved;
     }
 
     /** Remove role to rank link */
     public void removeRoleToLevel(long roleId) {
         roleToLevelRepo.deleteByRoleId(roleId);
+        rankSettingsController.invalidateAll();
+        roleReconciler.reset();
     }
 
     /** Returns if given role managed as Role To Level link */
@@ -90,126 +117,239 @@ public class RankingService {
     }
 
     /**
-     * Periodically samples voice participants to award voice points and update extended voice-time
-     * metrics.
+     * Flushes voice time accumulated by the segment engine in one batch and awards voice points.
+     *
+     * <p>Points keep the session combo (minutes connected, capped) but are scaled by the share of
+     * the window the member was actually eligible, i.e. not muted and not deafened. Pooled members
+     * are grouped by their current channel so guild lookups and the channel multiplier are
+     * resolved once per channel rather than once per member.
      */
     @Scheduled(fixedDelay = 600000)
     public void updateVoiceRankState() {
-        long currentTime = System.currentTimeMillis();
-        voiceRankingPool.forEach(
-                (member, voiceMember) -> {
-                    assert member.getVoiceState() != null;
-                    StandardGuildChannel channel = member.getVoiceState().getChannel();
-
-                    if (channel != null && validForVoicePool(member)) {
-                        long joinTime = voiceMember.getTimeConnected();
-                        double points = (double) ((currentTime - joinTime) / 60000);
-                        if (points >= MAX_VOICE_SESSION_POINTS_COMBO) {
-                            points = MAX_VOICE_SESSION_POINTS_COMBO;
-                        }
-                        awardVoicePoints(member, channel, points);
-                    }
-
-                    // Accumulate detailed voice stats (delta-based) for all members in pool
-                    long last = voiceMember.getLastSampleTime();
-                    if (last <= 0) last = currentTime;
-                    long delta = currentTime - last;
-                    if (delta > 0) {
-                        ServerMember sm = serverMemberController.addMemberOrNothing(member.getIdLong());
-                        RankStats stats = sm.getRankStats();
-                        int humanCount = 0;
-                        if (channel != null) {
-                            humanCount =
-                                    (int) channel.getMembers().stream().filter(m -> !m.getUser().isBot()).count();
-                        }
-                        boolean withOthers = humanCount >= 2;
-                        boolean muted =
-                                member.getVoiceState().isMuted() || member.getVoiceState().isSelfMuted();
-                        boolean deafened =
-                                member.getVoiceState().isDeafened() || member.getVoiceState().isSelfDeafened();
-
-                        if (withOthers) stats.addVoiceMsWithOthers(delta);
-                        else stats.addVoiceMsAlone(delta);
-                        if (muted) stats.addVoiceMsMuted(delta);
-                        if (deafened) stats.addVoiceMsDeafened(delta);
-                        if (withOthers && !muted && !deafened) stats.addVoiceMsActive(delta);
-
-                        serverMemberController.updateMember(sm);
-                    }
-                    voiceMember.setLastSampleTime(currentTime);
-                });
+        long now = System.currentTimeMillis();
+        JDA jda = jdaProvider.getIfAvailable();
+        if (jda == null) return;
+        Map<Long, Guild> guilds = new HashMap<>();
+        Map<Long, ChannelFlush> channels = new HashMap<>();
+        Set<Long> ids = new HashSet<>();
+        for (Map.Entry<MemberKey, VoiceSession> entry : voiceRankingPool.entrySet()) {
+            MemberKey key = entry.getKey();
+            VoiceTotals totals = entry.getValue().drain(now);
+            Guild guild = guilds.computeIfAbsent(key.guildId(), jda::getGuildById);
+            Member member = guild != null ? guild.getMemberById(key.userId()) : null;
+            GuildVoiceState state = member != null ? member.getVoiceState() : null;
+            if (state == null || state.getChannel() == null) {
+                // Missed leave (e.g. across a reconnect): keep the time, end the session
+                voiceRankingPool.remove(key, entry.getValue());
+                departedSessions.merge(key, totals, VoiceTotals::plus);
+                continue;
+            }
+            AudioChannel channel = state.getChannel();
+            channels.computeIfAbsent(channel.getIdLong(), id -> new ChannelFlush(channel))
+                    .add(member, totals);
+            ids.add(key.userId());
+        }
+        Map<Long, VoiceTotals> departedTotals = new HashMap<>();
+        for (MemberKey key : departedSessions.keySet()) {
+            VoiceTotals totals = departedSessions.remove(key);
+            if (totals != null) departedTotals.merge(key.userId(), totals, VoiceTotals::plus);
+        }
+        if (channels.isEmpty() && departedTotals.isEmpty()) return;
+
+        ids.addAll(departedTotals.keySet());
+        Map<Long, ServerMember> byId = new HashMap<>();
+        for (ServerMember sm : serverMemberController.getByDiscordIds(ids)) {
+            byId.put(sm.getDiscordId(), sm);
+        }
+        for (Long id : ids) {
+            if (!byId.containsKey(id)) byId.put(id, serverMemberController.addMemberOrNothing(id));
+        }
+
+        departedTotals.forEach((id, departed) -> {
+            RankStats stats = statsOf(byId, id);
+            if (stats != null) departed.applyTo(stats);
+        });
+        for (ChannelFlush flush : channels.values()) {
+            double channelMultiplier = rankingStatsService.getBestChannelMultiplier(flush.channel);
+            for (int i = 0; i < flush.members.size(); i++) {
+                Member member = flush.members.get(i);
+                VoiceTotals totals = flush.totals.get(i);
+                RankStats stats = statsOf(byId, member.getIdLong());
+                if (stats == null) continue;
+                totals.applyTo(stats);
+
+                double points = sessionPoints(totals, now);
+                if (points <= 0) continue;
+                double multiplier = channelMultiplier
+                        + rankingStatsService.getBestRoleMultiplier(member)
+                        + stats.getMemberMultiplier();
+                stats.addVoicePoints(points * multiplier);
+                updateLevel(stats);
+                roleReconciler.onLevelChanged(member, stats.getLevel());
+                log.info("Final amount of voice points for {} {}", member.getEffectiveName(), points * multiplier);
+            }
+        }
+        List<ServerMember> members = byId.values().stream()
+                .filter(sm -> sm != null && sm.getRankStats() != null)
+                .toList();
+        serverMemberController.updateMembers(members);
+        leaderboardIndex.updateAll(members.stream().map(ServerMember::getRankStats).toList());
+    }
+
+    /** Stats of a loaded member; members without stats are logged and left out of the flush. */
+    private static RankStats statsOf(Map<Long, ServerMember> byId, long discordId) {
+        ServerMember sm = byId.get(discordId);
+        RankStats stats = sm != null ? sm.getRankStats() : null;
+        if (stats == null) log.warn("No rank stats for member {}, skipping voice time", discordId);
+        return stats;
     }
 
-    /** Updates pool membership and stats on voice state changes. */
+    /** Pooled members of one channel with their drained totals, flushed as a unit. */
+    private static final class ChannelFlush {
+        private final AudioChannel channel;
+        private final List<Member> members = new ArrayList<>();
+        private final List<VoiceTotals> totals = new ArrayList<>();
+
+        private ChannelFlush(AudioChannel channel) {
+            this.channel = channel;
+        }
+
+        private void add(Member member, VoiceTotals drained) {
+            members.add(member);
+            totals.add(drained);
+        }
+    }
+
+    /**
+     * Unflushed voice totals of pooled and ended sessions by user id. Reads only, nothing is
+     * drained or written.
+     */
+    public Map<Long, VoiceTotals> peekVoiceTotals() {
+        long now = System.currentTimeMillis();
+        Map<Long, VoiceTotals> totals = new HashMap<>();
+        voiceRankingPool.forEach((key, session) ->
+                totals.merge(key.userId(), session.peek(now), VoiceTotals::plus));
+        departedSessions.forEach((key, departed) ->
+                totals.merge(key.userId(), departed, VoiceTotals::plus));
+        return totals;
+    }
+
+    /** Live read-only view of a member's stats, see {@link #liveStats(RankStats, Map)}. */
+    public RankStats liveStats(RankStats persisted) {
+        return liveStats(persisted, peekVoiceTotals());
+    }
+
+    /**
+     * Overlays unflushed chat points and voice time on persisted stats.
+     *
+     * @param persisted stats as stored
+     * @param voiceTotals result of {@link #peekVoiceTotals()}
+     * @return {@code persisted} itself when nothing is pending, otherwise a detached copy
+     */
+    public RankStats liveStats(RankStats persisted, Map<Long, VoiceTotals> voiceTotals) {
+        long discordId = persisted.getServerMember().getDiscordId();
+        VoiceTotals voice = voiceTotals.get(discordId);
+        if (voice == null && !chatPointsBuffer.hasPending(discordId)) return persisted;
+        RankStats live = persisted.copy();
+        if (voice != null) voice.applyTo(live);
+        if (chatPointsBuffer.overlay(discordId, live)) updateLevel(live);
+        return live;
+    }
+
+    /** Session combo points for a flushed window, scaled by the eligible share of the window. */
+    static double sessionPoints(VoiceTotals totals, long now) {
+        if (totals.windowMs() <= 0 || totals.msEligible() <= 0) return 0;
+        double combo = (double) ((now - totals.sessionStart()) / 60000);
+        if (combo >= MAX_VOICE_SESSION_POINTS_COMBO) {
+            combo = MAX_VOICE_SESSION_POINTS_COMBO;
+        }
+        return combo * Math.min(1.0, (double) totals.msEligible() / totals.windowMs());
+    }
+
+    /**
+     * Segment engine entry for joins, leaves and moves: closes the affected segments and opens new
+     * ones. Channels whose human count changed are re-segmented as well.
+     */
     public void updateVoiceState(GuildVoiceUpdateEvent event) {
         AudioChannelUnion joinedChannel = event.getChannelJoined();
         AudioChannelUnion leftChannel = event.getChannelLeft();
-
-        if (joinedChannel != null) {
-            // Always track members in pool for stats, regardless of mute/deafen state
-            if (!event.getMember().getUser().isBot()) {
-                voiceRankingPool.putIfAbsent(
-                        event.getMember(), new VoiceMember(System.currentTimeMillis()));
-                // Count joins only if it's not a move (move => both joined & left not null)
-                if (leftChannel == null) {
-                    ServerMember sm =
-                            serverMemberController.addMemberOrNothing(event.getMember().getIdLong());
-                    sm.getRankStats().incVoiceJoins();
-                    serverMemberController.updateMember(sm);
+        Member member = event.getMember();
+        long now = System.currentTimeMillis();
+
+        if (!member.getUser().isBot()) {
+            MemberKey key = MemberKey.of(member);
+            if (joinedChannel != null && leftChannel == null) {
+                VoiceSession session = new VoiceSession(now);
+                session.countJoin();
+                VoiceSession previous = voiceRankingPool.put(key, session);
+                if (previous != null) {
+                    departedSessions.merge(key, previous.drain(now), VoiceTotals::plus);
                 }
-            }
-        }
-        if (leftChannel != null) {
-            VoiceMember vm = voiceRankingPool.get(event.getMember());
-            if (vm != null) {
-                long now = System.currentTimeMillis();
-                long last = vm.getLastSampleTime();
-                if (last <= 0) last = now;
-                long delta = now - last;
-                if (delta > 0) {
-                    ServerMember sm =
-                            serverMemberController.addMemberOrNothing(event.getMember().getIdLong());
-                    RankStats stats = sm.getRankStats();
-                    int humanCount = 0;
-                    humanCount =
-                            (int) leftChannel.getMembers().stream().filter(m -> !m.getUser().isBot()).count();
-                    boolean withOthers = humanCount >= 2;
-                    boolean muted =
-                            event.getMember().getVoiceState().isMuted()
-                                    || event.getMember().getVoiceState().isSelfMuted();
-                    boolean deafened =
-                            event.getMember().getVoiceState().isDeafened()
-                                    || event.getMember().getVoiceState().isSelfDeafened();
-
-                    if (withOthers) stats.addVoiceMsWithOthers(delta);
-                    else stats.addVoiceMsAlone(delta);
-                    if (muted) stats.addVoiceMsMuted(delta);
-                    if (deafened) stats.addVoiceMsDeafened(delta);
-                    if (withOthers && !muted && !deafened) stats.addVoiceMsActive(delta);
-
-                    serverMemberController.updateMember(sm);
+            } else if (joinedChannel == null && leftChannel != null) {
+                VoiceSession session = voiceRankingPool.remove(key);
+                if (session != null) {
+                    departedSessions.merge(key, session.drain(now), VoiceTotals::plus);
                 }
+            } else if (joinedChannel != null) {
+                // Channel move keeps the session, the joined channel re-segment below moves it
+                voiceRankingPool.putIfAbsent(key, new VoiceSession(now));
             }
-            voiceRankingPool.remove(event.getMember());
+        }
+        resegmentChannel(leftChannel, now);
+        resegmentChannel(joinedChannel, now);
+    }
+
+    /** Segment engine entry for mute/deafen changes of a single member. */
+    public void updateVoiceFlags(Member member) {
+        VoiceSession session = voiceRankingPool.get(MemberKey.of(member));
+        GuildVoiceState state = member.getVoiceState();
+        if (session == null || state == null || state.getChannel() == null) return;
+        session.nextSegment(
+                System.currentTimeMillis(),
+                state.getChannel().getIdLong(),
+                session.isWithOthers(),
+                state.isMuted(),
+                state.isDeafened());
+    }
+
+    /** Starts new segments for every pooled member of a channel using one human count. */
+    private void resegmentChannel(AudioChannel channel, long now) {
+        if (channel == null) return;
+        List<Member> members = channel.getMembers();
+        int humans = 0;
+        for (Member m : members) {
+            if (!m.getUser().isBot()) humans++;
+        }
+        boolean withOthers = humans >= 2;
+        long guildId = channel.getGuild().getIdLong();
+        for (Member m : members) {
+            VoiceSession session = voiceRankingPool.get(new MemberKey(guildId, m.getIdLong()));
+            GuildVoiceState state = m.getVoiceState();
+            if (session == null || state == null) continue;
+            session.nextSegment(
+                    now, channel.getIdLong(), withOthers, state.isMuted(), state.isDeafened());
         }
     }
 
     /** Bootstrap current voice participants on ready (members who were already in voice). */
     public void bootstrapVoicePoolForGuild(net.dv8tion.jda.api.entities.Guild guild) {
         if (guild == null) return;
+        long now = System.currentTimeMillis();
         for (var vc : guild.getVoiceChannels()) {
             for (var m : vc.getMembers()) {
                 if (!m.getUser().isBot()) {
-                    voiceRankingPool.putIfAbsent(m, new VoiceMember(System.currentTimeMillis()));
+                    voiceRankingPool.putIfAbsent(MemberKey.of(m), new VoiceSession(now));
                 }
             }
+            resegmentChannel(vc, now);
         }
         for (var sc : guild.getStageChannels()) {
             for (var m : sc.getMembers()) {
                 if (!m.getUser().isBot()) {
-                    voiceRankingPool.putIfAbsent(m, new VoiceMember(System.currentTimeMillis()));
+                    voiceRankingPool.putIfAbsent(MemberKey.of(m), new VoiceSession(now));
                 }
             }
+            resegmentChannel(sc, now);
         }
     }
 
@@ -222,17 +362,14 @@ public class RankingService {
         } else return false;
     }
 
-    /** Awards chat points and updates level for a member. */
+    /** Awards chat points through the write-behind buffer; roles follow the projected level. */
     public void awardChatPoints(@NotNull Member member, @NotNull StandardGuildChannel channel) {
-        RankSettings rankSettings = rankSettingsController.getSettings(member.getGuild().getIdLong());
-        ServerMember serverMember = serverMemberController.addMemberOrNothing(member.getIdLong());
-        serverMember.getRankStats().incMessagesSent();
-        serverMember
-                .getRankStats()
-                .addChatPoints(rankSettings.getChatPointsAmount() * getFinalMultiplier(member, channel));
-        updateLevel(serverMember.getRankStats());
-        upgradeRole(member, serverMember.getRankStats());
-        serverMemberController.updateMember(serverMember);
+        RankSettingsSnapshot settings = rankSettingsController.getSnapshot(member.getGuild().getIdLong());
+        double sharedMultiplier = rankingStatsService.getBestChannelMultiplier(channel)
+                + rankingStatsService.getBestRoleMultiplier(member);
+        double level = chatPointsBuffer.add(
+                member.getIdLong(), settings.chatPointsAmount(), sharedMultiplier);
+        roleReconciler.onLevelChanged(member, level);
     }
 
     /** Returns the effective multiplier: best channel + best role + member multiplier. */
@@ -249,8 +386,9 @@ public class RankingService {
         ServerMember serverMember = serverMemberController.addMemberOrNothing(member.getIdLong());
         serverMember.getRankStats().addVoicePoints(points * getFinalMultiplier(member, channel));
         updateLevel(serverMember.getRankStats());
-        upgradeRole(member, serverMember.getRankStats());
+        roleReconciler.onLevelChanged(member, serverMember.getRankStats().getLevel());
         serverMemberController.updateMember(serverMember);
+        leaderboardIndex.update(serverMember.getRankStats());
         log.info("Final amount of voice points for {} {}",member.getEffectiveName(), points * getFinalMultiplier(member, channel));
     }
 
@@ -258,6 +396,7 @@ public class RankingService {
     public void awardPrimePoints(ServerMember member, long amount) {
         member.getRankStats().addPrimePoints(amount);
         serverMemberController.updateMember(member);
+        leaderboardIndex.update(member.getRankStats());
     }
 
     /** Calculates points required to reach the next level. */
@@ -277,84 +416,22 @@ public class RankingService {
         return Math.min(Math.max(progress * 100, 0), 100);
     }
 
+    /** Level for a given amount of competitive (chat + voice) points. */
+    public static double levelFor(double competitivePoints) {
+        return Math.sqrt(competitivePoints / 150);
+    }
+
     /** Recalculates member level from chat and voice points and returns  */
     public void updateLevel(RankStats stats) {
-        double level = Math.sqrt(((stats.getVoicePoints() + stats.getChatPoints()) / 150));
-        stats.setLevel(level);
+        stats.setLevel(levelFor(stats.getVoicePoints() + stats.getChatPoints()));
     }
 
     public void upgradeRole(Member member, RankStats stats) {
-        Guild guild = member.getGuild();
-        List<RoleToLevel> r2l = rankSettingsController.getSettings(guild.getIdLong()).getRoleLevelMappings();
-        List<Role> memberRoles = member.getRoles();
-
-        RoleToLevel targetRoleToLevel = r2l.stream()
-            .filter(rtl -> stats.getLevel() >= rtl.getLevelRequired())
-            .max(Comparator.comparingLong(RoleToLevel::getLevelRequired))
-            .orElse(null);
-
-        if (targetRoleToLevel == null) {
-            removeAllRankingRoles(member, r2l);
-            return;
-        }
-
-        Role targetRole = guild.getRoleById(targetRoleToLevel.getRoleId());
-
-        if (targetRole == null) {
-            return;
-        }
-
-        if (memberRoles.contains(targetRole)) {
-            return;
-        }
-
-        Set<Long> rankingRoleIds = r2l.stream()
-            .map(RoleToLevel::getRoleId)
-            .collect(Collectors.toSet());
-
-        List<Role> oldRankingRoles = memberRoles.stream()
-            .filter(role -> rankingRoleIds.contains(role.getIdLong()))
-            .collect(Collectors.toList());
-
-        if (oldRankingRoles.isEmpty()) {
-            guild.addRoleToMember(member, targetRole)
-                .reason("Level up to level " + stats.getLevel())
-                .queue();
-        } else {
-            try {
-                guild.modifyMemberRoles(member,
-                        Collections.singletonList(targetRole),
-                        oldRankingRoles)
-                    .reason("Level up to level " + (int) stats.getLevel())
-                    .queue();
-            } catch (Throwable e) {
-                log.warn("Unable to give role to user: {}", e.getMessage());
-            }
-
-        }
+        upgradeRole(member, stats.getLevel());
     }
 
-    /** Remove all ranking roles from a member */
-    private void removeAllRankingRoles(Member member, List<RoleToLevel> r2l) {
-        Set<Long> rankingRoleIds = r2l.stream()
-            .map(RoleToLevel::getRoleId)
-            .collect(Collectors.toSet());
-
-        List<Role> rolesToRemove = member.getRoles().stream()
-            .filter(role -> rankingRoleIds.contains(role.getIdLong()))
-            .collect(Collectors.toList());
-
-        if (!rolesToRemove.isEmpty()) {
-            try {
-                member.getGuild().modifyMemberRoles(member,
-                        Collections.emptyList(),
-                        rolesToRemove)
-                    .reason("Below minimum level requirement")
-                    .queue();
-            } catch (Throwable e) {
-                log.warn("Unable to remove member roles: {}", e.getMessage());
-            }
-
-        }
+    /** Gives the member the ranking role matching the given level and removes the others. */
+    public void upgradeRole(Member member, double level) {
+        roleReconciler.reconcile(member, level);
     }
 }
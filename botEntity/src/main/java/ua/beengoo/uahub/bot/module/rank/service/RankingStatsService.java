@@ -1,21 +1,30 @@
 package ua.beengoo.uahub.bot.module.rank.service;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Map;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildChannel;
 import org.springframework.stereotype.Service;
+import ua.beengoo.uahub.bot.module.rank.data.MultiplierSnapshot;
 import ua.beengoo.uahub.bot.module.rank.model.*;
 
-/** Service for resolving best multipliers by channel or role. */
+/**
+ * Service for resolving best multipliers by channel or role.
+ *
+ * <p>Multipliers are read from immutable in-memory snapshots, so lookups make no DB calls. The
+ * snapshots are loaded once and patched by {@link #setRoleMultiplier} and {@link
+ * #setChannelMultiplier}.
+ */
 @Service
 public class RankingStatsService {
 
     private final ChannelRankRepo channelRankRepo;
     private final RoleRankRepo roleRankRepo;
 
+    private volatile MultiplierSnapshot roleMultipliers;
+    private volatile MultiplierSnapshot channelMultipliers;
 
     public RankingStatsService(ChannelRankRepo channelRankRepo, RoleRankRepo roleRankRepo) {
         this.channelRankRepo = channelRankRepo;
@@ -44,33 +53,92 @@ public class RankingStatsService {
         }
     }
 
+    /** Sets a role multiplier and patches the in-memory snapshot. */
+    public RoleRankStats setRoleMultiplier(long roleId, double multiplier) {
+        RoleRankStats stats = getRoleOrCreate(roleId);
+        stats.setRoleMultiplier(multiplier);
+        RoleRankStats saved = roleRankRepo.save(stats);
+        synchronized (this) {
+            roleMultipliers = roleSnapshot().with(roleId, multiplier);
+        }
+        return saved;
+    }
+
+    /** Sets a channel (or category) multiplier and patches the in-memory snapshot. */
+    public ChannelRankStats setChannelMultiplier(long channelId, double multiplier) {
+        ChannelRankStats stats = getChannelOrCreate(channelId);
+        stats.setChannelMultiplier(multiplier);
+        ChannelRankStats saved = channelRankRepo.save(stats);
+        synchronized (this) {
+            channelMultipliers = channelSnapshot().with(channelId, multiplier);
+        }
+        return saved;
+    }
+
+    /** Role multiplier from the snapshot, {@code 0} if the role has none. */
+    public double getRoleMultiplier(long roleId) {
+        return roleSnapshot().get(roleId);
+    }
+
+    /** Channel multiplier from the snapshot, {@code 0} if the channel has none. */
+    public double getChannelMultiplier(long channelId) {
+        return channelSnapshot().get(channelId);
+    }
+
     /** Resolves the channel multiplier using the channel or its category fallback. */
     public double getBestChannelMultiplier(StandardGuildChannel channel) {
         if (channel.getParentCategory() != null) {
-            return getChannelOrCreate(channel.getIdLong()).getChannelMultiplier();
+            return getChannelMultiplier(channel.getIdLong());
         } else {
-            return getChannelOrCreate(channel.getParentCategoryIdLong()).getChannelMultiplier();
+            return getChannelMultiplier(channel.getParentCategoryIdLong());
         }
     }
 
     /** Picks the role with the strongest absolute multiplier (positive or negative). */
     public double getBestRoleMultiplier(Member member) {
-        List<Role> userRoles = new ArrayList<>(member.getRoles());
+        List<Role> userRoles = member.getRoles();
+        if (userRoles.isEmpty()) {
+            return getRoleMultiplier(member.getGuild().getPublicRole().getIdLong());
+        }
+        MultiplierSnapshot snapshot = roleSnapshot();
+        double lowest = Double.POSITIVE_INFINITY;
+        double biggest = Double.NEGATIVE_INFINITY;
+        for (Role role : userRoles) {
+            double multiplier = snapshot.get(role.getIdLong());
+            lowest = Math.min(lowest, multiplier);
+            biggest = Math.max(biggest, multiplier);
+        }
+        return Math.abs(lowest) > Math.abs(biggest) ? lowest : biggest;
+    }
 
-        userRoles.sort(
-                (r1, r2) -> {
-                    double multiplierR1 = getRoleOrCreate(r1.getIdLong()).getRoleMultiplier();
-                    double multiplierR2 = getRoleOrCreate(r2.getIdLong()).getRoleMultiplier();
-                    return Double.compare(multiplierR1, multiplierR2);
-                });
-        userRoles.reversed();
+    private MultiplierSnapshot roleSnapshot() {
+        MultiplierSnapshot snapshot = roleMultipliers;
+        if (snapshot == null) {
+            synchronized (this) {
+                if (roleMultipliers == null) {
+                    Map<Long, Double> values = new HashMap<>();
+                    roleRankRepo.findAll().forEach(r -> values.put(r.getRoleId(), r.getRoleMultiplier()));
+                    roleMultipliers = MultiplierSnapshot.of(values);
+                }
+                snapshot = roleMultipliers;
+            }
+        }
+        return snapshot;
+    }
 
-        try {
-            double biggestRole = getRoleOrCreate(userRoles.getFirst().getIdLong()).getRoleMultiplier();
-            double lowestRole = getRoleOrCreate(userRoles.getLast().getIdLong()).getRoleMultiplier();
-            return Math.abs(biggestRole) > Math.abs(lowestRole) ? biggestRole : lowestRole;
-        } catch (NoSuchElementException e) {
-            return getRoleOrCreate(member.getGuild().getPublicRole().getIdLong()).getRoleMultiplier();
+    private MultiplierSnapshot channelSnapshot() {
+        MultiplierSnapshot snapshot = channelMultipliers;
+        if (snapshot == null) {
+            synchronized (this) {
+                if (channelMultipliers == null) {
+                    Map<Long, Double> values = new HashMap<>();
+                    channelRankRepo.findAll()
+                            .forEach(c -> values.put(c.getChannelId(), c.getChannelMultiplier()));
+                    channelMultipliers = MultiplierSnapshot.of(values);
+                }
+                snapshot = channelMultipliers;
+            }
         }
+        return snapshot;
     }
 }
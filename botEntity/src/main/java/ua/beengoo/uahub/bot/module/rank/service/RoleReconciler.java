@@ -0,0 +1,178 @@
+package ua.beengoo.uahub.bot.module.rank.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.requests.restaction.AuditableRestAction;
+import org.springframework.stereotype.Service;
+import ua.beengoo.uahub.bot.helper.cache.LruCache;
+import ua.beengoo.uahub.bot.module.rank.data.MemberKey;
+import ua.beengoo.uahub.bot.module.rank.data.RankLadder;
+
+/**
+ * Applies ranking roles to members.
+ *
+ * <p>Awards only trigger reconciliation when the member moved to another ladder step since the
+ * last successful reconciliation; a failed role call is retried on the next award. Requests for the
+ * same member are coalesced: at most one role modify call is in flight per member and the latest
+ * requested level is applied after it completes.
+ */
+@Service
+@Slf4j
+public class RoleReconciler {
+  private static final int RECONCILED_STEPS_CACHE_SIZE = 50_000;
+
+  private final RankSettingsController rankSettingsController;
+
+  /**
+   * Ladder step each member was last reconciled at. An evicted member is reconciled once more on
+   * the next award, which costs no call if the roles are already right.
+   */
+  private final LruCache<MemberKey, Integer> reconciledSteps =
+      new LruCache<>(RECONCILED_STEPS_CACHE_SIZE);
+
+  private final Map<MemberKey, Pending> pending = new ConcurrentHashMap<>();
+
+  public RoleReconciler(RankSettingsController rankSettingsController) {
+    this.rankSettingsController = rankSettingsController;
+  }
+
+  /** Reconciles roles only when the level moved the member across a ladder threshold. */
+  public void onLevelChanged(Member member, double level) {
+    RankLadder ladder = rankSettingsController.getSnapshot(member.getGuild().getIdLong()).ladder();
+    if (ladder.isEmpty()) return;
+    MemberKey key = MemberKey.of(member);
+    int step = ladder.stepFor(level);
+    Integer reconciled = reconciledSteps.get(key);
+    if (reconciled != null && reconciled == step) return;
+    submit(member.getGuild(), key, level, step);
+  }
+
+  /** Reconciles roles for the given level regardless of the last known step. */
+  public void reconcile(Member member, double level) {
+    RankLadder ladder = rankSettingsController.getSnapshot(member.getGuild().getIdLong()).ladder();
+    MemberKey key = MemberKey.of(member);
+    reconciledSteps.remove(key);
+    submit(member.getGuild(), key, level, ladder.stepFor(level));
+  }
+
+  /** Forgets known steps, e.g. after the ladder changed. */
+  public void reset() {
+    reconciledSteps.clear();
+  }
+
+  private void submit(Guild guild, MemberKey key, double level, int step) {
+    while (true) {
+      Pending p = pending.computeIfAbsent(key, k -> new Pending());
+      synchronized (p) {
+        if (p.retired) continue;
+        // The running call already moves the member to this step
+        if (p.inFlight && !p.dirty && p.inFlightStep == step) return;
+        p.level = level;
+        p.step = step;
+        if (p.inFlight) {
+          p.dirty = true;
+          return;
+        }
+        p.inFlight = true;
+      }
+      dispatch(guild, key, p);
+      return;
+    }
+  }
+
+  private void dispatch(Guild guild, MemberKey key, Pending p) {
+    double level;
+    int step;
+    synchronized (p) {
+      level = p.level;
+      step = p.step;
+      p.inFlightStep = step;
+      p.dirty = false;
+    }
+    Member member = guild.getMemberById(key.userId());
+    if (member == null) {
+      // Left the guild, nothing to apply or remember
+      reconciledSteps.remove(key);
+      complete(guild, key, p);
+      return;
+    }
+    AuditableRestAction<Void> action;
+    try {
+      action = plan(guild, member, level);
+    } catch (Throwable e) {
+      log.warn("Unable to plan ranking roles for {}: {}", key.userId(), e.getMessage());
+      complete(guild, key, p);
+      return;
+    }
+    if (action == null) {
+      reconciledSteps.put(key, step);
+      complete(guild, key, p);
+      return;
+    }
+    action.queue(
+        ok -> {
+          reconciledSteps.put(key, step);
+          complete(guild, key, p);
+        },
+        err -> {
+          log.warn("Unable to update ranking roles for {}: {}", key.userId(), err.getMessage());
+          complete(guild, key, p);
+        });
+  }
+
+  private void complete(Guild guild, MemberKey key, Pending p) {
+    synchronized (p) {
+      if (!p.dirty) {
+        p.inFlight = false;
+        p.retired = true;
+        pending.remove(key, p);
+        return;
+      }
+    }
+    dispatch(guild, key, p);
+  }
+
+  /** Builds the single role modify call needed for a level, or {@code null} if nothing changes. */
+  private AuditableRestAction<Void> plan(Guild guild, Member member, double level) {
+    RankLadder ladder = rankSettingsController.getSnapshot(guild.getIdLong()).ladder();
+    if (ladder.isEmpty()) return null;
+
+    long targetRoleId = ladder.targetRoleFor(level);
+    Role targetRole = targetRoleId == RankLadder.NO_ROLE ? null : guild.getRoleById(targetRoleId);
+    if (targetRoleId != RankLadder.NO_ROLE && targetRole == null) return null;
+
+    boolean hasTarget = false;
+    List<Role> toRemove = new ArrayList<>();
+    for (Role role : member.getUnsortedRoles()) {
+      if (role.equals(targetRole)) hasTarget = true;
+      else if (ladder.isLadderRole(role.getIdLong())) toRemove.add(role);
+    }
+
+    if (targetRole == null) {
+      if (toRemove.isEmpty()) return null;
+      return guild
+          .modifyMemberRoles(member, List.of(), toRemove)
+          .reason("Below minimum level requirement");
+    }
+    if (hasTarget) return null;
+    return guild
+        .modifyMemberRoles(member, List.of(targetRole), toRemove)
+        .reason("Level up to level " + (int) level);
+  }
+
+  /** Latest requested level of a member and whether a call is running for it. */
+  private static final class Pending {
+    private double level;
+    private int step;
+    private int inFlightStep;
+    private boolean inFlight;
+    private boolean dirty;
+    private boolean retired;
+  }
+}
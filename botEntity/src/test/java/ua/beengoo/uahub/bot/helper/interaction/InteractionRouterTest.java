@@ -0,0 +1,68 @@
+package ua.beengoo.uahub.bot.helper.interaction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class InteractionRouterTest {
+
+  private final InteractionRouter router = new InteractionRouter();
+
+  private static ButtonInteractionEvent click(long messageId, String componentId) {
+    ButtonInteractionEvent event = mock(ButtonInteractionEvent.class);
+    lenient().when(event.getMessageIdLong()).thenReturn(messageId);
+    lenient().when(event.getComponentId()).thenReturn(componentId);
+    return event;
+  }
+
+  @Test
+  @DisplayName("dispatch: message id first, then component id prefix")
+  void dispatch_ByMessageThenPrefix() {
+    InteractionHandler panel = mock(InteractionHandler.class);
+    InteractionHandler votes = mock(InteractionHandler.class);
+    router.bindMessage(10L, panel, null);
+    router.bindPrefix("vote", votes);
+
+    ButtonInteractionEvent onPanel = click(10L, "pl.next");
+    ButtonInteractionEvent onVote = click(11L, "vote:yes:abc");
+    ButtonInteractionEvent unknown = click(12L, "other");
+    router.onButtonInteraction(onPanel);
+    router.onButtonInteraction(onVote);
+    router.onButtonInteraction(unknown);
+
+    verify(panel).onButtonInteraction(onPanel);
+    verify(votes).onButtonInteraction(onVote);
+    verifyNoMoreInteractions(panel, votes);
+  }
+
+  @Test
+  @DisplayName("evictExpired: drops idle routes once and keeps routes without TTL")
+  void evictExpired_DropsIdleRoutes() throws InterruptedException {
+    InteractionHandler paginator = mock(InteractionHandler.class);
+    InteractionHandler panel = mock(InteractionHandler.class);
+    router.bindMessage(1L, paginator, Duration.ZERO);
+    router.bindMessage(2L, panel, null);
+
+    Thread.sleep(5);
+    router.evictExpired();
+    router.evictExpired();
+
+    verify(paginator, times(1)).onExpire();
+    verify(panel, never()).onExpire();
+    assertEquals(1, router.size());
+
+    router.onButtonInteraction(click(1L, "next"));
+    verify(paginator, never()).onButtonInteraction(any());
+  }
+
+  @Test
+  @DisplayName("prefixOf: id part before the first colon")
+  void prefixOf_SplitsOnColon() {
+    assertEquals("vote", InteractionRouter.prefixOf("vote:yes:1"));
+    assertEquals("pl.jump.sel", InteractionRouter.prefixOf("pl.jump.sel"));
+  }
+}
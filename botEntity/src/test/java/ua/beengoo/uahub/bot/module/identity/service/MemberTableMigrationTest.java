@@ -0,0 +1,152 @@
+package ua.beengoo.uahub.bot.module.identity.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import ua.beengoo.uahub.bot.module.rank.service.RankingService;
+
+class MemberTableMigrationTest {
+
+  private JdbcTemplate jdbc;
+  private MemberTableMigration migration;
+
+  @BeforeEach
+  void setUp() {
+    JdbcDataSource ds = new JdbcDataSource();
+    // Kept open between connections, one database per test
+    ds.setURL(
+        "jdbc:h2:mem:migration"
+            + System.nanoTime()
+            + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+    ds.setUser("sa");
+    jdbc = new JdbcTemplate(ds);
+    jdbc.execute(
+        "CREATE TABLE members (id BIGINT PRIMARY KEY, discord_id BIGINT, rank_stats_id BIGINT)");
+    jdbc.execute(
+        """
+        CREATE TABLE rank_stats (
+          id BIGINT PRIMARY KEY, members_id BIGINT NOT NULL UNIQUE REFERENCES members(id),
+          prime_points DOUBLE PRECISION, voice_points DOUBLE PRECISION, level DOUBLE PRECISION,
+          chat_points DOUBLE PRECISION, multiplier DOUBLE PRECISION, messages_sent BIGINT,
+          voice_joins BIGINT, voice_ms_alone BIGINT, voice_ms_with_others BIGINT,
+          voice_ms_muted BIGINT, voice_ms_deafened BIGINT, voice_ms_active BIGINT)
+        """);
+    jdbc.execute("ALTER TABLE members ADD FOREIGN KEY (rank_stats_id) REFERENCES rank_stats(id)");
+    jdbc.execute(
+        "CREATE TABLE member_perms (id BIGINT PRIMARY KEY,"
+            + " members_id BIGINT NOT NULL UNIQUE REFERENCES members(id))");
+    jdbc.execute(
+        "CREATE TABLE member_perm_nodes (id BIGINT PRIMARY KEY,"
+            + " member_perms_id BIGINT REFERENCES member_perms(id), node VARCHAR(64))");
+    jdbc.execute(
+        "CREATE TABLE member_perm_groups (member_perms_id BIGINT REFERENCES member_perms(id),"
+            + " group_id BIGINT)");
+    jdbc.execute(
+        "CREATE TABLE music_user_playlists (id BIGINT PRIMARY KEY,"
+            + " owner_id BIGINT NOT NULL REFERENCES members(id), name VARCHAR(96) NOT NULL,"
+            + " UNIQUE (owner_id, name))");
+    jdbc.execute(
+        "CREATE TABLE music_user_playlist_tracks (id BIGINT PRIMARY KEY,"
+            + " playlist_id BIGINT NOT NULL REFERENCES music_user_playlists(id),"
+            + " position INT NOT NULL, query VARCHAR(2048) NOT NULL)");
+    jdbc.execute(
+        "CREATE TABLE music_member_settings (id BIGINT PRIMARY KEY,"
+            + " owner_id BIGINT NOT NULL UNIQUE REFERENCES members(id), json VARCHAR(4096))");
+    migration = new MemberTableMigration(jdbc, new DataSourceTransactionManager(ds), null);
+  }
+
+  private void member(long id, long discordId, double voice, double chat, long messages) {
+    jdbc.update("INSERT INTO members (id, discord_id) VALUES (?, ?)", id, discordId);
+    jdbc.update(
+        "INSERT INTO rank_stats (id, members_id, prime_points, voice_points, level, chat_points,"
+            + " multiplier, messages_sent) VALUES (?, ?, 0, ?, 0, ?, 1, ?)",
+        id,
+        id,
+        voice,
+        chat,
+        messages);
+    jdbc.update("UPDATE members SET rank_stats_id = ? WHERE id = ?", id, id);
+    jdbc.update("INSERT INTO member_perms (id, members_id) VALUES (?, ?)", id, id);
+  }
+
+  private void playlist(long id, long owner, String name, String... queries) {
+    jdbc.update(
+        "INSERT INTO music_user_playlists (id, owner_id, name) VALUES (?, ?, ?)", id, owner, name);
+    for (int i = 0; i < queries.length; i++) {
+      jdbc.update(
+          "INSERT INTO music_user_playlist_tracks (id, playlist_id, position, query)"
+              + " VALUES (?, ?, ?, ?)",
+          id * 100 + i,
+          id,
+          i,
+          queries[i]);
+    }
+  }
+
+  @Test
+  @DisplayName("migrate: folds duplicates with playlists, settings and stats into the oldest row")
+  void migrate_MergesDuplicates() {
+    member(1, 500, 100, 50, 3);
+    member(2, 500, 200, 25, 4);
+    member(3, 500, 0, 0, 0);
+    member(4, 600, 10, 10, 1);
+    jdbc.update("INSERT INTO member_perm_nodes (id, member_perms_id, node) VALUES (1, 2, 'x')");
+    playlist(10, 1, "chill", "a", "b");
+    playlist(20, 2, "chill", "c");
+    playlist(21, 2, "rock", "d");
+    jdbc.update("INSERT INTO music_member_settings (id, owner_id, json) VALUES (1, 2, '{}')");
+    jdbc.update("INSERT INTO music_member_settings (id, owner_id, json) VALUES (2, 3, '[]')");
+
+    migration.migrate();
+
+    assertEquals(
+        List.of(1L, 4L), jdbc.queryForList("SELECT id FROM members ORDER BY id", Long.class));
+    assertEquals(300.0, stat("voice_points", 1), 1e-9);
+    assertEquals(75.0, stat("chat_points", 1), 1e-9);
+    assertEquals(7.0, stat("messages_sent", 1), 1e-9);
+    assertEquals(RankingService.levelFor(375), stat("level", 1), 1e-9);
+    assertEquals(10.0, stat("voice_points", 4), 1e-9);
+
+    assertEquals(
+        List.of("chill", "rock"),
+        jdbc.queryForList(
+            "SELECT name FROM music_user_playlists WHERE owner_id = 1 ORDER BY name",
+            String.class));
+    assertEquals(
+        List.of("a", "b", "c"),
+        jdbc.queryForList(
+            "SELECT query FROM music_user_playlist_tracks WHERE playlist_id = 10"
+                + " ORDER BY position",
+            String.class));
+    assertEquals(
+        List.of("{}"),
+        jdbc.queryForList(
+            "SELECT json FROM music_member_settings WHERE owner_id = 1", String.class));
+    assertEquals(
+        1, jdbc.queryForObject("SELECT count(*) FROM music_member_settings", Integer.class));
+
+    assertThrows(
+        Exception.class,
+        () -> jdbc.update("INSERT INTO members (id, discord_id) VALUES (9, 500)"));
+  }
+
+  @Test
+  @DisplayName("migrate: does nothing once the constraint exists")
+  void migrate_Idempotent() {
+    member(1, 500, 1, 1, 1);
+    migration.migrate();
+    migration.migrate();
+    assertEquals(1, jdbc.queryForObject("SELECT count(*) FROM members", Integer.class));
+  }
+
+  private double stat(String column, long memberId) {
+    return jdbc.queryForObject(
+        "SELECT " + column + " FROM rank_stats WHERE members_id = ?", Double.class, memberId);
+  }
+}
@@ -12,6 +12,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ua.beengoo.uahub.bot.module.identity.exceptions.MemberExistsException;
+import ua.beengoo.uahub.bot.module.identity.model.MemberUpsertResult;
 import ua.beengoo.uahub.bot.module.identity.model.ServerMember;
 import ua.beengoo.uahub.bot.module.identity.model.ServerMemberRepo;
 
@@ -22,43 +23,76 @@ class ServerMemberControllerTest {
 
   @InjectMocks private ServerMemberController ctrl;
 
+  private static MemberUpsertResult upserted(long id, boolean inserted) {
+    return new MemberUpsertResult() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public Boolean getInserted() {
+        return inserted;
+      }
+    };
+  }
+
   @Test
-  @DisplayName("addNewMember: creates new member with initial stats and permissions")
+  @DisplayName("addNewMember: creates new member with a single upsert")
   void addNewMember_Creates() {
     long uid = 42L;
-    when(repo.existsByDiscordId(uid)).thenReturn(false);
-    when(repo.save(any(ServerMember.class))).thenAnswer(inv -> inv.getArgument(0));
-    ServerMember sm = ctrl.addNewMember(uid);
-    assertEquals(uid, sm.getDiscordId());
-    assertNotNull(sm.getRankStats());
-    assertEquals(1, sm.getRankStats().getMemberMultiplier());
-    assertSame(sm, sm.getRankStats().getServerMember());
-    assertNotNull(sm.getMemberPermissions());
-    assertSame(sm, sm.getMemberPermissions().getServerMember());
+    ServerMember sm = new ServerMember();
+    sm.setId(7L);
+    sm.setDiscordId(uid);
+    when(repo.upsertByDiscordId(uid)).thenReturn(Optional.of(upserted(7L, true)));
+    when(repo.findById(7L)).thenReturn(Optional.of(sm));
+    assertSame(sm, ctrl.addNewMember(uid));
+    verify(repo, times(1)).upsertByDiscordId(uid);
+    verify(repo, never()).existsByDiscordId(anyLong());
   }
 
   @Test
   @DisplayName("addNewMember: throws when member exists")
   void addNewMember_ThrowsIfExists() {
-    when(repo.existsByDiscordId(1L)).thenReturn(true);
+    when(repo.upsertByDiscordId(1L)).thenReturn(Optional.of(upserted(3L, false)));
     assertThrows(MemberExistsException.class, () -> ctrl.addNewMember(1L));
+    // Now cached: no further queries
+    assertThrows(MemberExistsException.class, () -> ctrl.addNewMember(1L));
+    verify(repo, times(1)).upsertByDiscordId(1L);
   }
 
   @Test
-  @DisplayName("addMemberOrNothing: creates when missing else returns existing")
+  @DisplayName("addMemberOrNothing: upserts once, then resolves the row id from cache")
   void addMemberOrNothing_Behavior() {
     long uid = 100L;
-    // First call: create
-    when(repo.existsByDiscordId(uid)).thenReturn(false);
-    when(repo.save(any(ServerMember.class))).thenAnswer(inv -> inv.getArgument(0));
-    ServerMember created = ctrl.addMemberOrNothing(uid);
-    assertEquals(uid, created.getDiscordId());
-
-    // Second call: find existing
-    when(repo.existsByDiscordId(uid)).thenReturn(true);
-    when(repo.findByDiscordId(uid)).thenReturn(Optional.of(created));
-    ServerMember found = ctrl.addMemberOrNothing(uid);
-    assertSame(created, found);
+    ServerMember sm = new ServerMember();
+    sm.setId(9L);
+    sm.setDiscordId(uid);
+    when(repo.upsertByDiscordId(uid)).thenReturn(Optional.of(upserted(9L, true)));
+    when(repo.findById(9L)).thenReturn(Optional.of(sm));
+
+    assertSame(sm, ctrl.addMemberOrNothing(uid));
+    assertSame(sm, ctrl.addMemberOrNothing(uid));
+    verify(repo, times(1)).upsertByDiscordId(uid);
+  }
+
+  @Test
+  @DisplayName("upsert retries once when a concurrent insert won the race")
+  void resolveMemberId_RetriesLostRace() {
+    when(repo.upsertByDiscordId(5L))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(upserted(11L, false)));
+    assertEquals(11L, ctrl.resolveMemberId(5L));
+  }
+
+  @Test
+  @DisplayName("registerMember: reports creation and costs no queries once known")
+  void registerMember_Behavior() {
+    when(repo.upsertByDiscordId(8L)).thenReturn(Optional.of(upserted(1L, true)));
+    assertTrue(ctrl.registerMember(8L));
+    assertFalse(ctrl.registerMember(8L));
+    assertEquals(1L, ctrl.resolveMemberId(8L));
+    verify(repo, times(1)).upsertByDiscordId(8L);
   }
 
   @Test
@@ -0,0 +1,90 @@
+package ua.beengoo.uahub.bot.module.music.player;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class OrderedLoaderTest {
+
+  private final Map<String, CompletableFuture<String>> loads = new HashMap<>();
+  private final List<String> delivered = new ArrayList<>();
+
+  private OrderedLoader<String> loader(List<String> queries, int parallelism) {
+    return new OrderedLoader<>(
+        queries,
+        parallelism,
+        q -> loads.computeIfAbsent(q, k -> new CompletableFuture<>()),
+        (r, e) -> delivered.add(e != null ? "failed" : r));
+  }
+
+  @Test
+  @DisplayName("start: bounded loads in flight, results delivered in query order")
+  void start_BoundedAndOrdered() {
+    OrderedLoader<String> loader = loader(List.of("a", "b", "c", "d"), 2);
+    loader.start();
+    assertEquals(2, loader.started());
+
+    loads.get("b").complete("B");
+    assertEquals(List.of(), delivered);
+    assertEquals(2, loader.started());
+
+    loads.get("a").complete("A");
+    assertEquals(List.of("A", "B"), delivered);
+    assertEquals(4, loader.started());
+
+    loads.get("d").complete("D");
+    loads.get("c").completeExceptionally(new IllegalStateException("gone"));
+    assertEquals(List.of("A", "B", "failed", "D"), delivered);
+    assertEquals(4, loader.delivered());
+  }
+
+  @Test
+  @DisplayName("start: the first result is delivered before later loads finish")
+  void start_DeliversFirstEarly() {
+    List<String> queries = new ArrayList<>();
+    for (int i = 0; i < 256; i++) queries.add("q" + i);
+    OrderedLoader<String> loader = loader(queries, 4);
+    loader.start();
+
+    loads.get("q0").complete("first");
+
+    assertEquals(List.of("first"), delivered);
+    assertEquals(5, loader.started());
+  }
+
+  @Test
+  @DisplayName("start: already completed loads are drained without waiting")
+  void start_DrainsCompletedLoads() {
+    List<String> queries = List.of("a", "b", "c");
+    queries.forEach(q -> loads.put(q, CompletableFuture.completedFuture(q.toUpperCase())));
+
+    loader(queries, 1).start();
+
+    assertEquals(List.of("A", "B", "C"), delivered);
+  }
+
+  @Test
+  @DisplayName("start: completed loads are handed over without holding the loader's lock")
+  void start_DeliversOutsideLock() {
+    List<String> queries = List.of("a", "b", "c");
+    List<Boolean> locked = new ArrayList<>();
+    List<OrderedLoader<String>> self = new ArrayList<>();
+    OrderedLoader<String> loader =
+        new OrderedLoader<>(
+            queries,
+            2,
+            q -> CompletableFuture.completedFuture(q),
+            (r, e) -> locked.add(Thread.holdsLock(self.getFirst())));
+    self.add(loader);
+
+    loader.start();
+
+    assertEquals(List.of(false, false, false), locked);
+  }
+}
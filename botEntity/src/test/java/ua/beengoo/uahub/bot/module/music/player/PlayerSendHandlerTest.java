@@ -0,0 +1,98 @@
+package ua.beengoo.uahub.bot.module.music.player;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrame;
+import com.sedmelluq.discord.lavaplayer.track.playback.AudioFrameProvider;
+import com.sedmelluq.discord.lavaplayer.track.playback.MutableAudioFrame;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PlayerSendHandlerTest {
+
+  /** Hands out the same pre-built Opus payload on every call, without allocating. */
+  private static final class FixedFrames implements AudioFrameProvider {
+    private final byte[] payload = new byte[160];
+    private boolean playing = true;
+
+    private FixedFrames() {
+      for (int i = 0; i < payload.length; i++) payload[i] = (byte) i;
+    }
+
+    @Override
+    public AudioFrame provide() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public AudioFrame provide(long timeout, TimeUnit unit) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean provide(MutableAudioFrame targetFrame) {
+      if (!playing) return false;
+      targetFrame.store(payload, 0, payload.length);
+      return true;
+    }
+
+    @Override
+    public boolean provide(MutableAudioFrame targetFrame, long timeout, TimeUnit unit) {
+      return provide(targetFrame);
+    }
+  }
+
+  @Test
+  @DisplayName("provide20MsAudio: returns the whole frame, frame after frame")
+  void provide_ReturnsFrameData() {
+    FixedFrames frames = new FixedFrames();
+    PlayerSendHandler handler = new PlayerSendHandler(frames);
+
+    for (int i = 0; i < 3; i++) {
+      assertTrue(handler.canProvide());
+      ByteBuffer audio = handler.provide20MsAudio();
+      assertEquals(frames.payload.length, audio.remaining());
+      assertEquals(5, audio.get(5));
+      audio.position(audio.limit()); // JDA consumes the buffer
+    }
+
+    frames.playing = false;
+    assertFalse(handler.canProvide());
+  }
+
+  @Test
+  @DisplayName("send path: no allocation per frame once warmed up")
+  void sendPath_DoesNotAllocate() {
+    var threads = ManagementFactory.getThreadMXBean();
+    assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+    var allocations = (com.sun.management.ThreadMXBean) threads;
+    assumeTrue(allocations.isThreadAllocatedMemorySupported());
+    allocations.setThreadAllocatedMemoryEnabled(true);
+    long thread = Thread.currentThread().threadId();
+
+    PlayerSendHandler handler = new PlayerSendHandler(new FixedFrames());
+    long checksum = sendFrames(handler, 200_000); // warm-up, lets the JIT settle
+    long before = allocations.getThreadAllocatedBytes(thread);
+    checksum += sendFrames(handler, 50_000); // about 17 minutes of audio
+    long allocated = allocations.getThreadAllocatedBytes(thread) - before;
+
+    assertTrue(checksum > 0);
+    // Wrapping each frame in a new ByteBuffer alone would allocate about 2 MB here
+    assertTrue(allocated < 4096, "allocated " + allocated + " bytes");
+  }
+
+  private static long sendFrames(PlayerSendHandler handler, int frames) {
+    long checksum = 0;
+    for (int i = 0; i < frames; i++) {
+      if (!handler.canProvide()) continue;
+      ByteBuffer audio = handler.provide20MsAudio();
+      checksum += audio.remaining();
+      audio.position(audio.limit());
+    }
+    return checksum;
+  }
+}
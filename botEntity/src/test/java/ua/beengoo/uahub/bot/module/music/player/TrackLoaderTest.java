@@ -0,0 +1,79 @@
+package ua.beengoo.uahub.bot.module.music.player;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.sedmelluq.discord.lavaplayer.player.AudioLoadResultHandler;
+import com.sedmelluq.discord.lavaplayer.player.AudioPlayerManager;
+import com.sedmelluq.discord.lavaplayer.tools.FriendlyException;
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class TrackLoaderTest {
+  private static final String URL = "https://youtu.be/abc";
+
+  @Mock private AudioPlayerManager playerManager;
+
+  private AudioLoadResultHandler captureHandler(int loads) {
+    ArgumentCaptor<AudioLoadResultHandler> handler =
+        ArgumentCaptor.forClass(AudioLoadResultHandler.class);
+    verify(playerManager, times(loads)).loadItem(eq(URL), handler.capture());
+    return handler.getValue();
+  }
+
+  @Test
+  @DisplayName("resolve: concurrent callers share one load, later ones hit the cache")
+  void resolve_CoalescesAndCaches() {
+    TrackLoader loader = new TrackLoader(playerManager);
+    AudioTrack prototype = mock(AudioTrack.class);
+    when(prototype.makeClone()).thenAnswer(inv -> mock(AudioTrack.class));
+
+    CompletableFuture<TrackLoader.LoadedItem> first = loader.resolve(URL);
+    CompletableFuture<TrackLoader.LoadedItem> second = loader.resolve(" " + URL);
+    assertFalse(first.isDone());
+    captureHandler(1).trackLoaded(prototype);
+
+    CompletableFuture<TrackLoader.LoadedItem> cached = loader.resolve(URL);
+    assertTrue(cached.isDone());
+    verify(playerManager, times(1)).loadItem(any(String.class), any(AudioLoadResultHandler.class));
+    assertNotSame(prototype, first.join().track());
+    assertNotSame(first.join().track(), second.join().track());
+    assertNotSame(first.join().track(), cached.join().track());
+    assertEquals(1, loader.cacheSize());
+  }
+
+  @Test
+  @DisplayName("resolve: failures and empty results are not cached")
+  void resolve_DoesNotCacheFailures() {
+    TrackLoader loader = new TrackLoader(playerManager);
+
+    CompletableFuture<TrackLoader.LoadedItem> failed = loader.resolve(URL);
+    captureHandler(1)
+        .loadFailed(new FriendlyException("blocked", FriendlyException.Severity.COMMON, null));
+    assertTrue(failed.isCompletedExceptionally());
+
+    CompletableFuture<TrackLoader.LoadedItem> empty = loader.resolve(URL);
+    captureHandler(2).noMatches();
+    assertTrue(empty.join().isEmpty());
+
+    loader.resolve(URL);
+    captureHandler(3);
+    assertEquals(0, loader.cacheSize());
+  }
+
+  @Test
+  @DisplayName("normalize: trims queries, lower-cases searches but not URLs")
+  void normalize_KeepsUrlCase() {
+    assertEquals("ytsearch:never gonna", TrackLoader.normalize("  ytsearch:Never Gonna "));
+    assertEquals("https://youtu.be/AbC", TrackLoader.normalize("https://youtu.be/AbC "));
+  }
+}
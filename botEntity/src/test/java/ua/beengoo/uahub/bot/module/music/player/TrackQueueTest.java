@@ -0,0 +1,91 @@
+package ua.beengoo.uahub.bot.module.music.player;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.sedmelluq.discord.lavaplayer.track.AudioTrack;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TrackQueueTest {
+
+  private static AudioTrackMeta meta(String identifier) {
+    AudioTrack track = mock(AudioTrack.class);
+    lenient().when(track.getIdentifier()).thenReturn(identifier);
+    return new AudioTrackMeta(track, null);
+  }
+
+  private static List<String> ids(TrackQueue queue) {
+    return queue.toList().stream().map(m -> m.getEntity().getIdentifier()).toList();
+  }
+
+  @Test
+  @DisplayName("add: rejects queued identifiers and evicts the oldest entry when full")
+  void add_DedupesAndEvicts() {
+    TrackQueue queue = new TrackQueue(3);
+    assertTrue(queue.add(meta("a")));
+    assertTrue(queue.add(meta("b")));
+    assertFalse(queue.add(meta("a")));
+    queue.add(meta("c"));
+    queue.add(meta("d"));
+
+    assertEquals(List.of("b", "c", "d"), ids(queue));
+    assertNull(queue.find("a"));
+    assertTrue(queue.add(meta("a")));
+    assertEquals(List.of("c", "d", "a"), ids(queue));
+    assertSame(queue.get(2), queue.find("a"));
+  }
+
+  @Test
+  @DisplayName("remove: keeps order and index across the wrap-around of the ring")
+  void remove_AcrossWrap() {
+    TrackQueue queue = new TrackQueue(5);
+    for (String id : List.of("a", "b", "c", "d", "e", "f", "g")) queue.add(meta(id));
+    assertEquals(List.of("c", "d", "e", "f", "g"), ids(queue));
+
+    AudioTrackMeta d = queue.find("d");
+    assertEquals(1, queue.indexOf(d));
+    assertSame(d, queue.remove(1));
+    assertSame(queue.find("f"), queue.remove(2));
+
+    assertEquals(List.of("c", "e", "g"), ids(queue));
+    assertNull(queue.find("d"));
+    assertEquals(-1, queue.indexOf(d));
+    assertThrows(IndexOutOfBoundsException.class, () -> queue.get(3));
+  }
+
+  @Test
+  @DisplayName("move and shuffle: reorder entries without touching the index")
+  void moveAndShuffle() {
+    TrackQueue queue = new TrackQueue(5);
+    for (String id : List.of("x", "a", "b", "c", "d", "e")) queue.add(meta(id)); // wraps
+
+    queue.move(0, 3);
+    assertEquals(List.of("b", "c", "d", "a", "e"), ids(queue));
+    queue.move(4, 1);
+    assertEquals(List.of("b", "e", "c", "d", "a"), ids(queue));
+
+    queue.shuffle(2, new Random(7));
+    List<String> shuffled = ids(queue);
+    assertEquals(List.of("b", "e"), shuffled.subList(0, 2));
+    assertEquals(new HashSet<>(List.of("c", "d", "a")), new HashSet<>(shuffled.subList(2, 5)));
+    assertSame(queue.get(shuffled.indexOf("a")), queue.find("a"));
+  }
+
+  @Test
+  @DisplayName("clear: empties the queue and its index")
+  void clear_DropsIndex() {
+    TrackQueue queue = new TrackQueue(2);
+    queue.add(meta("a"));
+    queue.add(meta("b"));
+    assertTrue(queue.isFull());
+
+    queue.clear();
+    assertTrue(queue.isEmpty());
+    assertFalse(queue.contains("a"));
+    assertTrue(queue.add(meta("a")));
+  }
+}
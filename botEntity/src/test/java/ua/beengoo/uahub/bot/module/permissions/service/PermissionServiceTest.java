@@ -79,6 +79,48 @@ class PermissionServiceTest {
     assertTrue(ok);
   }
 
+  @Test
+  @DisplayName("has: most specific wildcard wins regardless of declaration order")
+  void has_MostSpecificWildcardWins() {
+    when(groupRepo.findByDefaultGroupTrue())
+        .thenReturn(
+            List.of(
+                group(
+                    "def",
+                    0,
+                    true,
+                    perm("music.pl.*", true),
+                    perm("music.*", false),
+                    perm("music.ctrl*", true),
+                    perm("*", true))));
+    when(memberRepo.findByDiscordId(11L)).thenReturn(Optional.empty());
+
+    assertTrue(svc.has(11L, List.of(), "music.pl.create"));
+    assertFalse(svc.has(11L, List.of(), "music.play"));
+    assertTrue(svc.has(11L, List.of(), "music.ctrl.skip"));
+    assertTrue(svc.has(11L, List.of(), "rank.view"));
+  }
+
+  @Test
+  @DisplayName("hasAny/hasAll/evaluate: many nodes answered from one resolution")
+  void multiNode_ResolvesOnce() {
+    when(groupRepo.findByDefaultGroupTrue())
+        .thenReturn(
+            List.of(group("def", 0, true, perm("music.play", true), perm("music.skip", false))));
+    ServerMember sm = new ServerMember();
+    sm.setDiscordId(12L);
+    when(memberRepo.findByDiscordId(12L)).thenReturn(Optional.of(sm));
+
+    assertTrue(svc.hasAny(12L, List.of(), "music.ctrl", "music.skip", "music.play"));
+    assertFalse(svc.hasAny(12L, List.of(), "music.ctrl", "music.skip"));
+    assertFalse(svc.hasAll(12L, List.of(), "music.play", "music.skip"));
+    assertEquals(
+        Map.of("music.play", true, "music.skip", false),
+        svc.evaluate(12L, List.of(), Set.of("music.play", "music.skip")));
+    verify(memberRepo, times(1)).findByDiscordId(12L);
+    verify(groupRepo, times(1)).findByDefaultGroupTrue();
+  }
+
   @Test
   @DisplayName("has: higher weight group overrides lower weight")
   void has_WeightOverride() {
@@ -91,7 +133,7 @@ class PermissionServiceTest {
     rpm.setRoleId(5L);
     rpm.getGroups().add(low);
     rpm.getGroups().add(high);
-    when(roleMapRepo.findByRoleId(5L)).thenReturn(Optional.of(rpm));
+    when(roleMapRepo.findByRoleIdIn(List.of(5L))).thenReturn(List.of(rpm));
 
     ServerMember sm = new ServerMember();
     sm.setDiscordId(2L);
@@ -128,7 +170,7 @@ class PermissionServiceTest {
     RolePermissionMapping rpm = new RolePermissionMapping();
     rpm.setRoleId(7L);
     rpm.getGroups().add(g2);
-    when(roleMapRepo.findByRoleId(7L)).thenReturn(Optional.of(rpm));
+    when(roleMapRepo.findByRoleIdIn(List.of(7L))).thenReturn(List.of(rpm));
 
     ServerMember sm = new ServerMember();
     sm.setDiscordId(4L);
@@ -139,4 +181,124 @@ class PermissionServiceTest {
     assertTrue(nodes.contains("c.*"));
     assertTrue(nodes.contains("x"));
   }
+
+  @Test
+  @DisplayName("has: compiled once per user and role set, reused until invalidated")
+  void has_CachesCompiledDecision() {
+    when(groupRepo.findByDefaultGroupTrue())
+        .thenReturn(List.of(group("def", 0, true, perm("rank.view", true))));
+    ServerMember sm = new ServerMember();
+    sm.setDiscordId(5L);
+    when(memberRepo.findByDiscordId(5L)).thenReturn(Optional.of(sm));
+
+    assertTrue(svc.has(5L, List.of(), "rank.view"));
+    assertFalse(svc.has(5L, List.of(), "perms.admin"));
+    assertTrue(svc.has(5L, null, "rank.view"));
+    verify(memberRepo, times(1)).findByDiscordId(5L);
+    verify(groupRepo, times(1)).findByDefaultGroupTrue();
+
+    svc.invalidateUser(5L);
+    assertTrue(svc.has(5L, List.of(), "rank.view"));
+    verify(memberRepo, times(2)).findByDiscordId(5L);
+  }
+
+  @Test
+  @DisplayName("invalidateGroup/Role: drops only decisions that depend on them")
+  void invalidate_IsPrecise() {
+    PermissionGroup def = group("def", 0, true);
+    def.setId(1L);
+    PermissionGroup mods = group("mods", 5, false, perm("mod.clear", true));
+    mods.setId(2L);
+    when(groupRepo.findByDefaultGroupTrue()).thenReturn(List.of(def));
+    RolePermissionMapping rpm = new RolePermissionMapping();
+    rpm.setRoleId(9L);
+    rpm.getGroups().add(mods);
+    when(roleMapRepo.findByRoleIdIn(List.of(9L))).thenReturn(List.of(rpm));
+    ServerMember mod = new ServerMember();
+    mod.setDiscordId(6L);
+    ServerMember user = new ServerMember();
+    user.setDiscordId(7L);
+    when(memberRepo.findByDiscordId(6L)).thenReturn(Optional.of(mod));
+    when(memberRepo.findByDiscordId(7L)).thenReturn(Optional.of(user));
+
+    assertTrue(svc.has(6L, List.of(9L), "mod.clear"));
+    assertFalse(svc.has(7L, List.of(), "mod.clear"));
+
+    svc.invalidateGroup(mods);
+    svc.has(6L, List.of(9L), "mod.clear");
+    svc.has(7L, List.of(), "mod.clear");
+    verify(memberRepo, times(2)).findByDiscordId(6L);
+    verify(memberRepo, times(1)).findByDiscordId(7L);
+
+    svc.invalidateRole(9L);
+    svc.has(6L, List.of(9L), "mod.clear");
+    svc.has(7L, List.of(), "mod.clear");
+    verify(memberRepo, times(3)).findByDiscordId(6L);
+    verify(memberRepo, times(1)).findByDiscordId(7L);
+  }
+
+  @Test
+  @DisplayName("has: inherited nodes come from flattened groups; parent changes refresh them")
+  void has_FlattenedInheritance() {
+    PermissionGroup base = group("base", 0, false, perm("music.play", true));
+    base.setId(20L);
+    PermissionGroup dj = group("dj", 5, false, perm("music.play", false));
+    dj.setId(21L);
+    PermissionGroup vip = group("vip", 1, false);
+    vip.setId(22L);
+    vip.getParents().add(dj);
+    vip.getParents().add(base);
+    when(groupRepo.findByDefaultGroupTrue()).thenReturn(List.of());
+    RolePermissionMapping rpm = new RolePermissionMapping();
+    rpm.setRoleId(30L);
+    rpm.getGroups().add(vip);
+    when(roleMapRepo.findByRoleIdIn(List.of(30L))).thenReturn(List.of(rpm));
+    ServerMember sm = new ServerMember();
+    sm.setDiscordId(13L);
+    when(memberRepo.findByDiscordId(13L)).thenReturn(Optional.of(sm));
+
+    // dj outweighs base even though both are inherited through vip
+    assertFalse(svc.has(13L, List.of(30L), "music.play"));
+
+    vip.getParents().remove(dj);
+    svc.invalidateGroup(vip);
+    assertTrue(svc.has(13L, List.of(30L), "music.play"));
+  }
+
+  @Test
+  @DisplayName("wouldCreateCycle: rejects a parent that already inherits from the child")
+  void wouldCreateCycle() {
+    PermissionGroup a = group("a", 0, false);
+    PermissionGroup b = group("b", 0, false);
+    PermissionGroup c = group("c", 0, false);
+    b.getParents().add(a);
+    c.getParents().add(b);
+
+    assertTrue(svc.wouldCreateCycle(a, c));
+    assertTrue(svc.wouldCreateCycle(a, a));
+    assertFalse(svc.wouldCreateCycle(c, a));
+  }
+
+  @Test
+  @DisplayName("has: role mappings loaded in one batch, unmapped roles remembered")
+  void has_BatchesRoleLookups() {
+    PermissionGroup mods = group("mods", 5, false, perm("mod.clear", true));
+    mods.setId(40L);
+    when(groupRepo.findByDefaultGroupTrue()).thenReturn(List.of());
+    RolePermissionMapping rpm = new RolePermissionMapping();
+    rpm.setRoleId(2L);
+    rpm.getGroups().add(mods);
+    when(roleMapRepo.findByRoleIdIn(List.of(1L, 2L, 3L))).thenReturn(List.of(rpm));
+    ServerMember a = new ServerMember();
+    a.setDiscordId(14L);
+    ServerMember b = new ServerMember();
+    b.setDiscordId(15L);
+    when(memberRepo.findByDiscordId(14L)).thenReturn(Optional.of(a));
+    when(memberRepo.findByDiscordId(15L)).thenReturn(Optional.of(b));
+
+    assertTrue(svc.has(14L, List.of(1L, 2L, 3L), "mod.clear"));
+    assertFalse(svc.has(15L, List.of(1L, 3L), "mod.clear"));
+    verify(roleMapRepo, times(1)).findByRoleIdIn(any());
+    verify(roleMapRepo, never()).findByRoleId(anyLong());
+  }
 }
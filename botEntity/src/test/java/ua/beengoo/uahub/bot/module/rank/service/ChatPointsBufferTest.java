@@ -0,0 +1,115 @@
+package ua.beengoo.uahub.bot.module.rank.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ua.beengoo.uahub.bot.module.identity.model.ServerMember;
+import ua.beengoo.uahub.bot.module.identity.service.ServerMemberController;
+import ua.beengoo.uahub.bot.module.rank.model.RankStats;
+
+@ExtendWith(MockitoExtension.class)
+class ChatPointsBufferTest {
+
+  @Mock private ServerMemberController memberController;
+  @Mock private LeaderboardIndex leaderboardIndex;
+
+  @InjectMocks private ChatPointsBuffer buffer;
+
+  private static ServerMember member(long discordId, double chat, double multiplier) {
+    ServerMember sm = new ServerMember();
+    sm.setDiscordId(discordId);
+    RankStats rs = new RankStats();
+    rs.setChatPoints(chat);
+    rs.setMemberMultiplier(multiplier);
+    rs.setServerMember(sm);
+    sm.setRankStats(rs);
+    return sm;
+  }
+
+  @Test
+  @DisplayName("add: buffers in memory and loads the member only once")
+  void add_BuffersWithoutWrites() {
+    when(memberController.addMemberOrNothing(1L)).thenReturn(member(1L, 0, 1));
+
+    buffer.add(1L, 1, 0);
+    buffer.add(1L, 1, 0);
+    double level = buffer.add(1L, 1, 0.5);
+
+    verify(memberController, times(1)).addMemberOrNothing(1L);
+    verify(memberController, never()).updateMembers(any());
+    assertEquals(RankingService.levelFor(3.5), level, 1e-9);
+  }
+
+  @Test
+  @DisplayName("flush: applies summed deltas to fresh entities in one batch")
+  @SuppressWarnings("unchecked")
+  void flush_WritesBatch() {
+    when(memberController.addMemberOrNothing(1L)).thenReturn(member(1L, 0, 1));
+    when(memberController.addMemberOrNothing(2L)).thenReturn(member(2L, 0, 2));
+    ServerMember fresh1 = member(1L, 300, 1);
+    ServerMember fresh2 = member(2L, 0, 2);
+    when(memberController.getByDiscordIds(anyCollection())).thenReturn(List.of(fresh1, fresh2));
+
+    buffer.add(1L, 1, 0);
+    buffer.add(1L, 1, 0);
+    buffer.add(2L, 1, 0);
+    buffer.flush();
+
+    ArgumentCaptor<Collection<ServerMember>> saved = ArgumentCaptor.forClass(Collection.class);
+    verify(memberController, times(1)).updateMembers(saved.capture());
+    assertEquals(2, saved.getValue().size());
+    assertEquals(302, fresh1.getRankStats().getChatPoints(), 1e-9);
+    assertEquals(2, fresh1.getRankStats().getMessagesSent());
+    assertEquals(RankingService.levelFor(302), fresh1.getRankStats().getLevel(), 1e-9);
+    assertEquals(2, fresh2.getRankStats().getChatPoints(), 1e-9);
+    assertEquals(1, fresh2.getRankStats().getMessagesSent());
+    verify(leaderboardIndex).updateAll(anyCollection());
+
+    buffer.flush();
+    verify(memberController, times(1)).getByDiscordIds(anyCollection());
+  }
+
+  @Test
+  @DisplayName("flush: keeps deltas when the write fails")
+  void flush_RestoresOnFailure() {
+    when(memberController.addMemberOrNothing(1L)).thenReturn(member(1L, 0, 1));
+    ServerMember fresh = member(1L, 0, 1);
+    when(memberController.getByDiscordIds(anyCollection()))
+        .thenThrow(new IllegalStateException("db down"))
+        .thenReturn(List.of(fresh));
+
+    buffer.add(1L, 1, 0);
+    buffer.flush();
+    buffer.flush();
+
+    assertEquals(1, fresh.getRankStats().getChatPoints(), 1e-9);
+    assertEquals(1, fresh.getRankStats().getMessagesSent());
+  }
+
+  @Test
+  @DisplayName("flush: a failing index update does not count saved deltas twice")
+  void flush_IndexFailureDoesNotRestore() {
+    when(memberController.addMemberOrNothing(1L)).thenReturn(member(1L, 0, 1));
+    ServerMember fresh = member(1L, 0, 1);
+    when(memberController.getByDiscordIds(anyCollection())).thenReturn(List.of(fresh));
+    doThrow(new IllegalStateException("index")).when(leaderboardIndex).updateAll(anyCollection());
+
+    buffer.add(1L, 1, 0);
+    buffer.flush();
+
+    assertFalse(buffer.hasPending(1L));
+    buffer.flush();
+    verify(memberController, times(1)).updateMembers(any());
+    assertEquals(1, fresh.getRankStats().getChatPoints(), 1e-9);
+  }
+}
@@ -0,0 +1,111 @@
+package ua.beengoo.uahub.bot.module.rank.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ua.beengoo.uahub.bot.module.identity.model.ServerMember;
+import ua.beengoo.uahub.bot.module.rank.data.LeaderboardEntry;
+import ua.beengoo.uahub.bot.module.rank.data.LeaderboardMetric;
+import ua.beengoo.uahub.bot.module.rank.model.LeaderboardRow;
+import ua.beengoo.uahub.bot.module.rank.model.RankStats;
+import ua.beengoo.uahub.bot.module.rank.model.RankStatsRepo;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardIndexTest {
+
+  @Mock private RankStatsRepo rankStatsRepo;
+
+  @InjectMocks private LeaderboardIndex index;
+
+  private static RankStats stats(long discordId, double chat, double voice) {
+    ServerMember sm = new ServerMember();
+    sm.setDiscordId(discordId);
+    RankStats rs = new RankStats();
+    rs.setChatPoints(chat);
+    rs.setVoicePoints(voice);
+    rs.setServerMember(sm);
+    sm.setRankStats(rs);
+    return rs;
+  }
+
+  private static LeaderboardRow row(long discordId, double chat, double voice) {
+    return new LeaderboardRow() {
+      public Long getDiscordId() {
+        return discordId;
+      }
+
+      public Double getMemberMultiplier() {
+        return 1.0;
+      }
+
+      public Double getLevel() {
+        return 0.0;
+      }
+
+      public Double getVoicePoints() {
+        return voice;
+      }
+
+      public Double getChatPoints() {
+        return chat;
+      }
+
+      public Double getPrimePoints() {
+        return 0.0;
+      }
+    };
+  }
+
+  private static List<Long> ids(List<LeaderboardEntry> page) {
+    return page.stream().map(LeaderboardEntry::discordId).toList();
+  }
+
+  @Test
+  @DisplayName("load: builds every metric once; live updates win over loaded values")
+  void load_KeepsNewerUpdates() {
+    when(rankStatsRepo.findAllRows()).thenReturn(List.of(row(1L, 10, 0), row(2L, 20, 5)));
+
+    index.update(stats(1L, 50, 0));
+    index.load();
+
+    assertEquals(2, index.size());
+    assertEquals(List.of(1L, 2L), ids(index.page(LeaderboardMetric.CHAT, 0, 10)));
+    assertEquals(List.of(2L, 1L), ids(index.page(LeaderboardMetric.VOICE, 0, 10)));
+  }
+
+  @Test
+  @DisplayName("update: re-orders the member; equal values share a position")
+  void update_Reorders() {
+    when(rankStatsRepo.findAllRows()).thenReturn(List.of());
+    index.load();
+    index.updateAll(List.of(stats(1L, 10, 0), stats(2L, 20, 0), stats(3L, 20, 0)));
+
+    assertEquals(1, index.position(LeaderboardMetric.CHAT, 20));
+    assertEquals(3, index.position(LeaderboardMetric.CHAT, 10));
+
+    index.update(stats(1L, 30, 0));
+
+    assertEquals(List.of(1L, 2L, 3L), ids(index.page(LeaderboardMetric.CHAT, 0, 10)));
+    assertEquals(List.of(3L), ids(index.page(LeaderboardMetric.COMPETITIVE, 2, 10)));
+    assertEquals(2, index.position(LeaderboardMetric.CHAT, 20));
+    assertEquals(3, index.size());
+  }
+
+  @Test
+  @DisplayName("reads: fall back to indexed queries until the load finished")
+  void reads_FallBackBeforeLoad() {
+    when(rankStatsRepo.countByChatPointsGreaterThan(15)).thenReturn(4L);
+    when(rankStatsRepo.pageByLevel(10, 10)).thenReturn(List.of(row(7L, 1, 2)));
+
+    assertEquals(5, index.position(LeaderboardMetric.CHAT, 15));
+    assertEquals(List.of(7L), ids(index.page(LeaderboardMetric.COMPETITIVE, 10, 10)));
+    verify(rankStatsRepo, never()).findAllRows();
+  }
+}
@@ -0,0 +1,98 @@
+package ua.beengoo.uahub.bot.module.rank.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ua.beengoo.uahub.bot.module.rank.data.RankLadder;
+import ua.beengoo.uahub.bot.module.rank.data.RankSettingsSnapshot;
+import ua.beengoo.uahub.bot.module.rank.model.RankSettings;
+import ua.beengoo.uahub.bot.module.rank.model.RankSettingsRepo;
+import ua.beengoo.uahub.bot.module.rank.model.RoleToLevel;
+
+@ExtendWith(MockitoExtension.class)
+class RankSettingsControllerTest {
+
+  @Mock private RankSettingsRepo repo;
+
+  @InjectMocks private RankSettingsController ctrl;
+
+  private static RoleToLevel link(long roleId, long level) {
+    RoleToLevel r2l = new RoleToLevel();
+    r2l.setRoleId(roleId);
+    r2l.setLevelRequired(level);
+    return r2l;
+  }
+
+  private static RankSettings settings(long serverId, RoleToLevel... links) {
+    RankSettings rs = new RankSettings();
+    rs.setServerId(serverId);
+    rs.setRoleLevelMappings(List.of(links));
+    return rs;
+  }
+
+  @Test
+  @DisplayName("getSnapshot: loads once until invalidated")
+  void snapshot_CachedUntilInvalidated() {
+    when(repo.findByServerId(1L)).thenReturn(Optional.of(settings(1L)));
+
+    RankSettingsSnapshot first = ctrl.getSnapshot(1L);
+    assertSame(first, ctrl.getSnapshot(1L));
+    verify(repo, times(1)).findByServerId(1L);
+
+    ctrl.invalidate(1L);
+    assertNotSame(first, ctrl.getSnapshot(1L));
+    verify(repo, times(2)).findByServerId(1L);
+  }
+
+  @Test
+  @DisplayName("getSnapshot: a load that overlaps an invalidation is not cached")
+  void snapshot_NotCachedAcrossInvalidation() {
+    when(repo.findByServerId(1L))
+        .thenAnswer(
+            inv -> {
+              ctrl.invalidate(1L);
+              return Optional.of(settings(1L));
+            });
+
+    RankSettingsSnapshot first = ctrl.getSnapshot(1L);
+    assertNotSame(first, ctrl.getSnapshot(1L));
+    verify(repo, times(2)).findByServerId(1L);
+  }
+
+  @Test
+  @DisplayName("getSettings: creates defaults when missing")
+  void getSettings_CreatesDefaults() {
+    when(repo.findByServerId(2L)).thenReturn(Optional.empty());
+    when(repo.save(any(RankSettings.class))).thenAnswer(inv -> inv.getArgument(0));
+    RankSettings rs = ctrl.getSettings(2L);
+    assertEquals(2L, rs.getServerId());
+    assertEquals(1, rs.getChatPointsAmount());
+  }
+
+  @Test
+  @DisplayName("ladder: picks highest reached step, first role wins on equal thresholds")
+  void ladder_TargetRole() {
+    when(repo.findByServerId(3L))
+        .thenReturn(
+            Optional.of(
+                settings(3L, link(30, 10), link(10, 1), link(20, 5), link(21, 5), link(40, 20))));
+    RankLadder ladder = ctrl.getSnapshot(3L).ladder();
+
+    assertEquals(RankLadder.NO_ROLE, ladder.targetRoleFor(0.99));
+    assertEquals(10, ladder.targetRoleFor(1));
+    assertEquals(10, ladder.targetRoleFor(4.9));
+    assertEquals(20, ladder.targetRoleFor(5));
+    assertEquals(30, ladder.targetRoleFor(19.5));
+    assertEquals(40, ladder.targetRoleFor(1000));
+    assertTrue(ladder.isLadderRole(21));
+    assertFalse(ladder.isLadderRole(99));
+  }
+}
@@ -1,10 +1,28 @@
 package ua.beengoo.uahub.bot.module.rank.service;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.GuildVoiceState;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.unions.AudioChannelUnion;
+import net.dv8tion.jda.api.events.guild.voice.GuildVoiceUpdateEvent;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import ua.beengoo.uahub.bot.module.identity.model.ServerMember;
+import ua.beengoo.uahub.bot.module.identity.service.ServerMemberController;
+import ua.beengoo.uahub.bot.module.rank.data.VoiceSession;
+import ua.beengoo.uahub.bot.module.rank.data.VoiceTotals;
 import ua.beengoo.uahub.bot.module.rank.model.RankStats;
+import ua.beengoo.uahub.bot.module.rank.model.RoleToLevelRepo;
 
 class RankingServiceTest {
 
@@ -23,4 +41,145 @@ class RankingServiceTest {
     // from level 1 to 2 -> 150*2^2 - 150 = 450
     assertEquals(450, gap1);
   }
+
+  @Test
+  @DisplayName("voice segments: mute right after a segment opens is accounted exactly")
+  void voiceSegments_Exact() {
+    VoiceSession vm = new VoiceSession(0);
+    vm.nextSegment(0, 1L, true, false, false);
+    // muted after one minute, alone after three, unmuted after four
+    vm.nextSegment(60_000, 1L, true, true, false);
+    vm.nextSegment(180_000, 1L, false, true, false);
+    vm.nextSegment(240_000, 1L, false, false, false);
+    VoiceTotals t = vm.drain(600_000);
+
+    assertEquals(600_000, t.windowMs());
+    assertEquals(180_000, t.msWithOthers());
+    assertEquals(420_000, t.msAlone());
+    assertEquals(180_000, t.msMuted());
+    assertEquals(60_000, t.msActive());
+    assertEquals(420_000, t.msEligible());
+
+    VoiceTotals next = vm.drain(660_000);
+    assertEquals(60_000, next.windowMs());
+    assertEquals(60_000, next.msAlone());
+    assertEquals(0, next.msMuted());
+  }
+
+  @Test
+  @DisplayName("sessionPoints: keeps the session combo and scales by eligible share")
+  void sessionPoints_Scaled() {
+    VoiceTotals full = new VoiceTotals(0, 600_000, 0, 600_000, 0, 0, 600_000, 600_000, 0);
+    assertEquals(10, RankingService.sessionPoints(full, 600_000), 1e-9);
+
+    VoiceTotals half = new VoiceTotals(0, 600_000, 0, 600_000, 300_000, 0, 300_000, 300_000, 0);
+    assertEquals(10, RankingService.sessionPoints(half, 1_200_000), 1e-9);
+
+    VoiceTotals capped = new VoiceTotals(0, 600_000, 0, 0, 0, 0, 0, 600_000, 0);
+    assertEquals(256, RankingService.sessionPoints(capped, 1000L * 60_000), 1e-9);
+
+    VoiceTotals muted = new VoiceTotals(0, 600_000, 600_000, 0, 600_000, 0, 0, 0, 0);
+    assertEquals(0, RankingService.sessionPoints(muted, 600_000), 1e-9);
+  }
+
+  @Test
+  @DisplayName("liveStats: overlays unflushed voice time on a copy and never writes")
+  @SuppressWarnings("unchecked")
+  void liveStats_ReadOnlyOverlay() {
+    ServerMemberController members = mock(ServerMemberController.class);
+    ChatPointsBuffer chat = mock(ChatPointsBuffer.class);
+    RankingService svc =
+        new RankingService(
+            members,
+            mock(RankSettingsController.class),
+            mock(RankingStatsService.class),
+            mock(RoleToLevelRepo.class),
+            chat,
+            mock(RoleReconciler.class),
+            mock(LeaderboardIndex.class),
+            (ObjectProvider<JDA>) mock(ObjectProvider.class));
+
+    ServerMember sm = new ServerMember();
+    sm.setDiscordId(5L);
+    RankStats persisted = new RankStats();
+    persisted.setServerMember(sm);
+    persisted.addVoiceMsAlone(1_000);
+
+    assertSame(persisted, svc.liveStats(persisted, Map.of()));
+
+    VoiceTotals pending = new VoiceTotals(0, 60_000, 60_000, 0, 0, 0, 0, 60_000, 1);
+    RankStats live = svc.liveStats(persisted, Map.of(5L, pending));
+    assertNotSame(persisted, live);
+    assertEquals(61_000, live.getVoiceMsAlone());
+    assertEquals(1, live.getVoiceJoins());
+    assertEquals(1_000, persisted.getVoiceMsAlone());
+    verifyNoInteractions(members);
+  }
+
+  @Test
+  @DisplayName("updateVoiceRankState: channel facts resolved once per channel, one batch write")
+  @SuppressWarnings("unchecked")
+  void voiceFlush_GroupsByChannel() {
+    ServerMemberController members = mock(ServerMemberController.class);
+    RankingStatsService stats = mock(RankingStatsService.class);
+    JDA jda = mock(JDA.class);
+    ObjectProvider<JDA> jdaProvider = (ObjectProvider<JDA>) mock(ObjectProvider.class);
+    when(jdaProvider.getIfAvailable()).thenReturn(jda);
+    RankingService svc =
+        new RankingService(
+            members,
+            mock(RankSettingsController.class),
+            stats,
+            mock(RoleToLevelRepo.class),
+            mock(ChatPointsBuffer.class),
+            mock(RoleReconciler.class),
+            mock(LeaderboardIndex.class),
+            jdaProvider);
+
+    Guild guild = mock(Guild.class);
+    when(guild.getIdLong()).thenReturn(1L);
+    when(jda.getGuildById(1L)).thenReturn(guild);
+    AudioChannelUnion channel = mock(AudioChannelUnion.class);
+    when(channel.getIdLong()).thenReturn(100L);
+    when(channel.getGuild()).thenReturn(guild);
+    List<Member> inChannel =
+        List.of(voiceMember(guild, channel, 11L), voiceMember(guild, channel, 12L));
+    when(channel.getMembers()).thenReturn(inChannel);
+    for (Member m : inChannel) {
+      GuildVoiceUpdateEvent join = mock(GuildVoiceUpdateEvent.class);
+      when(join.getMember()).thenReturn(m);
+      when(join.getChannelJoined()).thenReturn(channel);
+      svc.updateVoiceState(join);
+    }
+    List<ServerMember> stored = new ArrayList<>();
+    for (long id : new long[] {11L, 12L}) {
+      ServerMember sm = new ServerMember();
+      sm.setDiscordId(id);
+      RankStats rs = new RankStats();
+      rs.setServerMember(sm);
+      sm.setRankStats(rs);
+      stored.add(sm);
+    }
+    when(members.getByDiscordIds(Set.of(11L, 12L))).thenReturn(stored);
+
+    svc.updateVoiceRankState();
+
+    verify(jda, times(1)).getGuildById(1L);
+    verify(stats, times(1)).getBestChannelMultiplier(channel);
+    verify(members, times(1)).updateMembers(argThat(c -> c.size() == 2));
+    verify(members, never()).addMemberOrNothing(anyLong());
+  }
+
+  private static Member voiceMember(Guild guild, AudioChannelUnion channel, long id) {
+    Member m = mock(Member.class);
+    User user = mock(User.class);
+    GuildVoiceState state = mock(GuildVoiceState.class);
+    lenient().when(m.getIdLong()).thenReturn(id);
+    lenient().when(m.getGuild()).thenReturn(guild);
+    lenient().when(m.getUser()).thenReturn(user);
+    lenient().when(m.getVoiceState()).thenReturn(state);
+    lenient().when(state.getChannel()).thenReturn(channel);
+    lenient().when(guild.getMemberById(id)).thenReturn(m);
+    return m;
+  }
 }
@@ -64,25 +64,27 @@ class RankingStatsServiceTest {
   @DisplayName(
       "getBestChannelMultiplier uses channel id when parent present, else parent category id")
   void bestChannelMultiplier() {
-    StandardGuildChannel ch = mock(StandardGuildChannel.class);
-    when(ch.getParentCategory()).thenReturn(mock(Category.class));
-    when(ch.getIdLong()).thenReturn(100L);
     ChannelRankStats s = new ChannelRankStats();
     s.setChannelId(100L);
     s.setChannelMultiplier(1.5);
-    when(channelRepo.existsByChannelId(100L)).thenReturn(true);
-    when(channelRepo.findByChannelId(100L)).thenReturn(Optional.of(s));
+    ChannelRankStats p = new ChannelRankStats();
+    p.setChannelId(200L);
+    p.setChannelMultiplier(2.0);
+    when(channelRepo.findAll()).thenReturn(List.of(s, p));
+
+    StandardGuildChannel ch = mock(StandardGuildChannel.class);
+    when(ch.getParentCategory()).thenReturn(mock(Category.class));
+    when(ch.getIdLong()).thenReturn(100L);
     assertEquals(1.5, svc.getBestChannelMultiplier(ch));
 
     StandardGuildChannel ch2 = mock(StandardGuildChannel.class);
     when(ch2.getParentCategory()).thenReturn(null);
     when(ch2.getParentCategoryIdLong()).thenReturn(200L);
-    ChannelRankStats p = new ChannelRankStats();
-    p.setChannelId(200L);
-    p.setChannelMultiplier(2.0);
-    when(channelRepo.existsByChannelId(200L)).thenReturn(true);
-    when(channelRepo.findByChannelId(200L)).thenReturn(Optional.of(p));
     assertEquals(2.0, svc.getBestChannelMultiplier(ch2));
+
+    // Snapshot is loaded once, lookups make no further repo calls
+    verify(channelRepo, times(1)).findAll();
+    verify(channelRepo, never()).existsByChannelId(anyLong());
   }
 
   @Test
@@ -92,18 +94,20 @@ class RankingStatsServiceTest {
     when(r1.getIdLong()).thenReturn(1L);
     Role r2 = mock(Role.class);
     when(r2.getIdLong()).thenReturn(2L);
+    Role r3 = mock(Role.class);
+    when(r3.getIdLong()).thenReturn(3L);
     Member m = mock(Member.class);
-    when(m.getRoles()).thenReturn(List.of(r1, r2));
+    when(m.getRoles()).thenReturn(List.of(r1, r2, r3));
     RoleRankStats rr1 = new RoleRankStats();
     rr1.setRoleId(1L);
     rr1.setRoleMultiplier(-3.0);
     RoleRankStats rr2 = new RoleRankStats();
     rr2.setRoleId(2L);
     rr2.setRoleMultiplier(2.0);
-    when(roleRepo.existsByRoleId(1L)).thenReturn(true);
-    when(roleRepo.findByRoleId(1L)).thenReturn(Optional.of(rr1));
-    when(roleRepo.existsByRoleId(2L)).thenReturn(true);
-    when(roleRepo.findByRoleId(2L)).thenReturn(Optional.of(rr2));
+    RoleRankStats pubStats = new RoleRankStats();
+    pubStats.setRoleId(999L);
+    pubStats.setRoleMultiplier(0.5);
+    when(roleRepo.findAll()).thenReturn(List.of(rr1, rr2, pubStats));
     assertEquals(-3.0, svc.getBestRoleMultiplier(m));
 
     // No roles -> fallback to public role
@@ -114,11 +118,23 @@ class RankingStatsServiceTest {
     Member m2 = mock(Member.class);
     when(m2.getRoles()).thenReturn(List.of());
     when(m2.getGuild()).thenReturn(g);
-    RoleRankStats pubStats = new RoleRankStats();
-    pubStats.setRoleId(999L);
-    pubStats.setRoleMultiplier(0.0);
-    when(roleRepo.existsByRoleId(999L)).thenReturn(true);
-    when(roleRepo.findByRoleId(999L)).thenReturn(Optional.of(pubStats));
-    assertEquals(0.0, svc.getBestRoleMultiplier(m2));
+    assertEquals(0.5, svc.getBestRoleMultiplier(m2));
+
+    verify(roleRepo, times(1)).findAll();
+    verify(roleRepo, never()).existsByRoleId(anyLong());
+  }
+
+  @Test
+  @DisplayName("setRoleMultiplier persists and patches the snapshot without reloading")
+  void setRoleMultiplier_Patches() {
+    when(roleRepo.findAll()).thenReturn(List.of());
+    assertEquals(0.0, svc.getRoleMultiplier(7L));
+
+    when(roleRepo.existsByRoleId(7L)).thenReturn(false);
+    when(roleRepo.save(any(RoleRankStats.class))).thenAnswer(inv -> inv.getArgument(0));
+    svc.setRoleMultiplier(7L, 1.25);
+
+    assertEquals(1.25, svc.getRoleMultiplier(7L));
+    verify(roleRepo, times(1)).findAll();
   }
 }
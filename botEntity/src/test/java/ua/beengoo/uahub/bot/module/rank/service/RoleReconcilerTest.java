@@ -0,0 +1,137 @@
+package ua.beengoo.uahub.bot.module.rank.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.requests.restaction.AuditableRestAction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ua.beengoo.uahub.bot.module.rank.data.RankSettingsSnapshot;
+import ua.beengoo.uahub.bot.module.rank.model.RankSettings;
+import ua.beengoo.uahub.bot.module.rank.model.RoleToLevel;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RoleReconcilerTest {
+
+  @Mock private RankSettingsController settingsController;
+  @Mock private Guild guild;
+  @Mock private Member member;
+  @Mock private Role lowRole;
+  @Mock private Role highRole;
+  @Mock private AuditableRestAction<Void> action;
+
+  @InjectMocks private RoleReconciler reconciler;
+
+  private final List<Consumer<? super Void>> callbacks = new ArrayList<>();
+  private final List<Consumer<? super Throwable>> failures = new ArrayList<>();
+
+  private static RoleToLevel link(long roleId, long level) {
+    RoleToLevel r2l = new RoleToLevel();
+    r2l.setRoleId(roleId);
+    r2l.setLevelRequired(level);
+    return r2l;
+  }
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    RankSettings rs = new RankSettings();
+    rs.setServerId(1L);
+    rs.setRoleLevelMappings(List.of(link(10L, 1), link(20L, 5)));
+    when(settingsController.getSnapshot(1L)).thenReturn(RankSettingsSnapshot.of(rs));
+
+    when(guild.getIdLong()).thenReturn(1L);
+    when(member.getGuild()).thenReturn(guild);
+    when(member.getIdLong()).thenReturn(2L);
+    when(member.getUnsortedRoles()).thenReturn(Set.of());
+    when(guild.getMemberById(2L)).thenReturn(member);
+    when(guild.getRoleById(10L)).thenReturn(lowRole);
+    when(guild.getRoleById(20L)).thenReturn(highRole);
+    when(guild.modifyMemberRoles(eq(member), anyCollection(), anyCollection())).thenReturn(action);
+    when(action.reason(anyString())).thenReturn(action);
+    doAnswer(
+            inv -> {
+              callbacks.add(inv.getArgument(0));
+              failures.add(inv.getArgument(1));
+              return null;
+            })
+        .when(action)
+        .queue(any(), any());
+  }
+
+  @Test
+  @DisplayName("reconcile: coalesces requests while a call is in flight and applies the latest")
+  @SuppressWarnings("unchecked")
+  void reconcile_Coalesces() {
+    reconciler.reconcile(member, 2);
+    reconciler.reconcile(member, 6);
+    reconciler.reconcile(member, 7);
+    verify(guild, times(1)).modifyMemberRoles(eq(member), anyCollection(), anyCollection());
+
+    callbacks.getFirst().accept(null);
+
+    ArgumentCaptor<Collection<Role>> added = ArgumentCaptor.forClass(Collection.class);
+    verify(guild, times(2)).modifyMemberRoles(eq(member), added.capture(), anyCollection());
+    assertEquals(List.of(lowRole), List.copyOf(added.getAllValues().get(0)));
+    assertEquals(List.of(highRole), List.copyOf(added.getAllValues().get(1)));
+
+    callbacks.get(1).accept(null);
+    reconciler.reconcile(member, 8);
+    verify(guild, times(3)).modifyMemberRoles(eq(member), anyCollection(), anyCollection());
+  }
+
+  @Test
+  @DisplayName("onLevelChanged: only reconciles when a ladder threshold is crossed")
+  void onLevelChanged_Gated() {
+    reconciler.onLevelChanged(member, 1.5);
+    callbacks.getFirst().accept(null);
+    reconciler.onLevelChanged(member, 2.5);
+    reconciler.onLevelChanged(member, 4.99);
+    verify(guild, times(1)).modifyMemberRoles(eq(member), anyCollection(), anyCollection());
+
+    reconciler.onLevelChanged(member, 5);
+    verify(guild, times(2)).modifyMemberRoles(eq(member), anyCollection(), anyCollection());
+  }
+
+  @Test
+  @DisplayName("reconcile: no call when the member already has the target role")
+  void reconcile_NoopWhenUpToDate() {
+    when(member.getUnsortedRoles()).thenReturn(Set.of(lowRole));
+    reconciler.reconcile(member, 2);
+    verify(guild, never()).modifyMemberRoles(any(Member.class), anyCollection(), anyCollection());
+  }
+
+  @Test
+  @DisplayName("onLevelChanged: a failed call is retried on the next award in the same step")
+  void onLevelChanged_RetriesAfterFailure() {
+    reconciler.onLevelChanged(member, 1.5);
+    reconciler.onLevelChanged(member, 1.7);
+    verify(guild, times(1)).modifyMemberRoles(eq(member), anyCollection(), anyCollection());
+
+    failures.getFirst().accept(new IllegalStateException("429"));
+    reconciler.onLevelChanged(member, 2.5);
+    verify(guild, times(2)).modifyMemberRoles(eq(member), anyCollection(), anyCollection());
+
+    callbacks.get(1).accept(null);
+    reconciler.onLevelChanged(member, 3);
+    verify(guild, times(2)).modifyMemberRoles(eq(member), anyCollection(), anyCollection());
+  }
+}